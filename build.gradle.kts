@@ -32,13 +32,57 @@ dependencies {
   implementation("io.jsonwebtoken:jjwt-jackson:0.11.5")
   implementation("com.github.ulisesbocchio:jasypt-spring-boot-starter:3.0.5")
   implementation("org.springframework.boot:spring-boot-starter-aop")
+  implementation("org.springframework.boot:spring-boot-starter-actuator")
+  implementation("com.github.ben-manes.caffeine:caffeine")
+  implementation("org.bouncycastle:bcprov-jdk18on:1.76")
   compileOnly("org.projectlombok:lombok")
   runtimeOnly("org.mariadb.jdbc:mariadb-java-client")
   annotationProcessor("org.projectlombok:lombok")
   testImplementation("org.springframework.boot:spring-boot-starter-test")
   testImplementation("org.springframework.security:spring-security-test")
+  testImplementation("com.h2database:h2")
+  testImplementation("com.github.fppt:jedis-mock:1.0.10")
 }
 
 tasks.withType<Test> {
   useJUnitPlatform()
 }
+
+tasks.test {
+  useJUnitPlatform {
+    excludeTags("benchmark", "load")
+  }
+}
+
+// 마이크로 벤치마크는 ./gradlew benchmark 로 따로 실행한다.
+tasks.register<Test>("benchmark") {
+  description = "Runs micro benchmarks tagged with 'benchmark'."
+  group = "verification"
+  testClassesDirs = sourceSets.test.get().output.classesDirs
+  classpath = sourceSets.test.get().runtimeClasspath
+  useJUnitPlatform {
+    includeTags("benchmark")
+  }
+  outputs.upToDateWhen { false }
+  testLogging {
+    showStandardStreams = true
+  }
+}
+
+// 부하 테스트는 ./gradlew loadTest -Ploadtest.concurrency=32 처럼 실행한다.
+// 내장 H2와 Redis 프로토콜 대역(jedis-mock)을 사용하므로 외부 서비스가 필요 없다.
+tasks.register<Test>("loadTest") {
+  description = "Runs the in-repo load test harness tagged with 'load'."
+  group = "verification"
+  testClassesDirs = sourceSets.test.get().output.classesDirs
+  classpath = sourceSets.test.get().runtimeClasspath
+  useJUnitPlatform {
+    includeTags("load")
+  }
+  systemProperty("loadtest.output", layout.buildDirectory.file("reports/loadtest/result.json").get().asFile.path)
+  systemProperties(project.properties.filterKeys { it.startsWith("loadtest.") })
+  outputs.upToDateWhen { false }
+  testLogging {
+    showStandardStreams = true
+  }
+}
@@ -12,12 +12,16 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 public class LoggingAspect {
-    @AfterThrowing(pointcut = "execution(* com.chung.lifusic.account.controller.*.*(..))", throwing = "e")
+    // health check는 orchestrator가 매초 호출하므로 로깅 대상에서 제외한다.
+    private static final String CONTROLLER_POINTCUT = "execution(* com.chung.lifusic.account.controller.*.*(..))"
+            + " && !within(com.chung.lifusic.account.controller.HealthCheckController)";
+
+    @AfterThrowing(pointcut = CONTROLLER_POINTCUT, throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
         log.error("Controller error:: {}, signature: {}, target: {}", e.getMessage(), joinPoint.getSignature().getName(), joinPoint.getTarget());
     }
 
-    @Around("execution(* com.chung.lifusic.account.controller.*.*(..))")
+    @Around(CONTROLLER_POINTCUT)
     public Object controllerAround(ProceedingJoinPoint joinPoint) throws Throwable {
         log.info("Controller before:: signature: {}, target: {}", joinPoint.getSignature().getName(), joinPoint.getTarget());
         Object result = joinPoint.proceed();
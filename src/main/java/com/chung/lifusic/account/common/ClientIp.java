@@ -0,0 +1,19 @@
+package com.chung.lifusic.account.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// 요청한 클라이언트의 IP 주소
+public class ClientIp {
+
+    private ClientIp() {
+    }
+
+    /**
+     * 요청 수 제한, 로그인 기록, Idempotency-Key 범위에 사용하므로 클라이언트가 바꿀 수 있는 헤더는 직접 읽지 않는다.
+     * 프록시를 거친 요청은 server.forward-headers-strategy=native 설정으로 Tomcat이
+     * 신뢰하는 프록시(server.tomcat.remoteip.internal-proxies)가 붙인 X-Forwarded-For 값으로 remoteAddr를 바꿔준다.
+     */
+    public static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
@@ -4,7 +4,9 @@ public class Constants {
 
     public enum ExceptionType {
 
-        AUTHENTICATION("Authentication");
+        AUTHENTICATION("Authentication"),
+        RATE_LIMIT("RateLimit"),
+        PROFILING("Profiling");
 
         private String exceptionType;
 
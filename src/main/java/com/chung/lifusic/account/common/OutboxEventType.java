@@ -0,0 +1,7 @@
+package com.chung.lifusic.account.common;
+
+// 다른 Lifusic 서비스로 발행하는 계정 이벤트 종류
+public enum OutboxEventType {
+    USER_REGISTERED,
+    USER_LOGGED_OUT,
+}
@@ -0,0 +1,124 @@
+package com.chung.lifusic.account.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키에 대한 동시 호출을 하나로 합친다. (single flight)
+ * - 먼저 온 호출(leader)이 loader를 실행하고, 그 사이에 온 호출들은 결과를 기다렸다가 같은 값을 받는다.
+ *   값은 공유되므로 호출한 쪽에서 수정하려면 복사해서 사용해야 한다.
+ * - leader가 실패하면 기다리던 호출들도 같은 예외를 받는다.
+ * - 기다리는 호출은 timeoutMillis 까지만 기다리고 TimeoutExceededException을 던진다.
+ *   executor를 지정하면 loader를 executor에서 실행하고 leader도 timeoutMillis 까지만 기다린다. (loader는 끝날 때까지 계속 실행된다)
+ *   지정하지 않으면 leader가 자신의 스레드에서 실행하므로 leader는 제한하지 않는다.
+ * - 결과는 저장하지 않는다. 실행이 끝난 뒤의 호출은 다시 loader를 실행한다.
+ * 지표: single_flight.calls{name, result=executed|shared}, single_flight.timeouts{name}, single_flight.in_flight{name}
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final Executor executor; // null이라면 leader 스레드에서 실행
+    private final Counter executedCounter;
+    private final Counter sharedCounter;
+    private final Counter timeoutCounter;
+
+    public SingleFlight(String name, long timeoutMillis, MeterRegistry meterRegistry) {
+        this(name, timeoutMillis, null, meterRegistry);
+    }
+
+    public SingleFlight(String name, long timeoutMillis, Executor executor, MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executor;
+        this.executedCounter = meterRegistry.counter("single_flight.calls", "name", name, "result", "executed");
+        this.sharedCounter = meterRegistry.counter("single_flight.calls", "name", name, "result", "shared");
+        this.timeoutCounter = meterRegistry.counter("single_flight.timeouts", "name", name);
+        Gauge.builder("single_flight.in_flight", inFlight, Map::size).tag("name", name).register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (key == null) {
+            return loader.get();
+        }
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            sharedCounter.increment();
+            return await(existing);
+        }
+        executedCounter.increment();
+        if (executor != null) {
+            return await(load(key, call, loader));
+        }
+        try {
+            final V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error exception) {
+            call.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // executor에서 loader를 실행한다. executor가 거절하면 기다리던 호출들도 같은 예외를 받는다.
+    private CompletableFuture<V> load(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            executor.execute(() -> {
+                try {
+                    call.complete(loader.get());
+                } catch (RuntimeException | Error exception) {
+                    call.completeExceptionally(exception);
+                } finally {
+                    inFlight.remove(key, call);
+                }
+            });
+        } catch (RuntimeException exception) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(exception);
+        }
+        return call;
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            timeoutCounter.increment();
+            throw new TimeoutExceededException("Timed out waiting for an in-flight call after " + timeoutMillis + "ms");
+        } catch (ExecutionException exception) {
+            // leader에서 발생한 예외를 그대로 전달한다.
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an in-flight call");
+        }
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public static class TimeoutExceededException extends RuntimeException {
+        public TimeoutExceededException(String message) {
+            super(message);
+        }
+    }
+}
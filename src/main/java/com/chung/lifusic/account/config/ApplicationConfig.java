@@ -1,7 +1,14 @@
 package com.chung.lifusic.account.config;
 
-import com.chung.lifusic.account.repository.UserRepository;
+import com.chung.lifusic.account.common.SingleFlight;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.jfr.JfrPasswordEncoder;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,24 +17,73 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
 @Configuration
+@EnableConfigurationProperties(JwtProperties.class)
 @RequiredArgsConstructor
+@Slf4j
 public class ApplicationConfig {
-    private final UserRepository userRepository;
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+    private static final String PBKDF2 = "pbkdf2";
+
+    private final ShardedUserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.password.algorithm}")
+    private String PASSWORD_ALGORITHM; // 새 비밀번호를 해싱할 알고리즘 (bcrypt, argon2, pbkdf2)
+
+    @Value("${security.password.bcrypt_strength}")
+    private int BCRYPT_STRENGTH;
+
+    @Value("${security.password.argon2_memory_kb}")
+    private int ARGON2_MEMORY_KB;
+
+    @Value("${security.password.argon2_iterations}")
+    private int ARGON2_ITERATIONS;
+
+    @Value("${security.password.argon2_parallelism}")
+    private int ARGON2_PARALLELISM;
+
+    @Value("${security.password.pbkdf2_iterations}")
+    private int PBKDF2_ITERATIONS;
+
+    @Value("${security.password.calibrate_on_startup}")
+    private boolean CALIBRATE_ON_STARTUP; // true라면 위 비용 설정 대신 시작 시 측정한 비용을 사용
+
+    @Value("${security.password.target_verify_ms}")
+    private long TARGET_VERIFY_MS; // 비밀번호 검증 한번에 걸렸으면 하는 시간
+
+    @Value("${user_load.coalesce_timeout_ms}")
+    private long USER_LOAD_COALESCE_TIMEOUT_MS;
+
+    // 같은 이메일의 유저를 동시에 조회하면 DB 조회는 한번만 하고 결과를 나눠 받는다.
+    // (토큰 만료 직후 같은 유저의 요청이 몰리는 경우 등)
+    // 먼저 온 호출은 자신의 스레드(인증 필터에서는 authLookupExecutor의 조회 스레드)에서 DB를 조회하고, 필터의 auth_lookup_timeout_ms가 기한이 된다.
+    // 뒤에 온 호출은 coalesce_timeout_ms 까지만 기다린다. 같은 executor에 다시 제출하지 않으므로 요청 하나가 스레드를 더 차지하지 않는다.
+    // 조회한 User는 엔티티(수정 가능)이므로 호출마다 복사본을 돌려준다.
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository
-                .findByEmail(username)
+        final SingleFlight<String, Optional<User>> userLoads =
+                new SingleFlight<>("user_load", USER_LOAD_COALESCE_TIMEOUT_MS, meterRegistry);
+        return username -> userLoads
+                .execute(username, () -> userRepository.findByEmail(username))
+                .map(User::copy)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(this.userDetailsService());
+        authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
@@ -39,8 +95,36 @@ public class ApplicationConfig {
     }
 
     // 비밀번호 암호화 알고리즘 설정
+    // 해시 앞에 {bcrypt}, {argon2}, {pbkdf2} 처럼 알고리즘 id가 붙고, id가 없는 기존 해시는 BCrypt로 검증한다.
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int bcryptStrength = BCRYPT_STRENGTH;
+        int argon2Iterations = ARGON2_ITERATIONS;
+        int pbkdf2Iterations = PBKDF2_ITERATIONS;
+        if (CALIBRATE_ON_STARTUP) {
+            switch (PASSWORD_ALGORITHM) {
+                case BCRYPT -> bcryptStrength = PasswordHashCalibrator.calibrateBcryptStrength(TARGET_VERIFY_MS);
+                case ARGON2 -> argon2Iterations = PasswordHashCalibrator.calibrateArgon2Iterations(
+                        ARGON2_MEMORY_KB, ARGON2_PARALLELISM, TARGET_VERIFY_MS);
+                case PBKDF2 -> pbkdf2Iterations = PasswordHashCalibrator.calibratePbkdf2Iterations(TARGET_VERIFY_MS);
+                default -> { }
+            }
+            log.info("ApplicationConfig:: calibrated password hash cost. algorithm: {}, bcrypt: {}, argon2: {}, pbkdf2: {}",
+                    PASSWORD_ALGORITHM, bcryptStrength, argon2Iterations, pbkdf2Iterations);
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, new Argon2PasswordEncoder(16, 32, ARGON2_PARALLELISM, ARGON2_MEMORY_KB, argon2Iterations));
+        encoders.put(PBKDF2, new IteratedPbkdf2PasswordEncoder(pbkdf2Iterations)); // 반복 횟수를 해시에 기록해 업그레이드 여부를 판단한다.
+        if (!encoders.containsKey(PASSWORD_ALGORITHM)) {
+            throw new IllegalArgumentException("Unknown password algorithm: " + PASSWORD_ALGORITHM);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(PASSWORD_ALGORITHM, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        // 해싱, 검증 시간을 JFR 이벤트로 남긴다.
+        return new JfrPasswordEncoder(passwordEncoder, PASSWORD_ALGORITHM);
     }
 }
@@ -0,0 +1,91 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// 요청 처리 스레드와 분리해서 실행할 백그라운드 작업용 스레드 풀
+@Configuration
+public class ExecutorConfig {
+
+    // 로그인 후 비밀번호 해시 업그레이드. 큐가 가득 차면 버리고, 다음 로그인 때 다시 시도한다.
+    // 대기 중인 작업은 평문 비밀번호를 들고 있으므로 큐를 작게 유지한다.
+    @Bean
+    public ThreadPoolTaskExecutor passwordUpgradeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("password-upgrade-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+
+    // 로그인 기록 flush. 큐가 가득 찼다는 신호만 전달하므로 실행 중인 작업이 있으면 버린다. (주기적인 flush가 뒤를 받친다)
+    @Bean
+    public ThreadPoolTaskExecutor loginHistoryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("login-history-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+
+    // 로그인, 세션 통계 기록. 큐가 가득 차면 버린다. (통계는 근사값이어도 된다)
+    @Bean
+    public ThreadPoolTaskExecutor analyticsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("analytics-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+
+    // 샤드별 동시 조회 (scatter-gather). 샤드 수 만큼의 요청이 동시에 실행된다.
+    @Bean
+    public ThreadPoolTaskExecutor shardQueryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("shard-query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // 인증 필터의 유저 조회와 세션 확인. 둘을 동시에 실행한다. 큐 없이 스레드를 늘리고, 모두 사용 중이면 요청 스레드에서 실행한다.
+    @Bean
+    public ThreadPoolTaskExecutor authLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(64);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("auth-lookup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // 내부 프로토콜(InternalProtocolServer) 요청 처리. 큐가 가득 차면 OVERLOADED로 바로 응답한다.
+    @Bean
+    @ConditionalOnProperty(value = "internal.enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor internalProtocolExecutor(
+            @Value("${internal.worker_threads}") int workerThreads,
+            @Value("${internal.queue_capacity}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("internal-worker-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,72 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 반복 횟수를 해시 앞에 기록하는 PBKDF2-HMAC-SHA256 인코더. ({pbkdf2}310000$salt+hash)
+ * Pbkdf2PasswordEncoder는 해시에 반복 횟수를 남기지 않아 upgradeEncoding이 항상 false 이므로,
+ * 저장된 반복 횟수와 현재 설정을 비교할 수 있도록 한다.
+ * 반복 횟수가 없는 기존 해시는 설정된 반복 횟수로 검증하고, 업그레이드 대상으로 본다.
+ */
+class IteratedPbkdf2PasswordEncoder implements PasswordEncoder {
+    private static final char SEPARATOR = '$';
+    private static final int SALT_LENGTH = 16;
+
+    private final int iterations;
+    private final Pbkdf2PasswordEncoder encoder;
+    private final Map<Integer, Pbkdf2PasswordEncoder> encodersByIterations = new ConcurrentHashMap<>();
+
+    IteratedPbkdf2PasswordEncoder(int iterations) {
+        this.iterations = iterations;
+        this.encoder = create(iterations);
+        encodersByIterations.put(iterations, encoder);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + String.valueOf(SEPARATOR) + encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        final int separator = encodedPassword.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return encoder.matches(rawPassword, encodedPassword);
+        }
+        final int storedIterations = iterationsOf(encodedPassword, separator);
+        if (storedIterations <= 0) {
+            return false;
+        }
+        return encodersByIterations.computeIfAbsent(storedIterations, IteratedPbkdf2PasswordEncoder::create)
+                .matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        final int separator = encodedPassword.indexOf(SEPARATOR);
+        return separator < 0 || iterationsOf(encodedPassword, separator) < iterations;
+    }
+
+    private static int iterationsOf(String encodedPassword, int separator) {
+        try {
+            return Integer.parseInt(encodedPassword, 0, separator, 10);
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    private static Pbkdf2PasswordEncoder create(int iterations) {
+        return new Pbkdf2PasswordEncoder("", SALT_LENGTH, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+}
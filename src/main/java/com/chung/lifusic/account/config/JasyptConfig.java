@@ -3,9 +3,10 @@ package com.chung.lifusic.account.config;
 import org.jasypt.encryption.StringEncryptor;
 import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
 import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
@@ -13,9 +14,13 @@ import java.nio.charset.StandardCharsets;
 
 @Configuration
 public class JasyptConfig {
+    // 키 파일 위치. 테스트 프로필은 classpath의 실제 키 파일을 가리지 않도록 다른 이름의 파일을 지정한다.
+    @Value("${jasypt.private_key_location:classpath:jasyptPrivateKey.txt}")
+    private Resource PRIVATE_KEY_LOCATION;
+
     @Bean(name = "jasyptStringEncryptor")
     public StringEncryptor stringEncryptor() throws IOException {
-        ClassPathResource resource = new ClassPathResource("jasyptPrivateKey.txt");
+        Resource resource = PRIVATE_KEY_LOCATION;
         String privateKey = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
         PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
 
@@ -0,0 +1,41 @@
+package com.chung.lifusic.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 토큰 발급, 검증 설정. (security.secret, security.jwt, security.token)
+ * JwtService는 이 객체를 통째로 받으므로, 설정을 추가해도 워밍업용 복사본(JwtService.withStores)에 빠지지 않는다.
+ */
+@Data
+@ConfigurationProperties(prefix = "security")
+public class JwtProperties {
+    private Secret secret = new Secret();
+    private Jwt jwt = new Jwt();
+    private Token token = new Token();
+
+    @Data
+    public static class Secret {
+        private String key; // jwt 서명 키
+    }
+
+    @Data
+    public static class Jwt {
+        private int expiredAfterMs; // jwt 토큰 발급 후 몇 ms 후 만료 되는 지
+        private int maxSessionsPerUser; // 유저당 동시에 유지할 수 있는 최대 세션 수
+        private long expiryJitterMs; // 토큰마다 만료 시간을 0 ~ 이 값 만큼 무작위로 줄인다.
+        private long renewalWindowMs; // 만료까지 이 시간보다 적게 남은 토큰은 요청 시 갱신한다. 0이면 갱신하지 않음
+        private long renewalGraceMs; // 갱신된 이전 토큰을 계속 사용할 수 있는 시간
+    }
+
+    @Data
+    public static class Token {
+        private String format = "jwt"; // 새로 발급할 토큰 형식 (jwt, compact). 검증은 두 형식 모두 한다.
+        private int keyId; // 새 compact 토큰을 서명하는 키 번호. 서명 키는 security.secret.key
+        // 서명하지는 않지만 계속 검증할 compact 토큰 키 (key id -> Base64 서명 키). 키를 교체할 때 이전 키를 둔다.
+        private Map<Integer, String> verificationKeys = new HashMap<>();
+    }
+}
@@ -0,0 +1,90 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * 현재 하드웨어에서 비밀번호 검증(matches) 한번이 목표 시간에 가깝게 걸리도록 해싱 비용을 찾는다.
+ * 서버 시작 시(security.password.calibrate_on_startup) 또는 아래처럼 따로 실행해서 사용한다.
+ * <pre>
+ * java -cp account.jar -Dloader.main=com.chung.lifusic.account.config.PasswordHashCalibrator \
+ *      org.springframework.boot.loader.PropertiesLauncher 250
+ * </pre>
+ */
+public final class PasswordHashCalibrator {
+    private static final String SAMPLE_PASSWORD = "calibration-password-1234";
+    private static final int SAMPLES = 5;
+
+    private static final int BCRYPT_MIN_STRENGTH = 10;
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int ARGON2_MAX_ITERATIONS = 32;
+    private static final int PBKDF2_MIN_ITERATIONS = 310_000;
+    private static final int PBKDF2_MAX_ITERATIONS = 10_000_000;
+
+    private PasswordHashCalibrator() {
+    }
+
+    // 목표 시간을 넘지 않는 가장 큰 BCrypt strength. strength가 1 오를 때마다 시간이 2배가 된다.
+    public static int calibrateBcryptStrength(long targetMillis) {
+        int strength = BCRYPT_MIN_STRENGTH;
+        while (strength < BCRYPT_MAX_STRENGTH
+                && measureVerifyMillis(new BCryptPasswordEncoder(strength)) * 2 <= targetMillis) {
+            strength++;
+        }
+        return strength;
+    }
+
+    // 메모리, 병렬도는 고정하고 목표 시간에 맞는 Argon2id 반복 횟수를 찾는다.
+    public static int calibrateArgon2Iterations(int memoryKb, int parallelism, long targetMillis) {
+        return calibrateLinear(
+                iterations -> new Argon2PasswordEncoder(16, 32, parallelism, memoryKb, iterations),
+                ARGON2_MIN_ITERATIONS, ARGON2_MAX_ITERATIONS, targetMillis);
+    }
+
+    // 목표 시간에 맞는 PBKDF2-HMAC-SHA256 반복 횟수를 찾는다.
+    public static int calibratePbkdf2Iterations(long targetMillis) {
+        return calibrateLinear(
+                iterations -> new Pbkdf2PasswordEncoder("", 16, iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256),
+                PBKDF2_MIN_ITERATIONS, PBKDF2_MAX_ITERATIONS, targetMillis);
+    }
+
+    // 비용이 반복 횟수에 비례하는 알고리즘은 최소 비용으로 한번 측정한 뒤 비례식으로 계산한다.
+    private static int calibrateLinear(IntFunction<PasswordEncoder> encoderFactory, int min, int max, long targetMillis) {
+        final double baseMillis = Math.max(measureVerifyMillis(encoderFactory.apply(min)), 0.001);
+        final long iterations = (long) (min * (targetMillis / baseMillis));
+        return (int) Math.max(min, Math.min(max, iterations));
+    }
+
+    // 비밀번호 검증 한번에 걸리는 시간의 중앙값 (ms)
+    static double measureVerifyMillis(PasswordEncoder encoder) {
+        final String encoded = encoder.encode(SAMPLE_PASSWORD);
+        encoder.matches(SAMPLE_PASSWORD, encoded); // 첫 호출은 클래스 로딩 등이 섞이므로 제외
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            final long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    public static void main(String[] args) {
+        final long targetMillis = args.length > 0 ? Long.parseLong(args[0]) : 250;
+        final int argon2MemoryKb = args.length > 1 ? Integer.parseInt(args[1]) : 19456;
+        System.out.printf("# target verify latency: %dms%n", targetMillis);
+        System.out.println("security:");
+        System.out.println("  password:");
+        System.out.printf("    bcrypt_strength: %d%n", calibrateBcryptStrength(targetMillis));
+        System.out.printf("    argon2_memory_kb: %d%n", argon2MemoryKb);
+        System.out.printf("    argon2_iterations: %d%n", calibrateArgon2Iterations(argon2MemoryKb, 1, targetMillis));
+        System.out.printf("    pbkdf2_iterations: %d%n", calibratePbkdf2Iterations(targetMillis));
+    }
+}
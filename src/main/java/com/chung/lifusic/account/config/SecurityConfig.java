@@ -1,32 +1,74 @@
 package com.chung.lifusic.account.config;
 
+import com.chung.lifusic.account.common.Role;
 import com.chung.lifusic.account.filter.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Set;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    // 인증 없이 접근 가능한 경로 (회원가입, 로그인, health check)
+    public static final String[] PUBLIC_URLS = {
+            "/health",
+            "/health/**",
+            "/api/account/user",
+            "/api/account/login",
+            "/api/account/email-available",
+    };
+
+    // 운영자만 접근 가능한 경로 (ADMIN 권한 + security.admin.operator_emails에 등록된 계정)
+    public static final String[] ADMIN_URLS = {
+            "/api/account/admin/**",
+    };
+
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    // ADMIN 권한은 회원가입 시 직접 고를 수 있으므로, 운영 API 사용자는 배포 설정으로 따로 지정한다.
+    @Value("${security.admin.operator_emails}")
+    private Set<String> OPERATOR_EMAILS;
+
+    // 공개 경로 전용 필터 체인. JWT 필터를 거치지 않는다.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher(PUBLIC_URLS)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                .csrf(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .sessionManagement(httpSecuritySessionManagementConfigurer ->
+                        httpSecuritySessionManagementConfigurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .build();
+    }
 
     // 시큐리티 필터 설정
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.
                 authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/account/user", "/api/account/login").permitAll()
+                        .requestMatchers(ADMIN_URLS).access((authentication, context) ->
+                                new AuthorizationDecision(isOperator(authentication.get())))
                         .anyRequest().authenticated())
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(httpSecuritySessionManagementConfigurer ->
@@ -37,4 +79,25 @@ public class SecurityConfig {
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
+
+    // JwtAuthenticationFilter는 빈으로 등록되어 있어 서블릿 필터로도 자동 등록되므로,
+    // 시큐리티 필터 체인 안에서만 동작하도록 자동 등록을 끈다.
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    private boolean isOperator(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        final boolean admin = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(Role.ADMIN.name()::equals);
+        final String email = authentication.getName();
+        return admin && email != null && OPERATOR_EMAILS.stream()
+                .anyMatch(operator -> operator.trim().equalsIgnoreCase(email));
+    }
 }
@@ -0,0 +1,38 @@
+package com.chung.lifusic.account.config;
+
+/**
+ * 현재 스레드가 사용할 샤드 번호.
+ * ShardRoutingDataSource는 실제 커넥션을 가져오는 시점의 값을 사용하므로,
+ * 트랜잭션 안에서는 첫 쿼리가 실행되기 전에 샤드가 정해져 있어야 한다.
+ */
+public final class ShardContext {
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        final Integer shard = CURRENT.get();
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+
+    // try-with-resources로 사용하며, 닫으면 이전 샤드로 되돌린다.
+    public static Scope use(int shard) {
+        final Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
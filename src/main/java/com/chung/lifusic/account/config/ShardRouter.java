@@ -0,0 +1,108 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * 유저가 저장될 샤드를 정한다.
+ * - 배치 기준은 이메일 해시이며 jump consistent hash를 사용한다.
+ *   샤드를 N개에서 M개로 늘리면 (M - N) / M 비율의 유저만 새 샤드로 옮겨진다.
+ * - 유저 id 상위 비트에는 처음 저장된 샤드 번호가 들어가므로 샤드가 달라도 id가 겹치지 않는다.
+ * 샤딩을 사용하지 않으면 샤드는 하나(0번)이다.
+ */
+@Component
+public class ShardRouter {
+    public static final int SHARD_ID_BITS = 40; // 샤드당 2^40개의 id
+
+    private final int shardCount;
+    private final int previousShardCount;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        this.previousShardCount = properties.isEnabled() ? properties.getPreviousShardCount() : 0;
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("sharding.shards must not be empty");
+        }
+        if (previousShardCount > shardCount) {
+            throw new IllegalArgumentException("sharding.previous_shard_count must not exceed the number of shards");
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isResharding() {
+        return previousShardCount > 0 && previousShardCount != shardCount;
+    }
+
+    public int shardForEmail(String email) {
+        return shardForEmail(email, shardCount);
+    }
+
+    /**
+     * 재샤딩 이전 배치 기준 샤드.
+     * @return 재샤딩 중이 아니라면 -1
+     */
+    public int previousShardForEmail(String email) {
+        return isResharding() ? shardForEmail(email, previousShardCount) : -1;
+    }
+
+    // id에 들어있는 최초 저장 샤드
+    public static int shardOfId(long id) {
+        return (int) (id >>> SHARD_ID_BITS);
+    }
+
+    // 해당 샤드에 저장되는 id의 시작 값
+    public static long firstIdOf(int shard) {
+        return (long) shard << SHARD_ID_BITS;
+    }
+
+    public <T> T callOn(int shard, Supplier<T> action) {
+        try (ShardContext.Scope ignored = ShardContext.use(shard)) {
+            return action.get();
+        }
+    }
+
+    public void runOn(int shard, Runnable action) {
+        try (ShardContext.Scope ignored = ShardContext.use(shard)) {
+            action.run();
+        }
+    }
+
+    static int shardForEmail(String email, int shards) {
+        if (shards == 1) {
+            return 0;
+        }
+        return jumpConsistentHash(hash(email), shards);
+    }
+
+    // Lamping, Veach. "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    // 이메일은 대소문자를 구분하지 않고 저장되므로 소문자 기준으로 해시한다.
+    private static long hash(String email) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
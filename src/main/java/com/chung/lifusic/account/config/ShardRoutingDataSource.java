@@ -0,0 +1,11 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// ShardContext에 지정된 샤드의 DataSource로 커넥션을 요청한다.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,110 @@
+package com.chung.lifusic.account.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 샤드별 스키마와 id 시퀀스를 준비한다.
+ * - ddl-auto는 기본 샤드(0번)에만 적용되므로, 나머지 샤드에는 같은 매핑 정보로 스키마를 갱신한다.
+ * - 각 샤드의 시퀀스를 ShardRouter.firstIdOf(shard) 부터 시작하게 해서 샤드 간 id가 겹치지 않게 한다.
+ */
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardSchemaInitializer implements HibernatePropertiesCustomizer {
+    private static final Set<String> SCHEMA_UPDATE_ACTIONS = Set.of("update", "create", "create-drop");
+    // 샤드마다 id 범위를 나누는 테이블과 시퀀스 (Hibernate 기본 시퀀스 이름)
+    private static final Map<String, String> SHARDED_SEQUENCES = Map.of(
+            "user", "user_seq",
+            "outbox_event", "outbox_event_seq"
+    );
+    // Hibernate pooled optimizer는 시퀀스 값에서 allocationSize 만큼 뺀 값부터 사용한다.
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+    // "alter sequence ... restart with"를 지원하는 DB (MySQL은 시퀀스가 없고, PostgreSQL 등은 검증하지 않았다)
+    private static final Set<String> SUPPORTED_DATABASES = Set.of("MariaDB", "H2");
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final MetadataCapture metadataCapture = new MetadataCapture();
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String DDL_AUTO;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(metadataCapture));
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void initialize() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            final int target = shard;
+            shardRouter.runOn(target, () -> {
+                if (target != ShardContext.DEFAULT_SHARD && SCHEMA_UPDATE_ACTIONS.contains(DDL_AUTO) && metadataCapture.metadata != null) {
+                    new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadataCapture.metadata,
+                            metadataCapture.sessionFactory.getServiceRegistry());
+                }
+                SHARDED_SEQUENCES.forEach((table, sequence) -> moveSequence(target, table, sequence));
+            });
+        }
+    }
+
+    // 샤드의 id가 아직 해당 샤드 범위로 옮겨지지 않았다면 시퀀스를 범위 시작 값으로 옮긴다.
+    private void moveSequence(int shard, String table, String sequence) {
+        if (shard == ShardContext.DEFAULT_SHARD) {
+            return;
+        }
+        final long firstId = ShardRouter.firstIdOf(shard);
+        final String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!SUPPORTED_DATABASES.contains(database)) {
+            // 시퀀스를 옮기지 못하면 샤드 간 id가 겹치므로 시작하지 않는다.
+            throw new IllegalStateException("Sharding supports only " + SUPPORTED_DATABASES + ". shard: " + shard + ", database: " + database);
+        }
+        final Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId != null && maxId >= firstId) {
+            return;
+        }
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (firstId + SEQUENCE_ALLOCATION_SIZE));
+        log.info("ShardSchemaInitializer:: moved sequence. shard: {}, sequence: {}, first id: {}", shard, sequence, firstId);
+    }
+
+    // SessionFactory 생성 시 매핑 정보를 저장해 둔다.
+    private static class MetadataCapture implements Integrator {
+        private Metadata metadata;
+        private SessionFactoryImplementor sessionFactory;
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            this.metadata = metadata;
+            this.sessionFactory = sessionFactory;
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            this.metadata = null;
+            this.sessionFactory = null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.chung.lifusic.account.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * 샤딩 사용 시 spring.datasource 대신 사용할 DataSource.
+     * 트랜잭션이 시작될 때가 아니라 첫 쿼리를 실행할 때 커넥션을 가져오도록 LazyConnectionDataSourceProxy로 감싼다.
+     * 그래야 @Transactional 메서드 안에서 ShardContext를 정한 뒤 해당 샤드의 커넥션을 사용할 수 있다.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardingProperties properties) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource(properties.getShards()));
+    }
+
+    public static ShardRoutingDataSource shardRoutingDataSource(List<ShardingProperties.Shard> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            targets.put(i, DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build());
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(ShardContext.DEFAULT_SHARD));
+        routingDataSource.setLenientFallback(false);
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+}
@@ -0,0 +1,32 @@
+package com.chung.lifusic.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 유저 샤딩 설정.
+ * enabled가 false라면 spring.datasource 하나만 사용한다.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+    private boolean enabled = false;
+
+    // 재샤딩 중일 때 이전 샤드 수. 0이라면 재샤딩 중이 아니다.
+    // 이전 배치에서만 찾을 수 있는 유저는 이전 샤드에서 읽고, ShardBackfillService가 새 샤드로 옮긴다.
+    private int previousShardCount = 0;
+
+    // 샤드 목록. 순서가 샤드 번호이므로 바꾸면 안 되고, 뒤에 추가만 해야 한다.
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
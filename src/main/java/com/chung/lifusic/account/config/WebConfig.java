@@ -0,0 +1,18 @@
+package com.chung.lifusic.account.config;
+
+import com.chung.lifusic.account.converter.AuthResponseHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // 인증 응답 전용 컨버터를 Jackson 컨버터보다 앞에 둔다.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new AuthResponseHttpMessageConverter());
+    }
+}
@@ -0,0 +1,89 @@
+package com.chung.lifusic.account.controller;
+
+import com.chung.lifusic.account.common.exception.CustomException;
+import com.chung.lifusic.account.dto.AuthAnalyticsResponse;
+import com.chung.lifusic.account.dto.GetUserResponse;
+import com.chung.lifusic.account.dto.JfrRecordingResponse;
+import com.chung.lifusic.account.dto.ShardBackfillResponse;
+import com.chung.lifusic.account.service.AdminService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// 운영자 전용 API (ADMIN 권한 + security.admin.operator_emails, SecurityConfig 참고)
+@RestController
+@RequestMapping("/api/account/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    private final AdminService adminService;
+
+    // 전체 유저 목록 (모든 샤드)
+    @GetMapping("/users")
+    public ResponseEntity<List<GetUserResponse>> getUsers(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(adminService.getUsers(afterId, size));
+    }
+
+    // 재샤딩: 유저를 현재 배치 기준 샤드로 옮기기 시작
+    @PostMapping("/shards/backfill")
+    public ResponseEntity<ShardBackfillResponse> startShardBackfill() throws CustomException {
+        return ResponseEntity.ok(adminService.startShardBackfill());
+    }
+
+    // 재샤딩 진행 상황
+    @GetMapping("/shards/backfill")
+    public ResponseEntity<ShardBackfillResponse> getShardBackfillStatus() {
+        return ResponseEntity.ok(adminService.getShardBackfillStatus());
+    }
+
+    // 활성 세션 수, 활성 유저 수(DAU), 로그인 수. Redis 키나 user 테이블을 스캔하지 않는다.
+    @GetMapping("/analytics")
+    public ResponseEntity<AuthAnalyticsResponse> getAuthAnalytics() {
+        return ResponseEntity.ok(adminService.getAuthAnalytics());
+    }
+
+    // JFR 녹화 시작. profile: default(상시 수집용, 부하 적음) 또는 profile(상세, 부하 큼)
+    @PostMapping("/jfr/recordings")
+    public ResponseEntity<JfrRecordingResponse> startJfrRecording(
+            @RequestParam(defaultValue = "default") String profile,
+            @RequestParam(defaultValue = "60") long durationSeconds,
+            @RequestParam(defaultValue = "0") long thresholdMs
+    ) throws CustomException {
+        return ResponseEntity.ok(adminService.startJfrRecording(profile, durationSeconds, thresholdMs));
+    }
+
+    // JFR 녹화 중지. 중지된 녹화는 파일로 다운로드할 수 있다.
+    @PostMapping("/jfr/recordings/stop")
+    public ResponseEntity<JfrRecordingResponse> stopJfrRecording() throws CustomException {
+        return ResponseEntity.ok(adminService.stopJfrRecording());
+    }
+
+    // JFR 녹화 상태
+    @GetMapping("/jfr/recordings")
+    public ResponseEntity<JfrRecordingResponse> getJfrRecordingStatus() {
+        return ResponseEntity.ok(adminService.getJfrRecordingStatus());
+    }
+
+    // 마지막으로 중지된 JFR 녹화 파일 다운로드 (JDK Mission Control로 연다)
+    @GetMapping("/jfr/recordings/file")
+    public ResponseEntity<Resource> downloadJfrRecording() throws CustomException {
+        final Path file = adminService.getJfrRecordingFile();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("lifusic-account.jfr")
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+}
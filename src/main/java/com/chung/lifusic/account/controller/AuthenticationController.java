@@ -1,17 +1,27 @@
 package com.chung.lifusic.account.controller;
 
+import com.chung.lifusic.account.common.ClientIp;
 import com.chung.lifusic.account.common.exception.CustomException;
 import com.chung.lifusic.account.dto.*;
 import com.chung.lifusic.account.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/account")
 @RequiredArgsConstructor
 public class AuthenticationController {
+    // 유저 정보는 개인 정보이므로 공유 캐시에 저장하지 않고, 매번 ETag로 재검증하도록 한다.
+    private static final CacheControl USER_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final AuthenticationService authenticationService;
     // 회원 가입
     @PostMapping("/user")
@@ -21,6 +31,15 @@ public class AuthenticationController {
         return ResponseEntity.ok(authenticationService.register(request));
     }
 
+    // 가입 가능한 이메일인 지 확인
+    @GetMapping("/email-available")
+    public ResponseEntity<EmailAvailabilityResponse> checkEmailAvailable(
+            @RequestParam String email,
+            HttpServletRequest request
+    ) throws CustomException {
+        return ResponseEntity.ok(authenticationService.checkEmailAvailable(email, ClientIp.resolve(request)));
+    }
+
     // 로그인
     @PostMapping("/login")
     public ResponseEntity<AuthenticationResponse> authenticate(
@@ -35,9 +54,54 @@ public class AuthenticationController {
         return ResponseEntity.ok(authenticationService.logout());
     }
 
+    // 로그인 되어있는 세션(기기) 목록
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionResponse>> getSessions() throws CustomException {
+        return ResponseEntity.ok(authenticationService.getSessions());
+    }
+
+    // 특정 세션 로그아웃
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<CommonResponse> revokeSession(@PathVariable String sessionId) throws CustomException {
+        return ResponseEntity.ok(authenticationService.revokeSession(sessionId));
+    }
+
     // 자기 자신에 대한 정보 확인
     @GetMapping("/me")
-    public ResponseEntity<GetUserResponse> getUser() {
-        return ResponseEntity.ok(authenticationService.getUser());
+    public ResponseEntity<GetUserResponse> getUser(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        final String eTag = authenticationService.getUserETag();
+        if (eTag == null) {
+            return ResponseEntity.ok(authenticationService.getUser());
+        }
+        // 클라이언트가 가진 정보가 최신이라면 응답을 만들지 않고 304 반환
+        if (isETagMatched(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(USER_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(USER_CACHE_CONTROL)
+                .body(authenticationService.getUser());
+    }
+
+    // If-None-Match 헤더에 현재 ETag(또는 *)가 포함되어 있는 지 확인
+    private static boolean isETagMatched(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -1,15 +1,31 @@
 package com.chung.lifusic.account.controller;
 
+import com.chung.lifusic.account.service.HealthCheckService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/")
+@RequiredArgsConstructor
 public class HealthCheckController {
+    private final HealthCheckService healthCheckService;
+
+    // liveness: 프로세스가 요청을 처리할 수 있으면 항상 ok
     @GetMapping("/health")
     public String hello() {
         return "ok";
     }
-}
 
+    // readiness: 백그라운드에서 확인해둔 DB, Redis 상태와 워밍업 완료 여부를 반환
+    @GetMapping("/health/readiness")
+    public ResponseEntity<String> readiness() {
+        if (healthCheckService.isReady()) {
+            return ResponseEntity.ok("ok");
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("unavailable");
+    }
+}
@@ -0,0 +1,207 @@
+package com.chung.lifusic.account.converter;
+
+import com.chung.lifusic.account.dto.AuthenticationResponse;
+import com.chung.lifusic.account.dto.CommonResponse;
+import com.chung.lifusic.account.dto.GetUserResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 인증 관련 고정 응답(CommonResponse, AuthenticationResponse, GetUserResponse)을
+ * Jackson 리플렉션 없이 서블릿 출력 버퍼에 바로 쓰는 컨버터.
+ * 내용이 고정된 응답은 미리 인코딩한 바이트 배열을 공유한다.
+ * 출력 결과는 Jackson 직렬화 결과와 동일한 JSON 이어야 한다.
+ */
+public class AuthResponseHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final byte[] SUCCESS_BODY = ascii("{\"success\":true}");
+    private static final byte[] FAILURE_BODY = ascii("{\"success\":false}");
+    private static final byte[] TOKEN_PREFIX = ascii("{\"token\":");
+    private static final byte[] ID_PREFIX = ascii("{\"id\":");
+    private static final byte[] EMAIL_PREFIX = ascii(",\"email\":");
+    private static final byte[] NAME_PREFIX = ascii(",\"name\":");
+    private static final byte[] ROLE_PREFIX = ascii(",\"role\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final int MAX_BUFFER_SIZE = 8 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[2048]);
+
+    public AuthResponseHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CommonResponse.class
+                || clazz == AuthenticationResponse.class
+                || clazz == GetUserResponse.class;
+    }
+
+    // 요청 본문 읽기는 기존 Jackson 컨버터가 담당한다.
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("AuthResponseHttpMessageConverter is write only", inputMessage);
+    }
+
+    // 고정 응답은 길이를 미리 알 수 있으므로 Content-Length를 바로 지정한다.
+    @Override
+    protected Long getContentLength(Object body, MediaType contentType) {
+        if (body instanceof CommonResponse response) {
+            return (long) (response.isSuccess() ? SUCCESS_BODY.length : FAILURE_BODY.length);
+        }
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        if (body instanceof CommonResponse response) {
+            out.write(response.isSuccess() ? SUCCESS_BODY : FAILURE_BODY);
+        } else if (body instanceof AuthenticationResponse response) {
+            out.write(TOKEN_PREFIX);
+            writeString(out, response.getToken());
+            out.write('}');
+        } else if (body instanceof GetUserResponse response) {
+            out.write(ID_PREFIX);
+            writeLong(out, response.getId());
+            out.write(EMAIL_PREFIX);
+            writeString(out, response.getEmail());
+            out.write(NAME_PREFIX);
+            writeString(out, response.getName());
+            out.write(ROLE_PREFIX);
+            writeString(out, response.getRole());
+            out.write('}');
+        } else {
+            throw new HttpMessageNotWritableException("Unsupported response type: " + body.getClass());
+        }
+    }
+
+    private static void writeLong(OutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+            return;
+        }
+        long v = value;
+        if (v == Long.MIN_VALUE) {
+            out.write(ascii(Long.toString(v)));
+            return;
+        }
+        // long의 최대 자리수는 19자리, 부호 1자리. 버퍼의 끝(20)부터 거꾸로 채운다.
+        final int end = 20;
+        final byte[] buffer = buffer(end);
+        int pos = end;
+        final boolean negative = v < 0;
+        if (negative) {
+            v = -v;
+        }
+        do {
+            buffer[--pos] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        out.write(buffer, pos, end - pos);
+    }
+
+    // JSON 문자열 이스케이프 후 UTF-8로 인코딩한다. 한 글자씩 출력 스트림에 쓰지 않고 버퍼에 모아 한번에 쓴다.
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+            return;
+        }
+        final int length = value.length();
+        // 한 글자는 최대 6 bytes(유니코드 이스케이프), 앞뒤 따옴표 2 bytes
+        final byte[] buffer = buffer(length * 6 + 2);
+        int pos = 0;
+        buffer[pos++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[pos++] = '\\';
+                    buffer[pos++] = (byte) c;
+                } else if (c < 0x20) {
+                    pos = writeControlChar(buffer, pos, c);
+                } else {
+                    buffer[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 짝이 맞지 않는 서로게이트는 유니코드 이스케이프 형태로 쓴다.
+                pos = writeUnicodeEscape(buffer, pos, c);
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer[pos++] = '"';
+        out.write(buffer, 0, pos);
+    }
+
+    private static int writeControlChar(byte[] buffer, int pos, char c) {
+        final byte escaped = switch (c) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (escaped == 0) {
+            return writeUnicodeEscape(buffer, pos, c);
+        }
+        buffer[pos++] = '\\';
+        buffer[pos++] = escaped;
+        return pos;
+    }
+
+    private static int writeUnicodeEscape(byte[] buffer, int pos, char c) {
+        buffer[pos++] = '\\';
+        buffer[pos++] = 'u';
+        buffer[pos++] = HEX[(c >> 12) & 0xF];
+        buffer[pos++] = HEX[(c >> 8) & 0xF];
+        buffer[pos++] = HEX[(c >> 4) & 0xF];
+        buffer[pos++] = HEX[c & 0xF];
+        return pos;
+    }
+
+    // size 이상의 크기인 스레드별 버퍼. 아주 긴 값은 버퍼를 키워 두지 않고 한번만 쓸 배열을 만든다.
+    private static byte[] buffer(int size) {
+        if (size > MAX_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < size) {
+            buffer = new byte[size];
+            BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,18 @@
+package com.chung.lifusic.account.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class AuthAnalyticsResponse {
+    private long activeSessions; // 토큰 수명 안에 발급되고 아직 남아 있는 세션 수 (근사값. 만료 시각 전에 자연 만료된 세션은 빼지 않음)
+    private long dailyActiveUsers; // 오늘 로그인하거나 토큰을 갱신한 유저 수
+    private long hourlyActiveUsers; // 이번 시간
+    private long activeUsersLast24Hours;
+    private long loginsLastMinute; // 직전 1분
+    private long loginsLastHour; // 최근 60분
+    private Instant generatedAt;
+}
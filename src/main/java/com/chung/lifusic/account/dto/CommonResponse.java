@@ -1,10 +1,13 @@
 package com.chung.lifusic.account.dto;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 
-@Data
+@Value
 @Builder
 public class CommonResponse {
-    private boolean success;
+    // 매 요청마다 새로 만들지 않도록 공유하는 성공 응답
+    public static final CommonResponse SUCCESS = CommonResponse.builder().success(true).build();
+
+    boolean success;
 }
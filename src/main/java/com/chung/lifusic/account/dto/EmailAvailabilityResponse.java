@@ -0,0 +1,10 @@
+package com.chung.lifusic.account.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class EmailAvailabilityResponse {
+    private boolean available; // 가입에 사용할 수 있는 이메일인 지 여부
+}
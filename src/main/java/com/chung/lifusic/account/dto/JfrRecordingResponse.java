@@ -0,0 +1,19 @@
+package com.chung.lifusic.account.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class JfrRecordingResponse {
+    private String state; // NONE, RUNNING, STOPPED
+    private String profile; // default, profile
+    private Instant startedAt;
+    private Instant stoppedAt;
+    private long maxDurationSeconds; // 이 시간이 지나면 자동으로 멈춘다.
+    private long maxSizeMb; // 디스크에 유지하는 최대 크기. 넘으면 오래된 데이터부터 지운다.
+    private long thresholdMs; // 이 시간보다 짧은 인증 구간 이벤트는 남기지 않는다.
+    private long fileSizeBytes; // 멈춘 뒤 다운로드할 수 있는 파일 크기
+}
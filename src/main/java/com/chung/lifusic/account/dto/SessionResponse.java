@@ -0,0 +1,15 @@
+package com.chung.lifusic.account.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class SessionResponse {
+    private String sessionId;
+    private Instant issuedAt;
+    private Instant expiresAt;
+    private boolean current; // 현재 요청에 사용된 세션인 지 여부
+}
@@ -0,0 +1,19 @@
+package com.chung.lifusic.account.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ShardBackfillResponse {
+    private boolean running;
+    private int shardCount;
+    private int previousShardCount; // 0이라면 재샤딩 중이 아님
+    private long scanned; // 확인한 유저 수
+    private long moved; // 다른 샤드로 옮긴 유저 수
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,47 @@
+package com.chung.lifusic.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 로그인 시도 기록. 테이블 생성(ddl-auto)용 엔티티이며,
+ * 실제 저장은 LoginHistoryService가 JDBC 배치로 처리한다.
+ * JDBC insert에서 id를 생략할 수 있도록 IDENTITY 전략을 사용한다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "login_history", indexes = @Index(name = "idx_login_history_user_id", columnList = "userId"))
+public class LoginHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private Long userId; // 존재하지 않는 이메일로 실패한 경우 null
+
+    @Column
+    private String email;
+
+    @Column(length = 64)
+    private String ip;
+
+    @Column
+    private String userAgent;
+
+    @Column
+    private boolean success;
+
+    @Column(length = 64)
+    private String failureReason;
+
+    @Column
+    private LocalDateTime loginAt;
+}
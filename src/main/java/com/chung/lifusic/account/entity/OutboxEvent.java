@@ -0,0 +1,38 @@
+package com.chung.lifusic.account.entity;
+
+import com.chung.lifusic.account.common.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 아직 Redis Stream으로 발행되지 않은 계정 이벤트.
+ * 유저 정보 변경과 같은 트랜잭션에서 저장되고, OutboxRelay가 발행 후 삭제한다.
+ * id는 서버마다 미리 할당받은 범위에서 나오므로 저장 순서와 다를 수 있다. 순서는 userSequence로 정한다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_user_sequence", columnList = "userId, userSequence"))
+public class OutboxEvent extends BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Column
+    private Long userId;
+
+    @Column
+    private Long userSequence; // 유저별 이벤트 순번 (User.eventSequence)
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    @Column(length = 4000)
+    private String payload; // JSON
+}
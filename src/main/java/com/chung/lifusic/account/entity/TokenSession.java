@@ -0,0 +1,14 @@
+package com.chung.lifusic.account.entity;
+
+/**
+ * Redis에 저장되는 로그인 세션(발급된 토큰) 정보
+ * @param sessionId 토큰의 jti
+ * @param issuedAt 발급 시각 (epoch ms)
+ * @param expiresAt 만료 시각 (epoch ms)
+ */
+public record TokenSession(String sessionId, long issuedAt, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
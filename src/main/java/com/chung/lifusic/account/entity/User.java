@@ -10,11 +10,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -27,7 +28,7 @@ public class User extends BaseEntity implements UserDetails {
     @Column
     private String name;
 
-    @Column
+    @Column(unique = true) // Bloom filter가 잘못 "없음"으로 판단해도 중복 가입되지 않도록 DB에서 막는다.
     private String email;
 
     @Column
@@ -37,6 +38,12 @@ public class User extends BaseEntity implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    @Column
+    private LocalDateTime lastLoginAt; // LoginHistoryService가 비동기로 갱신한다.
+
+    @Column
+    private Long eventSequence; // 마지막으로 저장한 outbox 이벤트의 유저별 순번. OutboxService만 갱신한다.
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -72,5 +79,13 @@ public class User extends BaseEntity implements UserDetails {
         return true;
     }
 
+    // 같은 조회 결과를 여러 스레드가 나눠 받을 때(SingleFlight) 각자 수정할 수 있도록 호출마다 복사본을 준다.
+    public User copy() {
+        final User copy = toBuilder().build();
+        copy.setCreatedDate(getCreatedDate());
+        copy.setUpdatedDate(getUpdatedDate());
+        return copy;
+    }
+
 
 }
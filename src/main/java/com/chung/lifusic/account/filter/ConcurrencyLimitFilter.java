@@ -0,0 +1,96 @@
+package com.chung.lifusic.account.filter;
+
+import com.chung.lifusic.account.dto.ErrorResponse;
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter;
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter.Priority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 모든 요청을 AdaptiveConcurrencyLimiter로 제한한다.
+ * 시큐리티 필터(JWT 검증, 유저 조회)보다 앞에서 실행되어, 한도를 넘은 요청은 DB, Redis에 닿기 전에 503으로 거절한다.
+ * health check는 제한하지 않는다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        final Priority priority = priorityOf(request);
+        final AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            // 몰릴 때는 거절이 많으므로 debug로 남긴다. 거절 수는 concurrency_limit.rejected 지표로 확인한다.
+            log.debug("{} :: ConcurrencyLimitFilter:: rejected {} {} ({})",
+                    request.getRemoteHost(), request.getMethod(), request.getRequestURI(), priority);
+            reject(response);
+            return;
+        }
+        // Error를 포함해 어떤 경우에도 permit을 돌려준다. 정상 처리된 요청만 응답 시간을 한도 계산에 반영한다.
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed) {
+                permit.release();
+            } else {
+                permit.releaseWithoutSample();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/health");
+    }
+
+    static Priority priorityOf(HttpServletRequest request) {
+        final String uri = request.getRequestURI();
+        if (uri.equals("/api/account/me")) {
+            return Priority.CRITICAL;
+        }
+        if ((uri.equals("/api/account/user") && HttpMethod.POST.matches(request.getMethod()))
+                || uri.startsWith("/api/account/admin/")) {
+            return Priority.SHEDDABLE;
+        }
+        return Priority.NORMAL;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        final HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .errorType(status.getReasonPhrase())
+                .msg("Server is busy. Please retry later.")
+                .build());
+    }
+}
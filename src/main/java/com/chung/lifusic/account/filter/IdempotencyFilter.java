@@ -0,0 +1,406 @@
+package com.chung.lifusic.account.filter;
+
+import com.chung.lifusic.account.common.ClientIp;
+import com.chung.lifusic.account.dto.ErrorResponse;
+import com.chung.lifusic.account.repository.IdempotencyRepository;
+import com.chung.lifusic.account.repository.IdempotencyRepository.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.io.Decoders;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 로그인, 회원가입 요청의 Idempotency-Key 처리.
+ * 같은 클라이언트(IP)가 같은 키와 같은 본문으로 다시 보낸 요청은 처리하지 않고 첫 응답을 그대로 돌려준다. (replay_ttl_ms 동안)
+ * - 첫 요청이 처리 중이라면 요청 스레드를 붙잡고 기다리지 않고, Retry-After(retry_after_seconds)와 함께 409로 응답한다.
+ * - 5xx, 429 응답은 저장하지 않으므로 같은 키로 다시 시도하면 다시 처리한다.
+ * - Redis 키는 IP, 경로, Idempotency-Key, 본문의 HMAC이다. 본문(비밀번호)이 같아야 저장된 응답(토큰)을 받을 수 있다.
+ * - 응답 본문(토큰)은 서버 키와 요청 본문으로 만든 키로 암호화(AES-GCM)해서 저장하므로, Redis 값만으로는 토큰을 읽을 수 없다.
+ * - Redis에 접근할 수 없다면 키 없이 처리한다.
+ * 헤더가 없는 요청은 그대로 처리한다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed"; // 저장된 응답을 돌려준 경우 true
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/api/account/login", "/api/account/user");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] KEY_LABEL = "lifusic-idempotency-key".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESPONSE_KEY_LABEL = "lifusic-idempotency-response".getBytes(StandardCharsets.US_ASCII);
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MAX_START_ATTEMPTS = 2; // 처리하던 요청이 실패해 키가 지워졌다면 한번 더 시작해본다.
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${security.secret.key}")
+    private String SECRET_KEY;
+
+    @Value("${idempotency.enabled}")
+    private boolean ENABLED;
+
+    @Value("${idempotency.pending_ttl_ms}")
+    private long PENDING_TTL_MS; // 처리 중 표시 유지 시간. 처리하던 서버가 죽어도 이 시간이 지나면 다시 처리할 수 있다.
+
+    @Value("${idempotency.replay_ttl_ms}")
+    private long REPLAY_TTL_MS; // 첫 응답을 돌려주는 시간
+
+    @Value("${idempotency.retry_after_seconds}")
+    private long RETRY_AFTER_SECONDS; // 같은 키의 요청이 처리 중일 때 409 응답에 넣는 Retry-After
+
+    @Value("${idempotency.max_body_bytes}")
+    private int MAX_BODY_BYTES; // 이보다 큰 본문은 키 없이 처리한다.
+
+    private volatile SecretKeySpec macKey;
+    private volatile SecretKeySpec responseMacKey;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        final String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+            return;
+        }
+        final byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        final CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        if (body.length > MAX_BODY_BYTES) {
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+
+        final String clientIp = ClientIp.resolve(request);
+        final String key = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                mac(getMacKey(), clientIp, request.getRequestURI(), idempotencyKey, body));
+        final SecretKeySpec responseKey = new SecretKeySpec(
+                mac(getResponseMacKey(), clientIp, request.getRequestURI(), idempotencyKey, body), "AES");
+        final String requestId = UUID.randomUUID().toString();
+        try {
+            for (int attempt = 0; attempt < MAX_START_ATTEMPTS; attempt++) {
+                if (tryStart(key, requestId)) {
+                    executeAndStore(cachedRequest, response, filterChain, key, requestId, responseKey);
+                    return;
+                }
+                final StoredResponse stored = find(key);
+                if (stored != null && !stored.isPending()) {
+                    replay(response, stored, responseKey);
+                    return;
+                }
+                if (stored != null) {
+                    break;
+                }
+            }
+            // 처리 중인 요청을 기다리지 않는다. 클라이언트가 Retry-After 뒤에 다시 보내면 저장된 응답을 받는다.
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(RETRY_AFTER_SECONDS));
+            writeError(response, HttpStatus.CONFLICT, "A request with the same Idempotency-Key is in progress");
+        } catch (RedisUnavailableException exception) {
+            // 응답을 보내기 전에 Redis 접근에 실패했다면 키 없이 처리한다.
+            log.warn("{} :: IdempotencyFilter:: redis unavailable, processing without key: {}",
+                    request.getRemoteHost(), exception.getMessage());
+            filterChain.doFilter(cachedRequest, response);
+        } catch (GeneralSecurityException exception) {
+            // 저장된 응답을 복호화할 수 없다면(서버 키 교체 등) 키 없이 처리한다.
+            log.warn("{} :: IdempotencyFilter:: stored response unreadable, processing without key: {}",
+                    request.getRemoteHost(), exception.getMessage());
+            filterChain.doFilter(cachedRequest, response);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !ENABLED
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !IDEMPOTENT_PATHS.contains(request.getRequestURI());
+    }
+
+    private void executeAndStore(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                                 String key, String requestId, SecretKeySpec responseKey) throws ServletException, IOException {
+        final ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+            final byte[] content = cachingResponse.getContentAsByteArray();
+            if (isReplayable(cachingResponse.getStatus(), content)) {
+                stored = store(key, cachingResponse.getStatus(), cachingResponse.getContentType(), content, responseKey);
+            }
+        } finally {
+            if (!stored) {
+                release(key, requestId);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    // 서버 오류나 요청 수 제한은 다시 시도하면 성공할 수 있으므로 저장하지 않는다.
+    private static boolean isReplayable(int status, byte[] content) {
+        return status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value() && content.length > 0;
+    }
+
+    // 요청을 처리하기 전의 Redis 실패만 RedisUnavailableException으로 바꾼다. (처리 중 발생한 예외로 다시 처리하지 않도록)
+    private boolean tryStart(String key, String requestId) {
+        try {
+            return idempotencyRepository.tryStart(key, requestId, PENDING_TTL_MS);
+        } catch (RuntimeException exception) {
+            throw new RedisUnavailableException(exception);
+        }
+    }
+
+    private StoredResponse find(String key) {
+        try {
+            return idempotencyRepository.find(key);
+        } catch (RuntimeException exception) {
+            throw new RedisUnavailableException(exception);
+        }
+    }
+
+    private boolean store(String key, int status, String contentType, byte[] content, SecretKeySpec responseKey) {
+        try {
+            idempotencyRepository.complete(key, new StoredResponse(status, contentType, encrypt(content, responseKey)), REPLAY_TTL_MS);
+            return true;
+        } catch (Exception exception) {
+            log.warn("IdempotencyFilter:: failed to store response: {}", exception.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String key, String requestId) {
+        try {
+            idempotencyRepository.release(key, requestId);
+        } catch (Exception exception) {
+            // 처리 중 표시는 pending_ttl_ms 뒤에 사라진다.
+            log.warn("IdempotencyFilter:: failed to release key: {}", exception.getMessage());
+        }
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored, SecretKeySpec responseKey)
+            throws IOException, GeneralSecurityException {
+        final byte[] body = decrypt(stored.body(), responseKey);
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .errorType(status.getReasonPhrase())
+                .msg(message)
+                .build());
+    }
+
+    /**
+     * 본문에 비밀번호가 있으므로 Redis 키와 응답 암호화 키는 서버 키로 만든 HMAC으로 만든다.
+     * 키마다 다른 HMAC 키를 사용하므로 Redis 키로 응답 암호화 키를 알아낼 수 없다.
+     */
+    private static byte[] mac(SecretKeySpec key, String clientIp, String path, String idempotencyKey, byte[] body) {
+        try {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            for (String part : new String[]{clientIp, path, idempotencyKey}) {
+                final byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+                mac.update((byte) (bytes.length >>> 8));
+                mac.update((byte) bytes.length);
+                mac.update(bytes);
+            }
+            mac.update(body);
+            return mac.doFinal();
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // 응답 본문을 AES-GCM으로 암호화한다. Base64(IV + 암호문 + 태그)
+    private static String encrypt(byte[] content, SecretKeySpec responseKey) throws GeneralSecurityException {
+        final byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        final Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, responseKey, new GCMParameterSpec(TAG_BITS, iv));
+        final byte[] encrypted = cipher.doFinal(content);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_BYTES + encrypted.length)
+                .put(iv)
+                .put(encrypted)
+                .array());
+    }
+
+    private static byte[] decrypt(String stored, SecretKeySpec responseKey) throws GeneralSecurityException {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(stored);
+        } catch (IllegalArgumentException exception) {
+            throw new GeneralSecurityException("invalid stored response", exception);
+        }
+        if (bytes.length < IV_BYTES) {
+            throw new GeneralSecurityException("invalid stored response");
+        }
+        final Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, responseKey, new GCMParameterSpec(TAG_BITS, Arrays.copyOf(bytes, IV_BYTES)));
+        return cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES);
+    }
+
+    private SecretKeySpec getMacKey() {
+        if (macKey == null) {
+            macKey = deriveKey(KEY_LABEL);
+        }
+        return macKey;
+    }
+
+    private SecretKeySpec getResponseMacKey() {
+        if (responseMacKey == null) {
+            responseMacKey = deriveKey(RESPONSE_KEY_LABEL);
+        }
+        return responseMacKey;
+    }
+
+    private SecretKeySpec deriveKey(byte[] label) {
+        try {
+            final Mac derive = Mac.getInstance(MAC_ALGORITHM);
+            derive.init(new SecretKeySpec(Decoders.BASE64.decode(SECRET_KEY), MAC_ALGORITHM));
+            return new SecretKeySpec(derive.doFinal(label), MAC_ALGORITHM);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static class RedisUnavailableException extends RuntimeException {
+        RedisUnavailableException(Throwable cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    // 읽어둔 본문을 다시 읽을 수 있는 요청. 읽지 않은 나머지 본문은 원래 스트림에서 이어서 읽는다.
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            return new CachedBodyInputStream(new ByteArrayInputStream(body), super.getInputStream());
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            final String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+
+    /**
+     * 읽어둔 본문을 먼저 읽고, 다 읽으면 원래 스트림을 읽는다.
+     * 비동기 읽기(ReadListener)는 원래 스트림에 등록하고, 읽어둔 본문이 남아 있는 동안에는 읽을 수 있다고 알린다.
+     */
+    private static class CachedBodyInputStream extends ServletInputStream {
+        private final ByteArrayInputStream cached;
+        private final ServletInputStream original;
+
+        CachedBodyInputStream(ByteArrayInputStream cached, ServletInputStream original) {
+            this.cached = cached;
+            this.original = original;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return cached.available() > 0 ? cached.read() : original.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            return cached.available() > 0 ? cached.read(buffer, offset, length) : original.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return cached.available() == 0 && original.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return cached.available() > 0 || original.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            original.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    readListener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    // 원래 스트림을 필터에서 모두 읽었다면 읽어둔 본문을 먼저 읽게 한다.
+                    if (cached.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    readListener.onError(throwable);
+                }
+            });
+        }
+    }
+}
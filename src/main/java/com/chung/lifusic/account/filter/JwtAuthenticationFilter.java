@@ -1,13 +1,23 @@
 package com.chung.lifusic.account.filter;
 
+import com.chung.lifusic.account.common.SingleFlight;
+import com.chung.lifusic.account.dto.ErrorResponse;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.jfr.UserLoadEvent;
 import com.chung.lifusic.account.service.JwtService;
+import com.chung.lifusic.account.service.TokenClaims;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,14 +28,37 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    public static final String RENEWED_TOKEN_HEADER = "X-Auth-Token-Renewed"; // 갱신된 토큰. 클라이언트는 이후 요청부터 이 토큰을 사용한다.
+    private static final String RETRY_AFTER_SECONDS = "1"; // 조회 기한을 넘겨 503으로 응답할 때의 Retry-After
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final ObjectMapper objectMapper;
+    private final Executor authLookupExecutor;
+    private final long lookupTimeoutNanos;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            ObjectMapper objectMapper,
+            @Qualifier("authLookupExecutor") Executor authLookupExecutor,
+            @Value("${security.jwt.auth_lookup_timeout_ms}") long lookupTimeoutMs
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.objectMapper = objectMapper;
+        this.authLookupExecutor = authLookupExecutor;
+        this.lookupTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(lookupTimeoutMs);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -47,22 +80,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwt = authHeader.substring(JWT_PREFIX.length());
-        userEmail = jwtService.extractUsername(jwt); // JWT 토큰으로 부터 유저 이메일 추출
-        log.info("{} :: JwtAuthenticationFilter:: accessed user: {}", ip, userEmail);
+        final TokenClaims claims = jwtService.verify(jwt); // 서명 검증 (I/O 없음)
+        userEmail = claims == null ? null : claims.subject(); // 토큰으로 부터 유저 이메일 추출
+        log.debug("{} :: JwtAuthenticationFilter:: accessed user: {}", ip, userEmail);
         // jwt 토큰에 유저 이메일이 없고, 아직 인증되지 않은 유저라면
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // db에서 유저 정보를 가져옴
-            UserDetails userDetails = null;
+            // db에서 유저 정보를 가져오면서 redis에서 세션을 확인함
+            final UserDetails userDetails;
             try {
-                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            } catch (UsernameNotFoundException exception) {
-                log.info("{} :: JwtAuthenticationFilter:: user email({}) not in DB", ip, userEmail);
+                userDetails = loadUserWithActiveSession(ip, jwt, claims);
+            } catch (LookupTimeoutException exception) {
+                // 토큰이 잘못된 것이 아니므로 인증 실패(403)가 아니라 503으로 응답해 클라이언트가 다시 시도하도록 한다.
+                log.error("{} :: JwtAuthenticationFilter:: {}: {}", ip, exception.getMessage(), userEmail);
+                rejectAsUnavailable(response);
+                return;
             }
             // token이 유효하다면
-            if (userDetails != null && jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null) {
+                // credentials에는 토큰의 세션 id를 담아 로그아웃 시 현재 세션만 만료시킬 수 있도록 한다.
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
-                        null,
+                        claims.sessionId(),
                         userDetails.getAuthorities()
                 );
                 authToken.setDetails(
@@ -71,7 +109,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // SecurityContext를 갱신한고 controller로 요청을 전달한다.
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.info("{} :: JwtAuthenticationFilter:: token valid: {}", ip, userEmail);
+                log.debug("{} :: JwtAuthenticationFilter:: token valid: {}", ip, userEmail);
+                // 만료가 가까운 토큰이라면 새 토큰을 헤더로 내려준다. (응답 본문이 쓰이기 전에 설정)
+                if (userDetails instanceof User user) {
+                    final String renewedToken = jwtService.renewIfExpiring(jwt, user);
+                    if (renewedToken != null) {
+                        response.setHeader(RENEWED_TOKEN_HEADER, renewedToken);
+                        log.debug("{} :: JwtAuthenticationFilter:: token renewed: {}", ip, userEmail);
+                    }
+                }
             } else {
                 log.error("{} :: JwtAuthenticationFilter:: token Invalid: {}", ip, userEmail);
             }
@@ -80,4 +126,110 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * 유저 조회(DB)와 세션 확인(Redis)은 서로의 결과가 필요 없으므로 동시에 실행한다. 인증 시간은 두 조회 중 느린 쪽이 된다.
+     * - 두 조회 모두 authLookupExecutor에서 실행하고, 요청 스레드는 auth_lookup_timeout_ms 까지만 기다린다. (하나의 기한을 같이 사용)
+     * - 한쪽이 실패하거나(예외) 인증 실패로 끝나면(유저 없음, 세션 없음) 다른 쪽을 기다리지 않고 취소한다.
+     *   기한이 지나도 두 조회를 모두 취소한다. 아직 시작하지 않은 조회는 실행되지 않고, 이미 실행 중인 조회가 중단되지는 않는다.
+     * - executor의 스레드가 모두 사용 중이면 조회는 요청 스레드에서 실행되므로(CallerRunsPolicy) 기한이 적용되지 않는다.
+     *   유저 조회의 single flight는 조회 스레드에서 그대로 실행되므로 요청 하나가 사용하는 스레드는 2개까지다.
+     * @return 유저가 있고 세션이 유효하다면 유저 정보, 아니라면 null
+     * @throws LookupTimeoutException 기한 안에 조회가 끝나지 않았거나, 같은 유저의 조회를 기다리다 시간이 지난 경우
+     */
+    private UserDetails loadUserWithActiveSession(String ip, String jwt, TokenClaims claims) {
+        final CompletableFuture<UserDetails> userFuture =
+                CompletableFuture.supplyAsync(() -> loadUser(ip, claims.subject()), authLookupExecutor);
+        final CompletableFuture<Boolean> sessionFuture =
+                CompletableFuture.supplyAsync(() -> jwtService.isSessionActive(claims, jwt), authLookupExecutor);
+        final CompletableFuture<UserDetails> result = new CompletableFuture<>();
+        // 먼저 끝난 실패가 결과가 된다.
+        userFuture.whenComplete((user, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else if (user == null) {
+                result.complete(null);
+            }
+        });
+        sessionFuture.whenComplete((active, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else if (!Boolean.TRUE.equals(active)) {
+                result.complete(null);
+            }
+        });
+        CompletableFuture.allOf(userFuture, sessionFuture).thenRun(() -> result.complete(userFuture.join()));
+        result.orTimeout(lookupTimeoutNanos, TimeUnit.NANOSECONDS);
+        // 결과가 정해지면 아직 끝나지 않은 조회는 취소한다.
+        result.whenComplete((user, failure) -> {
+            userFuture.cancel(true);
+            sessionFuture.cancel(true);
+        });
+
+        final UserDetails userDetails;
+        try {
+            userDetails = result.get();
+        } catch (InterruptedException exception) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new LookupTimeoutException("user, session lookup timed out");
+            }
+            // 같은 유저의 조회를 기다리다 coalesce_timeout_ms가 지난 경우도 유저가 없는 것이 아니므로 같이 503으로 응답한다.
+            if (cause instanceof SingleFlight.TimeoutExceededException) {
+                throw new LookupTimeoutException("coalesced user lookup timed out");
+            }
+            // DB, Redis 장애 등 조회 중 발생한 예외는 순차 실행할 때와 같이 그대로 던진다.
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+        // token으로 부터 추출한 유저네임(이메일)과 db로부터 가져온 유저네임이 같은 지 확인한다.
+        if (userDetails == null || !claims.subject().equals(userDetails.getUsername())) {
+            return null;
+        }
+        return userDetails;
+    }
+
+    private UserDetails loadUser(String ip, String userEmail) {
+        UserDetails userDetails = null;
+        final UserLoadEvent userLoadEvent = new UserLoadEvent();
+        userLoadEvent.begin();
+        // SingleFlight.TimeoutExceededException은 잡지 않는다. 유저가 없는 것과 구분해 loadUserWithActiveSession에서 503으로 바꾼다.
+        try {
+            userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        } catch (UsernameNotFoundException exception) {
+            log.info("{} :: JwtAuthenticationFilter:: user email({}) not in DB", ip, userEmail);
+        }
+        if (userLoadEvent.shouldCommit()) {
+            userLoadEvent.found = userDetails != null;
+            userLoadEvent.commit();
+        }
+        return userDetails;
+    }
+
+    private void rejectAsUnavailable(HttpServletResponse response) throws IOException {
+        final HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .errorType(status.getReasonPhrase())
+                .msg("Authentication lookup timed out. Please retry later.")
+                .build());
+    }
+
+    // 유저 조회, 세션 확인이 기한 안에 끝나지 않음. 필터에서 503으로 응답한다.
+    private static class LookupTimeoutException extends RuntimeException {
+        LookupTimeoutException(String message) {
+            super(message);
+        }
+    }
 }
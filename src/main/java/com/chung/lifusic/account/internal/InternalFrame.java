@@ -0,0 +1,10 @@
+package com.chung.lifusic.account.internal;
+
+/**
+ * 내부 프로토콜의 요청/응답 프레임 하나.
+ * @param requestId 클라이언트가 정하는 요청 id. 응답에 그대로 돌려주므로 한 연결에서 여러 요청을 동시에 보낼 수 있다.
+ * @param code 요청이라면 opcode, 응답이라면 status
+ * @param payload 내용
+ */
+public record InternalFrame(int requestId, byte code, byte[] payload) {
+}
@@ -0,0 +1,97 @@
+package com.chung.lifusic.account.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// InternalProtocol 프레임 인코딩, 디코딩
+public final class InternalFrameCodec {
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private InternalFrameCodec() {
+    }
+
+    /**
+     * buffer(읽기 모드)에서 프레임 하나를 읽는다.
+     * @return 프레임 전체가 아직 도착하지 않았다면 null. 이 경우 buffer의 position은 바뀌지 않는다.
+     * @throws IllegalArgumentException 프레임 길이가 잘못된 경우. 연결을 끊어야 한다.
+     */
+    public static InternalFrame decode(ByteBuffer buffer, int maxFrameBytes) {
+        if (buffer.remaining() < InternalProtocol.LENGTH_FIELD_BYTES) {
+            return null;
+        }
+        final int length = buffer.getInt(buffer.position());
+        if (length < InternalProtocol.HEADER_BYTES || length > maxFrameBytes) {
+            throw new IllegalArgumentException("Invalid frame length: " + length);
+        }
+        if (buffer.remaining() < InternalProtocol.LENGTH_FIELD_BYTES + length) {
+            return null;
+        }
+        buffer.position(buffer.position() + InternalProtocol.LENGTH_FIELD_BYTES);
+        final int requestId = buffer.getInt();
+        final byte code = buffer.get();
+        final byte[] payload = new byte[length - InternalProtocol.HEADER_BYTES];
+        buffer.get(payload);
+        return new InternalFrame(requestId, code, payload);
+    }
+
+    // 쓰기 가능한 상태(flip 완료)의 버퍼를 반환
+    public static ByteBuffer encode(InternalFrame frame) {
+        final int length = InternalProtocol.HEADER_BYTES + frame.payload().length;
+        ByteBuffer buffer = ByteBuffer.allocate(InternalProtocol.LENGTH_FIELD_BYTES + length);
+        buffer.putInt(length);
+        buffer.putInt(frame.requestId());
+        buffer.put(frame.code());
+        buffer.put(frame.payload());
+        return buffer.flip();
+    }
+
+    public static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String utf8(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // 응답 payload 작성. [int64], [uint16 길이 + UTF-8] 형식만 사용한다.
+    public static final class PayloadWriter {
+        private final Object[] values;
+
+        public PayloadWriter(Object... values) {
+            this.values = values;
+        }
+
+        public byte[] toBytes() {
+            int size = 0;
+            byte[][] encoded = new byte[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof Long) {
+                    size += Long.BYTES;
+                } else {
+                    encoded[i] = utf8((String) values[i]);
+                    if (encoded[i].length > MAX_STRING_BYTES) {
+                        throw new IllegalArgumentException("String too long: " + encoded[i].length);
+                    }
+                    size += Short.BYTES + encoded[i].length;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof Long number) {
+                    buffer.putLong(number);
+                } else {
+                    buffer.putShort((short) encoded[i].length);
+                    buffer.put(encoded[i]);
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        final int length = Short.toUnsignedInt(buffer.getShort());
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
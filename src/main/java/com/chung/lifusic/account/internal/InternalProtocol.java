@@ -0,0 +1,34 @@
+package com.chung.lifusic.account.internal;
+
+/**
+ * 서비스 간 토큰 검증용 바이너리 프로토콜.
+ *
+ * 프레임: [length:int32][requestId:int32][code:int8][payload]
+ *  - length는 requestId부터 payload 끝까지의 바이트 수 (빅 엔디언)
+ *  - 문자열은 [byteLength:uint16][UTF-8 bytes]
+ *
+ * 요청
+ *  - VALIDATE_TOKEN    payload: 토큰(UTF-8 전체)
+ *    OK 응답 payload: [userId:int64][email:string][role:string][sessionId:string]
+ *  - GET_USER_SUMMARY  payload: 토큰(UTF-8 전체)
+ *    OK 응답 payload: [userId:int64][email:string][name:string][role:string]
+ * 응답 status가 OK가 아니라면 payload는 에러 메시지(UTF-8 전체)이거나 비어있다.
+ */
+public final class InternalProtocol {
+    public static final int LENGTH_FIELD_BYTES = 4;
+    public static final int HEADER_BYTES = 5; // requestId + code
+
+    // opcode
+    public static final byte VALIDATE_TOKEN = 1;
+    public static final byte GET_USER_SUMMARY = 2;
+
+    // status
+    public static final byte OK = 0;
+    public static final byte INVALID_TOKEN = 1;
+    public static final byte BAD_REQUEST = 2;
+    public static final byte OVERLOADED = 3; // 작업 큐가 가득 찼거나 동시 처리 한도 초과. 잠시 후 다시 시도
+    public static final byte ERROR = 4;
+
+    private InternalProtocol() {
+    }
+}
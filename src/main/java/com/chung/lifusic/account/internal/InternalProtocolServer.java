@@ -0,0 +1,284 @@
+package com.chung.lifusic.account.internal;
+
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 서비스 간 토큰 검증용 내부 리스너. (InternalProtocol)
+ * - REST API(톰캣)와 다른 포트, 다른 스레드 풀을 사용한다.
+ * - 하나의 selector 스레드가 accept, read, write를 처리하고, 요청 처리는 internalProtocolExecutor에서 한다.
+ * - 연결을 유지한 채 여러 요청을 동시에 보낼 수 있고, 응답은 처리가 끝난 순서대로 requestId와 함께 돌아간다.
+ * - REST API와 같은 DB, Redis를 사용하므로 AdaptiveConcurrencyLimiter의 한도를 CRITICAL 우선순위로 함께 사용한다.
+ * - 응답을 읽지 않는 연결의 쓰기 대기열이 max_queued_write_bytes를 넘으면, 절반 이하로 줄어들 때까지 그 연결의 요청을 읽지 않는다.
+ * internal.enabled가 true일 때만 실행된다. 호출한 서비스를 인증하지 않으므로 내부망에서만 접근 가능하도록 해야 한다.
+ */
+@Component
+@ConditionalOnProperty(value = "internal.enabled", havingValue = "true")
+@Slf4j
+public class InternalProtocolServer implements SmartLifecycle {
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+    private final InternalRequestHandler handler;
+    private final Executor executor;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${internal.host}")
+    private String HOST;
+
+    @Value("${internal.port}")
+    private int PORT;
+
+    @Value("${internal.max_frame_bytes}")
+    private int MAX_FRAME_BYTES; // 이보다 큰 프레임을 보내면 연결을 끊는다.
+
+    @Value("${internal.max_queued_write_bytes}")
+    private long MAX_QUEUED_WRITE_BYTES; // 연결별로 아직 보내지 못한 응답의 최대 크기
+
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread ioThread;
+    private volatile boolean running = false;
+
+    public InternalProtocolServer(
+            InternalRequestHandler handler,
+            @Qualifier("internalProtocolExecutor") Executor executor,
+            AdaptiveConcurrencyLimiter limiter
+    ) {
+        this.handler = handler;
+        this.executor = executor;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(HOST, PORT));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to start internal protocol server on port " + PORT, exception);
+        }
+        running = true;
+        ioThread = new Thread(this::run, "internal-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        log.info("InternalProtocolServer:: listening on {}:{}", HOST, getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            selector.wakeup();
+            ioThread.join(1000);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 실제로 열린 포트. (port가 0이라면 OS가 정한 포트)
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    connection.updateInterestOps();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            ((Connection) key.attachment()).write();
+                        }
+                    } catch (IOException | IllegalArgumentException exception) {
+                        log.info("InternalProtocolServer:: connection closed: {}", exception.getMessage());
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException exception) {
+            log.error("InternalProtocolServer:: selector failed: {}", exception.getMessage());
+        } finally {
+            running = false;
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+            log.info("InternalProtocolServer:: stopped");
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        // 워커 스레드가 응답을 넣고 selector 스레드가 꺼내 쓴다.
+        private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong queuedBytes = new AtomicLong(); // writeQueue에 남은 바이트 수
+        private boolean readPaused = false; // selector 스레드에서만 사용
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                throw new IOException("end of stream");
+            }
+            readBuffer.flip();
+            InternalFrame request;
+            while ((request = InternalFrameCodec.decode(readBuffer, MAX_FRAME_BYTES)) != null) {
+                dispatch(request);
+            }
+            readBuffer.compact();
+            updateInterestOps();
+            // 프레임 하나가 버퍼보다 크다면 max_frame_bytes 까지 늘린다.
+            if (!readBuffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2,
+                        InternalProtocol.LENGTH_FIELD_BYTES + MAX_FRAME_BYTES));
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+        }
+
+        private void dispatch(InternalFrame request) {
+            final AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.CRITICAL);
+            if (permit == null) {
+                reply(new InternalFrame(request.requestId(), InternalProtocol.OVERLOADED, new byte[0]));
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    InternalFrame response = null;
+                    try {
+                        response = handler.handle(request);
+                    } finally {
+                        // handler가 Error로 끝나도 permit을 돌려주고, 클라이언트가 기다리지 않도록 ERROR로 응답한다.
+                        if (response != null) {
+                            permit.release();
+                            reply(response);
+                        } else {
+                            permit.releaseWithoutSample();
+                            reply(new InternalFrame(request.requestId(), InternalProtocol.ERROR, new byte[0]));
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                permit.releaseWithoutSample();
+                reply(new InternalFrame(request.requestId(), InternalProtocol.OVERLOADED, new byte[0]));
+            }
+        }
+
+        private void reply(InternalFrame response) {
+            final ByteBuffer buffer = InternalFrameCodec.encode(response);
+            queuedBytes.addAndGet(buffer.remaining());
+            writeQueue.offer(buffer);
+            if (Thread.currentThread() == ioThread) {
+                updateInterestOps();
+            } else {
+                pendingWrites.offer(this);
+                selector.wakeup();
+            }
+        }
+
+        // 보낼 응답이 있으면 OP_WRITE, 쓰기 대기열이 max_queued_write_bytes를 넘었다면 절반 이하로 줄 때까지 OP_READ를 끈다.
+        private void updateInterestOps() {
+            if (!key.isValid()) {
+                return;
+            }
+            final long queued = queuedBytes.get();
+            if (queued > MAX_QUEUED_WRITE_BYTES) {
+                readPaused = true;
+            } else if (queued <= MAX_QUEUED_WRITE_BYTES / 2) {
+                readPaused = false;
+            }
+            int ops = readPaused ? 0 : SelectionKey.OP_READ;
+            if (!writeQueue.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        private void write() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                queuedBytes.addAndGet(-channel.write(buffer));
+                if (buffer.hasRemaining()) {
+                    break; // 소켓 버퍼가 가득 참. 다음 OP_WRITE 때 이어서 쓴다.
+                }
+                writeQueue.poll();
+            }
+            // interestOps를 바꾼 뒤에 워커가 추가한 응답은 pendingWrites를 통해 다시 반영된다.
+            updateInterestOps();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.chung.lifusic.account.internal;
+
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.service.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 내부 프로토콜 요청 처리. REST API의 JwtAuthenticationFilter와 같은 방식으로 토큰을 검증한다.
+ * (JwtService 파싱, 서명, 만료, Redis 세션 확인 + userDetailsService 유저 조회)
+ */
+@Component
+@ConditionalOnProperty(value = "internal.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class InternalRequestHandler {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    public InternalFrame handle(InternalFrame request) {
+        try {
+            return switch (request.code()) {
+                case InternalProtocol.VALIDATE_TOKEN -> validateToken(request);
+                case InternalProtocol.GET_USER_SUMMARY -> getUserSummary(request);
+                default -> response(request, InternalProtocol.BAD_REQUEST, InternalFrameCodec.utf8("Unknown opcode: " + request.code()));
+            };
+        } catch (Exception exception) {
+            log.error("InternalRequestHandler:: request {} failed: {}", request.requestId(), exception.getMessage());
+            return response(request, InternalProtocol.ERROR, EMPTY);
+        }
+    }
+
+    private InternalFrame validateToken(InternalFrame request) {
+        final String token = InternalFrameCodec.utf8(request.payload());
+        final User user = authenticate(token);
+        if (user == null) {
+            return response(request, InternalProtocol.INVALID_TOKEN, EMPTY);
+        }
+        return response(request, InternalProtocol.OK, new InternalFrameCodec.PayloadWriter(
+                user.getId(),
+                user.getEmail(),
+                user.getRole().name(),
+                jwtService.extractSessionId(token)
+        ).toBytes());
+    }
+
+    private InternalFrame getUserSummary(InternalFrame request) {
+        final User user = authenticate(InternalFrameCodec.utf8(request.payload()));
+        if (user == null) {
+            return response(request, InternalProtocol.INVALID_TOKEN, EMPTY);
+        }
+        return response(request, InternalProtocol.OK, new InternalFrameCodec.PayloadWriter(
+                user.getId(),
+                user.getEmail(),
+                user.getName(),
+                user.getRole().name()
+        ).toBytes());
+    }
+
+    // 유효한 토큰이라면 토큰의 유저, 아니라면 null
+    private User authenticate(String token) {
+        if (token.isEmpty()) {
+            return null;
+        }
+        final String email = jwtService.extractUsername(token);
+        if (email == null) {
+            return null;
+        }
+        final UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException exception) {
+            return null;
+        }
+        if (!(userDetails instanceof User user) || !jwtService.isTokenValid(token, userDetails)) {
+            return null;
+        }
+        return user;
+    }
+
+    private static InternalFrame response(InternalFrame request, byte status, byte[] payload) {
+        return new InternalFrame(request.requestId(), status, payload);
+    }
+}
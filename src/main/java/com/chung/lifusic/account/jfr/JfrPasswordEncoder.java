@@ -0,0 +1,58 @@
+package com.chung.lifusic.account.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 비밀번호 해싱, 검증 시간을 PasswordHashEvent로 남기는 PasswordEncoder.
+ * 로그인(DaoAuthenticationProvider), 회원가입, 해시 업그레이드 모두 이 빈을 거친다.
+ * 이벤트가 꺼져 있으면 begin/commit은 아무 일도 하지 않는다.
+ */
+@RequiredArgsConstructor
+public class JfrPasswordEncoder implements PasswordEncoder {
+    private static final String DEFAULT_ALGORITHM = "bcrypt"; // id가 없는 기존 해시
+
+    private final PasswordEncoder delegate;
+    private final String encodeAlgorithm;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        final PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        final String encoded = delegate.encode(rawPassword);
+        if (event.shouldCommit()) {
+            event.operation = "encode";
+            event.algorithm = encodeAlgorithm;
+            event.commit();
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        final PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        final boolean matched = delegate.matches(rawPassword, encodedPassword);
+        if (event.shouldCommit()) {
+            event.operation = "matches";
+            event.algorithm = algorithmOf(encodedPassword);
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // "{argon2}..." -> "argon2"
+    static String algorithmOf(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith("{")) {
+            return DEFAULT_ALGORITHM;
+        }
+        final int end = encodedPassword.indexOf('}');
+        return end < 0 ? DEFAULT_ALGORITHM : encodedPassword.substring(1, end);
+    }
+}
@@ -0,0 +1,26 @@
+package com.chung.lifusic.account.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 비밀번호 해싱, 검증 구간 (회원가입, 로그인, 해시 업그레이드)
+@Name("com.chung.lifusic.account.PasswordHash")
+@Label("Password Hash")
+@Category({"Lifusic", "Authentication"})
+@Description("Hashing or verifying a password")
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+
+    @Label("Algorithm")
+    @Description("Algorithm id of the stored hash, e.g. bcrypt, argon2")
+    public String algorithm;
+
+    @Label("Matched")
+    public boolean matched;
+}
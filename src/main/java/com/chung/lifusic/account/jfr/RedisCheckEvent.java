@@ -0,0 +1,18 @@
+package com.chung.lifusic.account.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Redis 세션 확인 구간 (JwtService -> TokenSessionRepository)
+@Name("com.chung.lifusic.account.RedisCheck")
+@Label("Redis Session Check")
+@Category({"Lifusic", "Authentication"})
+@Description("Checking that the token session is still active in Redis")
+@StackTrace(false)
+public class RedisCheckEvent extends jdk.jfr.Event {
+    @Label("Active")
+    public boolean active;
+}
@@ -0,0 +1,22 @@
+package com.chung.lifusic.account.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 토큰 파싱, 서명 검증 구간 (JwtService)
+@Name("com.chung.lifusic.account.TokenVerify")
+@Label("Token Verify")
+@Category({"Lifusic", "Authentication"})
+@Description("Parsing and signature verification of an access token")
+@StackTrace(false)
+public class TokenVerifyEvent extends jdk.jfr.Event {
+    @Label("Cache Hit")
+    @Description("Claims were served from VerifiedTokenCache without parsing")
+    public boolean cacheHit;
+
+    @Label("Valid")
+    public boolean valid;
+}
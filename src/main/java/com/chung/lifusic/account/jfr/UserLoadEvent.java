@@ -0,0 +1,18 @@
+package com.chung.lifusic.account.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 토큰의 유저를 조회하는 구간 (JwtAuthenticationFilter -> userDetailsService, authLookupExecutor 스레드에서 기록)
+@Name("com.chung.lifusic.account.UserLoad")
+@Label("User Load")
+@Category({"Lifusic", "Authentication"})
+@Description("Loading the token owner through UserDetailsService")
+@StackTrace(false)
+public class UserLoadEvent extends jdk.jfr.Event {
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,154 @@
+package com.chung.lifusic.account.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 로그인, 세션 통계 저장소. 로그인/로그아웃 때 시간 구간별 키를 갱신하고, 조회할 때는 정해진 키만 읽으므로 키를 스캔하지 않는다.
+ * - ANALYTICS:DAU:<yyyyMMdd>                일별 활성 유저 id의 HyperLogLog (오차 약 0.81%, 키당 최대 12KB)
+ * - ANALYTICS:HAU:<yyyyMMddHH>              시간별 활성 유저 id의 HyperLogLog
+ * - ANALYTICS:LOGINS:<yyyyMMddHHmm>:<shard> 분당 로그인 수
+ * - ANALYTICS:SESSIONS:<yyyyMMddHH>:<shard> 그 시간에 발급된 세션 중 아직 남아 있는 수 (발급 +1, 갱신/로그아웃/삭제 -1)
+ * 카운터는 키 하나에 쓰기가 몰리지 않도록 shard 개의 키에 나눠 더하고, 읽을 때 MGET 한번으로 합친다.
+ * 시각은 UTC 기준
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuthAnalyticsRepository {
+    private static final String DAU_PREFIX = "ANALYTICS:DAU:";
+    private static final String HAU_PREFIX = "ANALYTICS:HAU:";
+    private static final String LOGINS_PREFIX = "ANALYTICS:LOGINS:";
+    private static final String SESSIONS_PREFIX = "ANALYTICS:SESSIONS:";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyyMMddHHmm").withZone(ZoneOffset.UTC);
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+    private static final long MINUTE_MS = Duration.ofMinutes(1).toMillis();
+    private static final Duration DAU_TTL = Duration.ofDays(35);
+    private static final Duration HAU_TTL = Duration.ofHours(48);
+    private static final Duration LOGINS_TTL = Duration.ofHours(25);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    // 로그인(토큰 발급): 활성 유저 추가, 로그인 수 +1, 세션 수 +1 (한번의 왕복)
+    public void recordLogin(long userId, long now, int shard, long sessionLifetimeMs) {
+        pipeline(operations -> {
+            addActiveUser(operations, userId, now);
+            final String loginsKey = LOGINS_PREFIX + MINUTE.format(Instant.ofEpochMilli(now)) + ":" + shard;
+            operations.opsForValue().increment(loginsKey);
+            operations.expire(loginsKey, LOGINS_TTL);
+            addSession(operations, now, 1, shard, sessionLifetimeMs);
+        });
+    }
+
+    // 토큰 갱신: 활성 유저 추가, 새 세션 +1, 이전 세션 -1. 로그인 수에는 넣지 않는다.
+    public void recordRenewal(long userId, long now, long previousIssuedAt, int shard, long sessionLifetimeMs) {
+        pipeline(operations -> {
+            addActiveUser(operations, userId, now);
+            addSession(operations, now, 1, shard, sessionLifetimeMs);
+            addSession(operations, previousIssuedAt, -1, shard, sessionLifetimeMs);
+        });
+    }
+
+    // 로그아웃, 세션 삭제: 세션마다 발급된 시간의 세션 수 -1 (한번의 왕복)
+    public void recordSessionsEnded(List<Long> issuedAts, int shard, long sessionLifetimeMs) {
+        pipeline(operations -> issuedAts.forEach(issuedAt -> addSession(operations, issuedAt, -1, shard, sessionLifetimeMs)));
+    }
+
+    // at이 속한 날의 활성 유저 수 (근사값)
+    public long countDailyActiveUsers(long at) {
+        return nullToZero(redisTemplate.opsForHyperLogLog().size(DAU_PREFIX + DAY.format(Instant.ofEpochMilli(at))));
+    }
+
+    // from ~ to 시간 구간의 활성 유저 수 (근사값). 여러 시간의 HyperLogLog를 합쳐서 센다.
+    public long countHourlyActiveUsers(long from, long to) {
+        final List<String> keys = bucketKeys(HAU_PREFIX, HOUR, HOUR_MS, from, to, null);
+        return nullToZero(redisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0])));
+    }
+
+    // from ~ to 분 구간의 로그인 수
+    public long sumLogins(long from, long to, int shards) {
+        return sum(bucketKeys(LOGINS_PREFIX, MINUTE, MINUTE_MS, from, to, shards));
+    }
+
+    // from ~ to 시간 구간에 발급된 세션 중 아직 남아 있는 수
+    public long sumSessions(long from, long to, int shards) {
+        return sum(bucketKeys(SESSIONS_PREFIX, HOUR, HOUR_MS, from, to, shards));
+    }
+
+    private static void addActiveUser(RedisOperations<String, String> operations, long userId, long now) {
+        final Instant instant = Instant.ofEpochMilli(now);
+        final String userIdValue = Long.toString(userId);
+        final String dauKey = DAU_PREFIX + DAY.format(instant);
+        final String hauKey = HAU_PREFIX + HOUR.format(instant);
+        operations.opsForHyperLogLog().add(dauKey, userIdValue);
+        operations.expire(dauKey, DAU_TTL);
+        operations.opsForHyperLogLog().add(hauKey, userIdValue);
+        operations.expire(hauKey, HAU_TTL);
+    }
+
+    // 세션 카운터는 세션이 모두 만료된 뒤(발급 시각 + 수명 + 1시간)에 사라진다.
+    private static void addSession(RedisOperations<String, String> operations, long issuedAt, long delta, int shard, long sessionLifetimeMs) {
+        final String key = SESSIONS_PREFIX + HOUR.format(Instant.ofEpochMilli(issuedAt)) + ":" + shard;
+        operations.opsForValue().increment(key, delta);
+        operations.expire(key, Duration.ofMillis(sessionLifetimeMs + 2 * HOUR_MS));
+    }
+
+    // from, to가 속한 구간을 포함한 모든 구간의 키. shards가 null이 아니면 구간마다 shard 개의 키
+    private static List<String> bucketKeys(String prefix, DateTimeFormatter formatter, long bucketMs,
+                                           long from, long to, Integer shards) {
+        final List<String> keys = new ArrayList<>();
+        for (long bucket = from - Math.floorMod(from, bucketMs); bucket <= to; bucket += bucketMs) {
+            final String key = prefix + formatter.format(Instant.ofEpochMilli(bucket));
+            if (shards == null) {
+                keys.add(key);
+                continue;
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                keys.add(key + ":" + shard);
+            }
+        }
+        return keys;
+    }
+
+    private long sum(List<String> keys) {
+        final List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        long sum = 0;
+        if (values == null) {
+            return sum;
+        }
+        for (String value : values) {
+            if (value != null) {
+                sum += Long.parseLong(value);
+            }
+        }
+        return sum;
+    }
+
+    private void pipeline(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                commands.accept(operations);
+                return null;
+            }
+        });
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
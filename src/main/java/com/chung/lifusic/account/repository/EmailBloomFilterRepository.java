@@ -0,0 +1,90 @@
+package com.chung.lifusic.account.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 이메일 Bloom filter 비트맵 저장소.
+ * 필터 크기(bit 수)와 해시 함수 수가 바뀌면 다른 키를 사용하므로 기존 필터와 섞이지 않는다.
+ * - EMAIL_BLOOM:<bits>:<hashes>       비트맵. 필터 범위 바로 뒤(sentinelOffset)의 비트는 생성이 끝날 때 설정한다.
+ * - EMAIL_BLOOM:<bits>:<hashes>:READY user 테이블로부터 생성이 끝났다는 표시
+ * 비트맵만 사라지고(eviction 등) 이후 추가로 다시 만들어진 경우에도 sentinel 비트가 없으므로 준비되지 않은 것으로 판단한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailBloomFilterRepository {
+    private static final String KEY_PREFIX = "EMAIL_BLOOM:";
+    private static final String READY_SUFFIX = ":READY";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    // 주어진 위치의 비트를 모두 1로 설정 (한번의 왕복)
+    public void setBits(String filterName, long[] offsets) {
+        final String key = KEY_PREFIX + filterName;
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                ValueOperations<String, String> valueOperations = operations.opsForValue();
+                for (long offset : offsets) {
+                    valueOperations.setBit(key, offset, true);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 주어진 위치의 비트가 모두 1인 지 확인 (한번의 왕복)
+     * @return 필터 생성이 끝나지 않았거나, 무효화되었거나, Redis 데이터가 사라졌다면 null
+     */
+    public Boolean allBitsSet(String filterName, long sentinelOffset, long[] offsets) {
+        final String key = KEY_PREFIX + filterName;
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.hasKey(key + READY_SUFFIX);
+                ValueOperations<String, String> valueOperations = operations.opsForValue();
+                valueOperations.getBit(key, sentinelOffset);
+                for (long offset : offsets) {
+                    valueOperations.getBit(key, offset);
+                }
+                return null;
+            }
+        });
+        if (!Boolean.TRUE.equals(results.get(0)) || !Boolean.TRUE.equals(results.get(1))) {
+            return null;
+        }
+        for (int i = 2; i < results.size(); i++) {
+            if (!Boolean.TRUE.equals(results.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isReady(String filterName, long sentinelOffset) {
+        final String key = KEY_PREFIX + filterName;
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key + READY_SUFFIX))
+                && Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key, sentinelOffset));
+    }
+
+    public void markReady(String filterName, long sentinelOffset) {
+        final String key = KEY_PREFIX + filterName;
+        redisTemplate.opsForValue().setBit(key, sentinelOffset, true);
+        redisTemplate.opsForValue().set(key + READY_SUFFIX, String.valueOf(System.currentTimeMillis()));
+    }
+
+    // 생성 완료 표시를 지운다. 모든 서버가 DB로 확인하고, 다음 생성은 기존 필터를 재사용하지 않는다.
+    public void invalidate(String filterName) {
+        redisTemplate.delete(KEY_PREFIX + filterName + READY_SUFFIX);
+    }
+}
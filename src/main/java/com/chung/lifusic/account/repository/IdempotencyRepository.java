@@ -0,0 +1,86 @@
+package com.chung.lifusic.account.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Idempotency-Key 요청의 처리 상태와 첫 응답 저장소.
+ * - IDEMPOTENCY:<key> = "P" + 처리 중인 요청 id                       처리 중 (SET NX, pending_ttl_ms)
+ * - IDEMPOTENCY:<key> = "D" + 상태 코드 + "\n" + Content-Type + "\n" + 암호화한 본문   처리 완료 (replay_ttl_ms)
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRepository {
+    private static final String KEY_PREFIX = "IDEMPOTENCY:";
+    private static final char PENDING = 'P';
+    private static final char COMPLETED = 'D';
+
+    // KEYS[1]: 키, ARGV[1]: 처리 중 표시. 처리 중 표시가 그대로일 때만 지운다. (TTL이 지나 다른 요청이 시작했을 수 있다)
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * 처리 중 표시를 남긴다.
+     * @return 다른 요청이 처리 중이거나 처리가 끝난 키라면 false
+     */
+    public boolean tryStart(String key, String requestId, long pendingTtlMs) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + key, PENDING + requestId, Duration.ofMillis(pendingTtlMs)));
+    }
+
+    // 처리가 끝난 응답을 저장한다.
+    public void complete(String key, StoredResponse response, long replayTtlMs) {
+        final String value = COMPLETED + Integer.toString(response.status()) + "\n"
+                + (response.contentType() == null ? "" : response.contentType()) + "\n"
+                + response.body();
+        redisTemplate.opsForValue().set(KEY_PREFIX + key, value, Duration.ofMillis(replayTtlMs));
+    }
+
+    // 처리에 실패해 응답을 저장하지 않는 경우, 같은 키로 다시 시도할 수 있도록 처리 중 표시를 지운다.
+    public void release(String key, String requestId) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), PENDING + requestId);
+    }
+
+    /**
+     * @return 저장된 응답. 처리 중이라면 StoredResponse.PENDING, 키가 없다면 null
+     */
+    public StoredResponse find(String key) {
+        final String value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.charAt(0) != COMPLETED) {
+            return StoredResponse.PENDING;
+        }
+        final int statusEnd = value.indexOf('\n');
+        final int contentTypeEnd = value.indexOf('\n', statusEnd + 1);
+        final String contentType = value.substring(statusEnd + 1, contentTypeEnd);
+        return new StoredResponse(
+                Integer.parseInt(value.substring(1, statusEnd)),
+                contentType.isEmpty() ? null : contentType,
+                value.substring(contentTypeEnd + 1)
+        );
+    }
+
+    /**
+     * @param status 0이라면 처리 중
+     */
+    public record StoredResponse(int status, String contentType, String body) {
+        public static final StoredResponse PENDING = new StoredResponse(0, null, null);
+
+        public boolean isPending() {
+            return status == 0;
+        }
+    }
+}
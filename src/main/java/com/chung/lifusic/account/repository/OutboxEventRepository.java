@@ -0,0 +1,24 @@
+package com.chung.lifusic.account.repository;
+
+import com.chung.lifusic.account.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * 발행할 이벤트를 유저별 순번 순서대로 가져온다. 여러 서버가 동시에 같은 이벤트를 발행하지 않도록 잠근다.
+     * 같은 유저의 이벤트는 앞 순번이 커밋된 뒤에 저장되므로, 보이는 이벤트는 항상 유저별로 앞 순번부터 이어진다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e order by e.userId, e.userSequence, e.id")
+    List<OutboxEvent> findBatchForUpdate(Pageable pageable);
+
+    // 가장 오래된 미발행 이벤트 (발행 지연 측정용)
+    Optional<OutboxEvent> findFirstByOrderByCreatedDateAsc();
+}
@@ -0,0 +1,149 @@
+package com.chung.lifusic.account.repository;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.entity.User;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 샤드를 고려하는 유저 저장소. 이메일로 샤드를 정한 뒤 UserRepository를 호출한다.
+ * 재샤딩 중에는 새 배치 기준 샤드에서 찾지 못한 유저를 이전 배치 기준 샤드에서 다시 찾는다.
+ * 트랜잭션 안에서는 첫 쿼리의 샤드 커넥션을 계속 사용하므로 다른 샤드에서 다시 찾을 수 없다.
+ * 그래서 트랜잭션 안에서는 현재 샤드(ShardContext)에서만 실행하며, 호출한 쪽이 트랜잭션 밖에서 shardOf로 유저의 샤드를 정해
+ * 그 샤드에서 트랜잭션을 시작해야 한다.
+ * 샤딩을 사용하지 않으면 UserRepository를 그대로 호출하는 것과 같다.
+ */
+@Repository
+public class ShardedUserRepository {
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final Executor executor;
+
+    public ShardedUserRepository(
+            UserRepository userRepository,
+            ShardRouter shardRouter,
+            @Qualifier("shardQueryExecutor") Executor executor
+    ) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.executor = executor;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return onEmailShard(email, userRepository::findByEmail, Optional::isPresent);
+    }
+
+    public boolean existsByEmail(String email) {
+        return onEmailShard(email, userRepository::existsByEmail, exists -> exists);
+    }
+
+    /**
+     * 유저가 지금 저장되어 있는 샤드. 재샤딩 중 아직 옮겨지지 않은 유저라면 이전 배치 기준 샤드이고,
+     * 어느 샤드에도 없다면 새로 저장될 샤드(새 배치 기준)이다.
+     * 샤드마다 따로 조회해야 하므로 트랜잭션 밖에서 호출해야 한다.
+     */
+    public int shardOf(String email) {
+        final int shard = shardRouter.shardForEmail(email);
+        final int previousShard = shardRouter.previousShardForEmail(email);
+        if (previousShard < 0 || previousShard == shard) {
+            return shard;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("shardOf must be called outside a transaction");
+        }
+        if (shardRouter.callOn(shard, () -> userRepository.existsByEmail(email))) {
+            return shard;
+        }
+        return shardRouter.callOn(previousShard, () -> userRepository.existsByEmail(email)) ? previousShard : shard;
+    }
+
+    /**
+     * 새 배치 기준 샤드에 저장한다. 이메일 중복(unique 제약) 오류가 호출한 곳에서 드러나도록 바로 flush 한다.
+     * 트랜잭션 안에서는 트랜잭션의 샤드에 저장한다. (shardOf로 정한 샤드)
+     */
+    public User save(User user) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return userRepository.saveAndFlush(user);
+        }
+        return shardRouter.callOn(shardRouter.shardForEmail(user.getEmail()), () -> userRepository.saveAndFlush(user));
+    }
+
+    // 비밀번호 해시 교체. 현재 해시가 previousPassword와 같을 때만 바꾼다.
+    public int updatePassword(User user, String previousPassword, String password) {
+        return onEmailShard(user.getEmail(),
+                email -> userRepository.updatePassword(user.getId(), previousPassword, password),
+                updated -> updated > 0);
+    }
+
+    /**
+     * 유저의 다음 outbox 이벤트 순번. 호출한 쪽의 트랜잭션이 끝날 때까지 유저 행이 잠긴다.
+     * 트랜잭션의 샤드에서 실행하므로, 트랜잭션은 shardOf로 정한 유저의 샤드에서 시작해야 한다.
+     * @return 유저가 없다면 null
+     */
+    public Long nextEventSequence(User user) {
+        return onEmailShard(user.getEmail(), email -> userRepository.incrementEventSequence(user.getId()) == 0
+                ? null
+                : userRepository.findEventSequence(user.getId()), Objects::nonNull);
+    }
+
+    /**
+     * 모든 샤드에서 afterId 보다 큰 id의 유저를 동시에 조회해 id 순서로 합친다. (관리자용 목록)
+     * 샤드마다 id 범위가 다르므로 id 기준 페이지네이션이 샤드 수와 상관 없이 유지된다.
+     */
+    public List<User> findAllAfter(long afterId, int size) {
+        final PageRequest page = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>(shardRouter.getShardCount());
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            final int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> shardRouter.callOn(target, () -> userRepository.findByIdGreaterThan(afterId, page)), executor));
+        }
+        List<User> users = new ArrayList<>();
+        for (CompletableFuture<List<User>> future : futures) {
+            users.addAll(future.join());
+        }
+        // 재샤딩 중 복사가 끝나고 삭제 전인 유저는 두 샤드에 있을 수 있으므로 id로 중복을 제거한다.
+        users.sort(Comparator.comparing(User::getId));
+        Map<Long, User> merged = new LinkedHashMap<>();
+        for (User user : users) {
+            if (merged.size() == size) {
+                break;
+            }
+            merged.putIfAbsent(user.getId(), user);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    // 이메일의 샤드에서 실행하고, 재샤딩 중 결과가 없다면 이전 배치 기준 샤드에서 다시 실행한다.
+    // 트랜잭션 안에서는 샤드를 바꿀 수 없으므로 트랜잭션의 샤드에서만 실행한다.
+    private <T> T onEmailShard(String email, Function<String, T> query, Predicate<T> found) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.apply(email);
+        }
+        final int shard = shardRouter.shardForEmail(email);
+        final T result = shardRouter.callOn(shard, () -> query.apply(email));
+        final int previousShard = shardRouter.previousShardForEmail(email);
+        if (found.test(result) || previousShard < 0 || previousShard == shard) {
+            return result;
+        }
+        return shardRouter.callOn(previousShard, () -> query.apply(email));
+    }
+}
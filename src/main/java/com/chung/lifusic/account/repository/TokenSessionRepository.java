@@ -0,0 +1,379 @@
+package com.chung.lifusic.account.repository;
+
+import com.chung.lifusic.account.entity.TokenSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 유저별 로그인 세션 저장소.
+ * 유저마다 하나의 Redis hash에 세션을 저장하고, 키와 값은 모두 고정 길이 바이너리다.
+ * - 키: 't' + 유저 id (8 bytes)                                   = 9 bytes
+ * - 필드: 세션 id(jti, 발급 시각 순서의 UUID)                        = 16 bytes
+ * - 값: 만료 시각 (epoch 초, 4 bytes) + 토큰 SHA-256 앞 8 bytes + 갱신 여부 (1 byte) = 13 bytes
+ *   (갱신 여부가 없는 12 bytes 값은 이전 버전에서 저장한 것으로, 갱신되지 않은 세션으로 본다)
+ * 발급 시각은 세션 id 앞 48bit에 들어있으므로 따로 저장하지 않는다.
+ * 발급, 갱신(저장 + 만료 세션 정리 + 세션 수 제한 + TTL)은 Lua 스크립트 하나, 검증은 HGET, 만료도 Lua 스크립트 하나로 끝난다.
+ * 세션을 지우는 메소드는 지운 세션 중 갱신되지 않은 세션의 발급 시각을 돌려준다. (활성 세션 통계에서 빼기 위함.
+ * 갱신된 세션은 갱신할 때 이미 뺐다)
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenSessionRepository {
+    private static final byte KEY_PREFIX = 't';
+    private static final int FINGERPRINT_BYTES = 8;
+    private static final int FINGERPRINT_END = Integer.BYTES + FINGERPRINT_BYTES; // 갱신 여부가 없는 이전 값의 길이
+    private static final int VALUE_BYTES = FINGERPRINT_END + 1;
+    private static final byte ROTATED = 1; // 새 토큰을 발급해서 grace 시간까지만 유효한 세션
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // 값의 만료 시각, 갱신 여부와 세션 id의 발급 시각(앞 48bit, epoch ms)을 읽는 함수
+    private static final String SCRIPT_FUNCTIONS = """
+            local function expiresAtOf(value)
+                local b1, b2, b3, b4 = string.byte(value, 1, 4)
+                return ((b1 * 256 + b2) * 256 + b3) * 256 + b4
+            end
+            local function isRotated(value)
+                return string.byte(value, 13) == 1
+            end
+            local function issuedAtOf(field)
+                local f1, f2, f3, f4, f5, f6 = string.byte(field, 1, 6)
+                return ((((f1 * 256 + f2) * 256 + f3) * 256 + f4) * 256 + f5) * 256 + f6
+            end
+            """;
+
+    /**
+     * KEYS[1]: 세션 키, ARGV[1]: 세션 id, ARGV[2]: 값, ARGV[3]: 현재 시각(epoch 초), ARGV[4]: 최대 세션 수
+     * 갱신인 경우 ARGV[5]: 이전 세션 id, ARGV[6]: 이전 세션의 새 값(grace 만료 시각 + 이전 토큰 지문 + 갱신됨)
+     * 1. 갱신이라면 이전 세션이 같은 토큰으로 아직 살아있는 지 확인하고, 만료 시각을 grace 만료 시각으로 줄이고 갱신됨으로 표시한다.
+     *    이미 갱신됨으로 표시된 세션이라면(동시에 온 다른 요청이 먼저 갱신함) 아무 것도 하지 않고 {0}을 반환한다.
+     *    남은 시간이 grace보다 짧은 세션도 한번은 갱신할 수 있도록, 만료 시각이 아니라 표시로 구분한다.
+     * 2. 새 세션을 저장하고, 만료된 세션을 지운 뒤, 그래도 최대 세션 수를 넘으면 오래된 세션부터 지운다.
+     *    새 세션과 갱신된 이전 세션은 지우지 않는다.
+     * 3. 키의 TTL은 가장 늦게 만료되는 세션에 맞춘다.
+     * @return {1, 삭제된 세션 중 갱신되지 않은 세션의 발급 시각...}. 갱신하지 않았다면 {0}
+     */
+    private static final DefaultRedisScript<List> SAVE_SCRIPT = new DefaultRedisScript<>(SCRIPT_FUNCTIONS + """
+            local key, sessionId = KEYS[1], ARGV[1]
+            local now, maxSessions = tonumber(ARGV[3]), tonumber(ARGV[4])
+            local previousId = ARGV[5]
+            if previousId then
+                local previous = redis.call('HGET', key, previousId)
+                if not previous or string.sub(previous, 5, 12) ~= string.sub(ARGV[6], 5, 12)
+                        or isRotated(previous) then
+                    return { 0 }
+                end
+                redis.call('HSET', key, previousId, ARGV[6])
+            end
+            redis.call('HSET', key, sessionId, ARGV[2])
+            local entries = redis.call('HGETALL', key)
+            local live, ended, maxExpiresAt = {}, { 1 }, 0
+            for i = 1, #entries, 2 do
+                local expiresAt = expiresAtOf(entries[i + 1])
+                if expiresAt <= now then
+                    redis.call('HDEL', key, entries[i])
+                    if not isRotated(entries[i + 1]) then
+                        ended[#ended + 1] = issuedAtOf(entries[i])
+                    end
+                else
+                    live[#live + 1] = { id = entries[i], issuedAt = issuedAtOf(entries[i]), rotated = isRotated(entries[i + 1]) }
+                    if expiresAt > maxExpiresAt then
+                        maxExpiresAt = expiresAt
+                    end
+                end
+            end
+            if #live > maxSessions then
+                table.sort(live, function(a, b) return a.issuedAt < b.issuedAt end)
+                local remaining = #live
+                for i = 1, #live do
+                    if remaining <= maxSessions then
+                        break
+                    end
+                    if live[i].id ~= sessionId and live[i].id ~= previousId then
+                        redis.call('HDEL', key, live[i].id)
+                        if not live[i].rotated then
+                            ended[#ended + 1] = live[i].issuedAt
+                        end
+                        remaining = remaining - 1
+                    end
+                end
+            end
+            if maxExpiresAt > 0 then
+                redis.call('EXPIREAT', key, maxExpiresAt)
+            end
+            return ended
+            """, List.class);
+
+    /**
+     * KEYS[1]: 세션 키, ARGV[1]: 세션 id
+     * @return 지우지 않았다면 {0}, 지웠다면 {1} 또는 갱신되지 않은 세션이었다면 {1, 발급 시각}
+     */
+    private static final DefaultRedisScript<List> DELETE_SCRIPT = new DefaultRedisScript<>(SCRIPT_FUNCTIONS + """
+            local value = redis.call('HGET', KEYS[1], ARGV[1])
+            if not value then
+                return { 0 }
+            end
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            if isRotated(value) then
+                return { 1 }
+            end
+            return { 1, issuedAtOf(ARGV[1]) }
+            """, List.class);
+
+    /**
+     * KEYS[1]: 세션 키
+     * @return {1, 지운 세션 중 갱신되지 않은 세션의 발급 시각...}
+     */
+    private static final DefaultRedisScript<List> DELETE_ALL_SCRIPT = new DefaultRedisScript<>(SCRIPT_FUNCTIONS + """
+            local entries = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            local ended = { 1 }
+            for i = 1, #entries, 2 do
+                if not isRotated(entries[i + 1]) then
+                    ended[#ended + 1] = issuedAtOf(entries[i])
+                end
+            end
+            return ended
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * 세션을 저장하고, 유저의 세션 수가 maxSessions를 넘으면 만료된 세션과 오래된 세션부터 삭제한다.
+     * @param token 발급한 토큰. 지문(SHA-256 앞 8 bytes)만 저장한다.
+     * @return 삭제된 세션 중 갱신되지 않은 세션의 발급 시각 (epoch ms)
+     */
+    public List<Long> save(long userId, TokenSession session, String token, int maxSessions) {
+        final byte[][] keysAndArgs = {
+                getKey(userId),
+                toBytes(session.sessionId()),
+                encodeValue(session.expiresAt(), token),
+                toAsciiBytes(System.currentTimeMillis() / 1000),
+                toAsciiBytes(maxSessions)
+        };
+        final List<Long> ended = eval(SAVE_SCRIPT, keysAndArgs);
+        return ended == null ? List.of() : ended;
+    }
+
+    /**
+     * 토큰 갱신. 이전 세션의 만료 시각을 graceUntil로 줄이고 새 세션을 저장한다. (한번의 스크립트 실행)
+     * 이전 세션이 없거나, 다른 토큰이거나, 이미 갱신된 경우에는 아무 것도 하지 않는다.
+     * @return 삭제된 세션 중 갱신되지 않은 세션의 발급 시각. 갱신하지 않았다면 null
+     */
+    public List<Long> renew(long userId, String previousSessionId, String previousToken,
+                            TokenSession session, String token, long graceUntil, int maxSessions) {
+        final byte[] previousField = toBytesOrNull(previousSessionId);
+        if (previousField == null) {
+            return null;
+        }
+        final byte[][] keysAndArgs = {
+                getKey(userId),
+                toBytes(session.sessionId()),
+                encodeValue(session.expiresAt(), token),
+                toAsciiBytes(System.currentTimeMillis() / 1000),
+                toAsciiBytes(maxSessions),
+                previousField,
+                encodeValue(graceUntil, previousToken, true)
+        };
+        return eval(SAVE_SCRIPT, keysAndArgs);
+    }
+
+    // 세션이 존재하고, 만료되지 않았고, 발급한 토큰과 같은 지 확인
+    public boolean isActive(long userId, String sessionId, String token) {
+        final byte[] field = toBytesOrNull(sessionId);
+        if (field == null) {
+            return false;
+        }
+        final byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.hashCommands().hGet(getKey(userId), field));
+        if (value == null || value.length < FINGERPRINT_END) {
+            return false;
+        }
+        if (Integer.toUnsignedLong(ByteBuffer.wrap(value).getInt()) * 1000 <= System.currentTimeMillis()) {
+            return false;
+        }
+        return MessageDigest.isEqual(fingerprint(token), Arrays.copyOfRange(value, Integer.BYTES, FINGERPRINT_END));
+    }
+
+    // 만료되지 않은 세션을 발급 순서대로 반환
+    public List<TokenSession> findAll(long userId) {
+        final long now = System.currentTimeMillis();
+        final Map<byte[], byte[]> entries = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                connection.hashCommands().hGetAll(getKey(userId)));
+        if (entries == null) {
+            return List.of();
+        }
+        List<TokenSession> sessions = new ArrayList<>(entries.size());
+        entries.forEach((field, value) -> {
+            if (field.length != 16 || value.length < FINGERPRINT_END) {
+                return;
+            }
+            final UUID sessionId = toUuid(field);
+            final TokenSession session = new TokenSession(
+                    sessionId.toString(),
+                    issuedAtOf(sessionId),
+                    Integer.toUnsignedLong(ByteBuffer.wrap(value).getInt()) * 1000
+            );
+            if (!session.isExpired(now)) {
+                sessions.add(session);
+            }
+        });
+        sessions.sort(Comparator.comparingLong(TokenSession::issuedAt));
+        return sessions;
+    }
+
+    /**
+     * 세션 하나 삭제
+     * @return 삭제한 세션이 갱신되지 않은 세션이었다면 그 발급 시각, 갱신된 세션이었다면 빈 목록. 삭제된 세션이 없다면 null
+     */
+    public List<Long> delete(long userId, String sessionId) {
+        final byte[] field = toBytesOrNull(sessionId);
+        if (field == null) {
+            return null;
+        }
+        return eval(DELETE_SCRIPT, new byte[][]{getKey(userId), field});
+    }
+
+    /**
+     * 유저의 모든 세션 삭제
+     * @return 삭제된 세션 중 갱신되지 않은 세션의 발급 시각
+     */
+    public List<Long> deleteAll(long userId) {
+        final List<Long> ended = eval(DELETE_ALL_SCRIPT, new byte[][]{getKey(userId)});
+        return ended == null ? List.of() : ended;
+    }
+
+    /**
+     * 발급 시각 순서로 정렬되는 세션 id. (UUID version 7)
+     * 앞 48bit는 발급 시각(epoch ms), 나머지는 난수
+     */
+    public static String newSessionId(long issuedAt) {
+        final long random = RANDOM.nextLong();
+        final long mostSigBits = (issuedAt << 16) | 0x7000 | (RANDOM.nextInt() & 0x0FFF);
+        final long leastSigBits = (random & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    static long issuedAtOf(UUID sessionId) {
+        return sessionId.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * 세션 id(jti)에 들어있는 발급 시각 (epoch ms)
+     * @return 세션 id 형식이 아니라면 -1
+     */
+    public static long issuedAtOf(String sessionId) {
+        try {
+            return issuedAtOf(UUID.fromString(sessionId));
+        } catch (IllegalArgumentException | NullPointerException exception) {
+            return -1;
+        }
+    }
+
+    /**
+     * 키 하나를 사용하는 스크립트를 실행한다. 스크립트는 {적용 여부(1, 0), 값...} 형식의 정수 배열을 반환한다.
+     * @return 적용했다면 나머지 값들, 적용하지 않았다면 null
+     */
+    private List<Long> eval(DefaultRedisScript<List> script, byte[][] keysAndArgs) {
+        final List<Object> result = redisTemplate.execute((RedisCallback<List<Object>>) connection -> evalMulti(connection, script, keysAndArgs));
+        if (result == null || result.isEmpty() || ((Number) result.get(0)).longValue() == 0) {
+            return null;
+        }
+        final List<Long> values = new ArrayList<>(result.size() - 1);
+        for (int i = 1; i < result.size(); i++) {
+            values.add(((Number) result.get(i)).longValue());
+        }
+        return values;
+    }
+
+    // EVALSHA로 실행하고, Redis에 스크립트가 없다면(재시작 등) EVAL로 다시 실행한다.
+    private static List<Object> evalMulti(RedisConnection connection, DefaultRedisScript<List> script, byte[][] keysAndArgs) {
+        try {
+            return connection.scriptingCommands().evalSha(script.getSha1(), ReturnType.MULTI, 1, keysAndArgs);
+        } catch (RuntimeException exception) {
+            if (!isNoScriptError(exception)) {
+                throw exception;
+            }
+            return connection.scriptingCommands().eval(
+                    script.getScriptAsString().getBytes(StandardCharsets.UTF_8), ReturnType.MULTI, 1, keysAndArgs);
+        }
+    }
+
+    private static boolean isNoScriptError(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] encodeValue(long expiresAt, String token) {
+        return encodeValue(expiresAt, token, false);
+    }
+
+    private static byte[] encodeValue(long expiresAt, String token, boolean rotated) {
+        return ByteBuffer.allocate(VALUE_BYTES)
+                .putInt((int) (expiresAt / 1000))
+                .put(fingerprint(token))
+                .put(rotated ? ROTATED : 0)
+                .array();
+    }
+
+    private static byte[] fingerprint(String token) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Arrays.copyOf(digest, FINGERPRINT_BYTES);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static byte[] getKey(long userId) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(KEY_PREFIX).putLong(userId).array();
+    }
+
+    private static byte[] toBytes(String sessionId) {
+        final UUID uuid = UUID.fromString(sessionId);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    // 잘못된 형식의 세션 id(외부 입력)라면 null
+    private static byte[] toBytesOrNull(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        try {
+            return toBytes(sessionId);
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static UUID toUuid(byte[] field) {
+        final ByteBuffer buffer = ByteBuffer.wrap(field);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] toAsciiBytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
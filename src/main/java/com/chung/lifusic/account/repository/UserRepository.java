@@ -1,10 +1,34 @@
 package com.chung.lifusic.account.repository;
 
 import com.chung.lifusic.account.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    List<User> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // 비밀번호 해시 교체. 현재 해시가 previousPassword와 같을 때만 바꾼다.
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id and u.password = :previousPassword")
+    int updatePassword(@Param("id") Long id, @Param("previousPassword") String previousPassword, @Param("password") String password);
+
+    // outbox 이벤트 순번 증가. 유저 행을 잠그므로 같은 유저의 이벤트 저장은 트랜잭션 단위로 직렬화된다.
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.eventSequence = coalesce(u.eventSequence, 0) + 1 where u.id = :id")
+    int incrementEventSequence(@Param("id") Long id);
+
+    @Query("select u.eventSequence from User u where u.id = :id")
+    Long findEventSequence(@Param("id") Long id);
 }
@@ -0,0 +1,221 @@
+package com.chung.lifusic.account.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 응답 시간으로 동시 처리 수 한도를 조절한다. (gradient 방식)
+ * - window_ms 동안의 평균 응답 시간(short)과 그 장기 평균(long)을 우선순위별로 비교한다.
+ *   엔드포인트마다 응답 시간이 크게 다르므로(로그인은 비밀번호 검증으로 수십 ms 이상) 한 평균으로 합치면
+ *   요청 구성이 바뀌기만 해도(로그인이 몰림) 느려진 것으로 보고 /me 등의 한도까지 줄이게 된다.
+ * - 우선순위별 long / short 비율(gradient)을 샘플 수로 가중 평균해서, short가 long의 tolerance배 보다 느려지면
+ *   비율만큼 한도를 줄이고, 그렇지 않으면 sqrt(limit) 만큼 늘린다.
+ * - 한도를 넘는 요청은 기다리지 않고 바로 거절한다.
+ * 우선순위별로 한도 중 사용할 수 있는 비율이 다르므로, 몰리면 SHEDDABLE -> NORMAL -> CRITICAL 순으로 거절된다.
+ * 서버마다 따로 계산한다.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    private static final int LONG_WINDOW = 600; // long 평균에 반영되는 window 수
+    private static final double MIN_GRADIENT = 0.5; // 한번에 최대 절반까지 줄인다.
+
+    public enum Priority {
+        CRITICAL(1.0), // 토큰 검증(/me, 내부 프로토콜). 한도 전체 사용
+        NORMAL(0.9), // 로그인, 로그아웃, 세션 조회 등
+        SHEDDABLE(0.6); // 회원가입, 관리자 기능. 가장 먼저 거절
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private volatile double limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // 현재 window의 샘플. record()에서 lock을 잡고 갱신한다. 응답 시간은 우선순위(ordinal)별로 모은다.
+    private long windowStartedAt;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private final long[] windowRttSums = new long[Priority.values().length];
+    private final int[] windowPrioritySamples = new int[Priority.values().length];
+    private final double[] longRtts = new double[Priority.values().length];
+
+    private final Map<Priority, Counter> rejectedCounters = new EnumMap<>(Priority.class);
+    private final Counter increaseCounter;
+    private final Counter decreaseCounter;
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${concurrency_limit.enabled}") boolean enabled,
+            @Value("${concurrency_limit.initial_limit}") int initialLimit,
+            @Value("${concurrency_limit.min_limit}") int minLimit,
+            @Value("${concurrency_limit.max_limit}") int maxLimit,
+            @Value("${concurrency_limit.tolerance}") double tolerance,
+            @Value("${concurrency_limit.smoothing}") double smoothing,
+            @Value("${concurrency_limit.window_ms}") long windowMillis,
+            @Value("${concurrency_limit.min_window_samples}") int minWindowSamples,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        for (Priority priority : Priority.values()) {
+            rejectedCounters.put(priority,
+                    meterRegistry.counter("concurrency_limit.rejected", "priority", priority.name().toLowerCase()));
+        }
+        this.increaseCounter = meterRegistry.counter("concurrency_limit.changes", "direction", "increase");
+        this.decreaseCounter = meterRegistry.counter("concurrency_limit.changes", "direction", "decrease");
+        Gauge.builder("concurrency_limit.limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("concurrency_limit.in_flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * @return 처리할 수 있다면 Permit. 요청이 끝나면 반드시 release 해야 한다. 한도를 넘었다면 null
+     */
+    public Permit tryAcquire(Priority priority) {
+        return tryAcquire(priority, System.nanoTime());
+    }
+
+    Permit tryAcquire(Priority priority, long nowNanos) {
+        if (!enabled) {
+            return new Permit(priority, nowNanos);
+        }
+        final int priorityLimit = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= priorityLimit) {
+                rejectedCounters.get(priority).increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(priority, nowNanos);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void record(Priority priority, long rttNanos, int inFlightAtStart, long nowNanos) {
+        if (windowSamples == 0) {
+            windowStartedAt = nowNanos - rttNanos; // window는 첫 샘플 요청의 시작 시각부터
+        }
+        windowRttSums[priority.ordinal()] += rttNanos;
+        windowPrioritySamples[priority.ordinal()]++;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        if (nowNanos - windowStartedAt < windowNanos || windowSamples < minWindowSamples) {
+            return;
+        }
+        double weightedGradient = 0;
+        for (int i = 0; i < longRtts.length; i++) {
+            if (windowPrioritySamples[i] == 0) {
+                continue;
+            }
+            final double shortRtt = (double) windowRttSums[i] / windowPrioritySamples[i];
+            weightedGradient += gradientOf(i, shortRtt) * windowPrioritySamples[i];
+            windowRttSums[i] = 0;
+            windowPrioritySamples[i] = 0;
+        }
+        final double gradient = weightedGradient / windowSamples;
+        final int maxInFlight = windowMaxInFlight;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        updateLimit(gradient, maxInFlight);
+    }
+
+    // 우선순위 하나의 short 평균을 long 평균에 반영하고, 그 우선순위의 gradient를 구한다.
+    private double gradientOf(int priority, double shortRtt) {
+        double longRtt = longRtts[priority];
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+        // 느려졌다가 회복된 경우 long 평균이 높게 남아 한도를 줄이지 못하므로 빠르게 낮춘다.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        longRtts[priority] = longRtt;
+        return Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+    }
+
+    private void updateLimit(double gradient, int maxInFlight) {
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // 한도의 절반도 쓰지 않았다면 늘리지 않는다. (트래픽이 적어서 빠른 것일 수 있음)
+        if (newLimit > limit && maxInFlight < limit / 2) {
+            return;
+        }
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) newLimit > (int) limit) {
+            increaseCounter.increment();
+        } else if ((int) newLimit < (int) limit) {
+            decreaseCounter.increment();
+            log.info("AdaptiveConcurrencyLimiter:: limit decreased {} -> {}. gradient: {}",
+                    (int) limit, (int) newLimit, String.format("%.2f", gradient));
+        }
+        limit = newLimit;
+    }
+
+    public final class Permit {
+        private final Priority priority;
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private boolean released = false;
+
+        private Permit(Priority priority, long startedAt) {
+            this.priority = priority;
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        // 요청이 처리된 경우. 응답 시간을 한도 계산에 반영한다.
+        public void release() {
+            release(System.nanoTime());
+        }
+
+        void release(long nowNanos) {
+            if (!enabled || released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            record(priority, nowNanos - startedAt, inFlightAtStart, nowNanos);
+        }
+
+        // 예외 등으로 끝난 경우. 응답 시간은 반영하지 않는다.
+        public void releaseWithoutSample() {
+            if (!enabled || released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+        }
+    }
+}
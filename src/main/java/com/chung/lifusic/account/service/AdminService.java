@@ -0,0 +1,69 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Constants;
+import com.chung.lifusic.account.common.exception.CustomException;
+import com.chung.lifusic.account.dto.AuthAnalyticsResponse;
+import com.chung.lifusic.account.dto.GetUserResponse;
+import com.chung.lifusic.account.dto.JfrRecordingResponse;
+import com.chung.lifusic.account.dto.ShardBackfillResponse;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class AdminService {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ShardedUserRepository userRepository;
+    private final ShardBackfillService shardBackfillService;
+    private final JfrRecordingService jfrRecordingService;
+    private final AuthAnalyticsService authAnalyticsService;
+
+    // 모든 샤드의 유저 목록. afterId 다음 유저부터 id 순서로 size 만큼 반환한다.
+    public List<GetUserResponse> getUsers(long afterId, int size) {
+        return userRepository.findAllAfter(afterId, Math.max(1, Math.min(size, MAX_PAGE_SIZE))).stream()
+                .map(user -> GetUserResponse.builder()
+                        .id(user.getId())
+                        .email(user.getEmail())
+                        .name(user.getName())
+                        .role(user.getRole().name().toLowerCase())
+                        .build())
+                .toList();
+    }
+
+    public ShardBackfillResponse startShardBackfill() throws CustomException {
+        if (!shardBackfillService.start()) {
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.CONFLICT, "Backfill is already running");
+        }
+        return shardBackfillService.getStatus();
+    }
+
+    public ShardBackfillResponse getShardBackfillStatus() {
+        return shardBackfillService.getStatus();
+    }
+
+    public AuthAnalyticsResponse getAuthAnalytics() {
+        return authAnalyticsService.getSummary();
+    }
+
+    public JfrRecordingResponse startJfrRecording(String profile, long durationSeconds, long thresholdMs) throws CustomException {
+        return jfrRecordingService.start(profile, durationSeconds, thresholdMs);
+    }
+
+    public JfrRecordingResponse stopJfrRecording() throws CustomException {
+        return jfrRecordingService.stop();
+    }
+
+    public JfrRecordingResponse getJfrRecordingStatus() {
+        return jfrRecordingService.getStatus();
+    }
+
+    public Path getJfrRecordingFile() throws CustomException {
+        return jfrRecordingService.getRecordingFile();
+    }
+}
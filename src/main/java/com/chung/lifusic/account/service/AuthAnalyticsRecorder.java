@@ -0,0 +1,18 @@
+package com.chung.lifusic.account.service;
+
+import java.util.List;
+
+/**
+ * 토큰 발급, 갱신, 세션 삭제를 통계에 기록한다. (JwtService가 사용)
+ * 워밍업처럼 통계에 남기지 않아야 하는 경우에는 아무 것도 하지 않는 구현을 넘긴다.
+ */
+public interface AuthAnalyticsRecorder {
+    // 로그인해서 새 세션이 발급됨
+    void recordLogin(long userId);
+
+    // 토큰 갱신으로 이전 세션이 새 세션으로 바뀜
+    void recordRenewal(long userId, String previousSessionId);
+
+    // 로그아웃, 만료 정리, 최대 세션 수 초과로 세션이 삭제됨. 발급 시각(epoch ms)은 TokenSessionRepository가 돌려준 값
+    void recordSessionsEnded(List<Long> issuedAts);
+}
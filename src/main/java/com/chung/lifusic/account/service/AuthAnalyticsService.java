@@ -0,0 +1,107 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.dto.AuthAnalyticsResponse;
+import com.chung.lifusic.account.repository.AuthAnalyticsRepository;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 로그인, 세션 통계. (관리자 API)
+ * 로그인, 토큰 갱신, 로그아웃 때 AuthAnalyticsRepository의 카운터를 백그라운드에서 갱신하므로 요청은 Redis 저장을 기다리지 않는다.
+ * 큐가 가득 찼거나 저장에 실패한 기록은 버린다.
+ * 활성 세션 수는 토큰 수명 안에 발급된 세션 수에서 갱신, 로그아웃, 전체 로그아웃, 만료 정리, 최대 세션 수 초과로 삭제된 세션 수를 뺀 값이다.
+ * 세션 키가 TTL로 사라지거나 expiry jitter로 일찍 만료됐지만 아직 정리되지 않은 세션은 빼지 않으므로,
+ * 최대 expiry_jitter_ms + 1시간(카운터 구간) 동안 실제보다 많게 셀 수 있는 근사값이다.
+ */
+@Service
+@Slf4j
+public class AuthAnalyticsService implements AuthAnalyticsRecorder {
+    private static final long MINUTE_MS = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+
+    private final AuthAnalyticsRepository authAnalyticsRepository;
+    private final Executor executor;
+
+    @Value("${analytics.enabled}")
+    private boolean ENABLED;
+
+    @Value("${analytics.counter_shards}")
+    private int COUNTER_SHARDS; // 카운터를 나눠 저장할 키 수
+
+    @Value("${security.jwt.expired_after_ms}")
+    private long SESSION_LIFETIME_MS;
+
+    public AuthAnalyticsService(
+            AuthAnalyticsRepository authAnalyticsRepository,
+            @Qualifier("analyticsExecutor") Executor executor
+    ) {
+        this.authAnalyticsRepository = authAnalyticsRepository;
+        this.executor = executor;
+    }
+
+    @Override
+    public void recordLogin(long userId) {
+        final long now = System.currentTimeMillis();
+        submit(() -> authAnalyticsRepository.recordLogin(userId, now, shard(), SESSION_LIFETIME_MS));
+    }
+
+    @Override
+    public void recordRenewal(long userId, String previousSessionId) {
+        final long now = System.currentTimeMillis();
+        final long previousIssuedAt = TokenSessionRepository.issuedAtOf(previousSessionId);
+        if (previousIssuedAt < 0) {
+            return;
+        }
+        submit(() -> authAnalyticsRepository.recordRenewal(userId, now, previousIssuedAt, shard(), SESSION_LIFETIME_MS));
+    }
+
+    @Override
+    public void recordSessionsEnded(List<Long> issuedAts) {
+        // 집계 구간을 벗어난 세션은 이미 세지 않으므로 빼지 않는다. (지난 카운터 키를 다시 만들지 않도록)
+        final long countedFrom = System.currentTimeMillis() - SESSION_LIFETIME_MS - HOUR_MS;
+        final List<Long> counted = issuedAts.stream().filter(issuedAt -> issuedAt >= countedFrom).toList();
+        if (counted.isEmpty()) {
+            return;
+        }
+        submit(() -> authAnalyticsRepository.recordSessionsEnded(counted, shard(), SESSION_LIFETIME_MS));
+    }
+
+    public AuthAnalyticsResponse getSummary() {
+        final long now = System.currentTimeMillis();
+        return AuthAnalyticsResponse.builder()
+                .activeSessions(Math.max(0, authAnalyticsRepository.sumSessions(now - SESSION_LIFETIME_MS, now, COUNTER_SHARDS)))
+                .dailyActiveUsers(authAnalyticsRepository.countDailyActiveUsers(now))
+                .hourlyActiveUsers(authAnalyticsRepository.countHourlyActiveUsers(now, now))
+                .activeUsersLast24Hours(authAnalyticsRepository.countHourlyActiveUsers(now - 23 * HOUR_MS, now))
+                .loginsLastMinute(authAnalyticsRepository.sumLogins(now - MINUTE_MS, now - MINUTE_MS, COUNTER_SHARDS))
+                .loginsLastHour(authAnalyticsRepository.sumLogins(now - 59 * MINUTE_MS, now, COUNTER_SHARDS))
+                .generatedAt(Instant.ofEpochMilli(now))
+                .build();
+    }
+
+    private void submit(Runnable task) {
+        if (!ENABLED) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception exception) {
+                log.warn("AuthAnalyticsService:: record failed: {}", exception.getMessage());
+            }
+        });
+    }
+
+    private int shard() {
+        return COUNTER_SHARDS <= 1 ? 0 : ThreadLocalRandom.current().nextInt(COUNTER_SHARDS);
+    }
+}
@@ -3,10 +3,12 @@ package com.chung.lifusic.account.service;
 import com.chung.lifusic.account.common.Constants;
 import com.chung.lifusic.account.common.exception.CustomException;
 import com.chung.lifusic.account.dto.*;
+import com.chung.lifusic.account.common.OutboxEventType;
 import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.config.ShardRouter;
 import com.chung.lifusic.account.entity.User;
-import com.chung.lifusic.account.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,18 +16,68 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 public class AuthenticationService{
-    private final UserRepository userRepository;
+    private final ShardedUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final OutboxService outboxService;
+    private final LoginHistoryService loginHistoryService;
+    private final EmailExistenceFilter emailExistenceFilter;
+    private final RequestRateLimiter requestRateLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public AuthenticationService(
+            ShardedUserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            JwtService jwtService,
+            AuthenticationManager authenticationManager,
+            PasswordUpgradeService passwordUpgradeService,
+            OutboxService outboxService,
+            LoginHistoryService loginHistoryService,
+            EmailExistenceFilter emailExistenceFilter,
+            RequestRateLimiter requestRateLimiter,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.authenticationManager = authenticationManager;
+        this.passwordUpgradeService = passwordUpgradeService;
+        this.outboxService = outboxService;
+        this.loginHistoryService = loginHistoryService;
+        this.emailExistenceFilter = emailExistenceFilter;
+        this.requestRateLimiter = requestRateLimiter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * 유저 저장과 이벤트(outbox) 저장은 새 배치 기준 샤드에서 하나의 트랜잭션으로 처리한다.
+     * 중복 확인은 재샤딩 중 이전 샤드에 남아 있는 유저도 찾을 수 있도록 트랜잭션 밖에서 한다.
+     */
     public CommonResponse register(RegisterRequest request) throws Exception {
-        User prevUser = userRepository.findByEmail(request.getEmail()).orElseGet(() -> null);
-        if (prevUser != null) {
-            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.BAD_REQUEST, "User already Exists");
+        // 필터에 없는 이메일은 확실히 가입되지 않은 이메일이므로 DB 조회를 생략한다.
+        if (emailExistenceFilter.mightContain(request.getEmail())) {
+            User prevUser = userRepository.findByEmail(request.getEmail()).orElseGet(() -> null);
+            if (prevUser != null) {
+                throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.BAD_REQUEST, "User already Exists");
+            }
         }
 
         Role role;
@@ -36,16 +88,29 @@ public class AuthenticationService{
         }
 
         // 회원가입을 위해 유저를 db에 등록
-        User user = User.builder()
+        final User newUser = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword())) // 비밀번호 인코딩
                 .role(role)
                 .build();
-        userRepository.save(user);
-        return CommonResponse.builder()
-                .success(true)
-                .build();
+        final User user;
+        try {
+            user = inTransactionOn(shardRouter.shardForEmail(newUser.getEmail()), status -> {
+                final User saved = userRepository.save(newUser);
+                outboxService.append(OutboxEventType.USER_REGISTERED, saved, eventPayload(
+                        "email", saved.getEmail(),
+                        "name", saved.getName(),
+                        "role", saved.getRole().name()
+                ));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException exception) {
+            // 필터가 "없음"으로 판단했지만 이미 가입된 이메일 (email unique 제약)
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.BAD_REQUEST, "User already Exists");
+        }
+        emailExistenceFilter.add(user.getEmail());
+        return CommonResponse.SUCCESS;
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
@@ -59,13 +124,35 @@ public class AuthenticationService{
 
         // 인증 성공 시
         User user = userRepository.findByEmail(request.getEmail()).orElseThrow();
+        // 로그인 기록은 큐에 넣고 바로 반환 (실패 기록은 LoginHistoryService가 인증 실패 이벤트로 받는다)
+        loginHistoryService.recordSuccess(user);
+        // 저장된 비밀번호 해시가 현재 설정보다 약하다면 백그라운드에서 다시 해싱
+        passwordUpgradeService.upgradeIfNeeded(user, request.getPassword());
         String jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
                 .token(jwtToken)
                 .build();
     }
 
-    // 로그아웃
+    // 가입 가능한 이메일인 지 확인. 입력할 때마다 호출되므로 클라이언트별로 요청 수를 제한한다.
+    public EmailAvailabilityResponse checkEmailAvailable(String email, String clientIp) throws CustomException {
+        if (!requestRateLimiter.tryAcquire(clientIp)) {
+            throw new CustomException(Constants.ExceptionType.RATE_LIMIT, HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+        }
+        if (email == null || email.isBlank()) {
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.BAD_REQUEST, "Email is required");
+        }
+        final boolean available = !emailExistenceFilter.mightContain(email) || !userRepository.existsByEmail(email);
+        return EmailAvailabilityResponse.builder()
+                .available(available)
+                .build();
+    }
+
+    /**
+     * 로그아웃. 세션을 먼저 만료시키고(Redis), 만료시킨 세션이 있을 때만 이벤트(outbox)를 저장한다.
+     * 이벤트 저장 트랜잭션은 유저 행을 잠그므로, Redis 왕복이 잠금 시간에 포함되지 않도록 트랜잭션 밖에서 만료시킨다.
+     * 세션 만료 후 이벤트 저장에 실패하면 세션은 만료된 채로 예외를 던진다.
+     */
     public CommonResponse logout() throws CustomException {
         final CustomException exception = new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.NOT_FOUND, "Error occurred");
         // Context에 저장되어있는 사용자 정보를 꺼낸다
@@ -78,21 +165,82 @@ public class AuthenticationService{
         if (!(principal instanceof User user)) {
             throw exception;
         }
-        jwtService.expireToken(user.getEmail());
+        // 현재 요청에 사용된 토큰의 세션만 만료시킨다.
+        if (!(authentication.getCredentials() instanceof String sessionId)) {
+            throw exception;
+        }
+        // 만료시킬 세션이 없었다면(이미 만료됨) 이벤트를 남기지 않는다.
+        if (jwtService.expireSession(user.getId(), sessionId)) {
+            appendLogoutEvent(user, sessionId);
+        }
 
-        return CommonResponse.builder()
-                .success(true)
-                .build();
+        return CommonResponse.SUCCESS;
     }
 
-
-    public GetUserResponse getUser() {
+    // 로그인 되어있는 세션 목록
+    public List<SessionResponse> getSessions() throws CustomException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) {
+        User user = getAuthenticatedUser();
+        if (user == null) {
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.NOT_FOUND, "Error occurred");
+        }
+        final Object currentSessionId = authentication.getCredentials();
+        return jwtService.getSessions(user.getId()).stream()
+                .map(session -> SessionResponse.builder()
+                        .sessionId(session.sessionId())
+                        .issuedAt(Instant.ofEpochMilli(session.issuedAt()))
+                        .expiresAt(Instant.ofEpochMilli(session.expiresAt()))
+                        .current(session.sessionId().equals(currentSessionId))
+                        .build())
+                .toList();
+    }
+
+    // 특정 세션 만료 (다른 기기 로그아웃). logout과 같이 세션을 만료시킨 뒤 이벤트를 저장한다. 없는 세션이라면 이벤트를 남기지 않는다.
+    public CommonResponse revokeSession(String sessionId) throws CustomException {
+        User user = getAuthenticatedUser();
+        if (user == null) {
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.NOT_FOUND, "Error occurred");
+        }
+        if (!jwtService.expireSession(user.getId(), sessionId)) {
+            throw new CustomException(Constants.ExceptionType.AUTHENTICATION, HttpStatus.NOT_FOUND, "Session not found");
+        }
+        appendLogoutEvent(user, sessionId);
+        return CommonResponse.SUCCESS;
+    }
+
+    /**
+     * 로그아웃 이벤트만 저장하는 짧은 트랜잭션. 유저 행 잠금은 이 트랜잭션의 DB 쿼리 동안만 유지된다.
+     * 재샤딩 중 아직 옮겨지지 않은 유저는 이전 샤드에 있으므로, 트랜잭션 밖에서 유저의 샤드를 찾은 뒤 그 샤드에서 저장한다.
+     * (찾은 뒤 저장 전에 백필이 유저를 옮겼다면 유저를 찾지 못해 실패한다)
+     */
+    private void appendLogoutEvent(User user, String sessionId) {
+        inTransactionOn(userRepository.shardOf(user.getEmail()), status -> {
+            outboxService.append(OutboxEventType.USER_LOGGED_OUT, user, eventPayload(
+                    "email", user.getEmail(),
+                    "sessionId", sessionId
+            ));
             return null;
+        });
+    }
+
+    // shard에서 트랜잭션을 시작한다. 커넥션은 첫 쿼리에서 가져오므로 트랜잭션 안의 쿼리는 모두 이 샤드에서 실행된다.
+    private <T> T inTransactionOn(int shard, TransactionCallback<T> action) {
+        return shardRouter.callOn(shard, () -> transactionTemplate.execute(action));
+    }
+
+    // key, value 순서로 받아 이벤트 내용을 만든다. (Map.of와 달리 null 값 허용)
+    private static Map<String, Object> eventPayload(Object... keyValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            payload.put((String) keyValues[i], keyValues[i + 1]);
         }
-        Object principal = authentication.getPrincipal();
-        if (!(principal instanceof User user)) {
+        return payload;
+    }
+
+
+    public GetUserResponse getUser() {
+        User user = getAuthenticatedUser();
+        if (user == null) {
             return null;
         }
         String role = user.getRole().name().toLowerCase();
@@ -104,4 +252,31 @@ public class AuthenticationService{
                 .build();
     }
 
+    /**
+     * 인증된 유저 정보의 ETag. 유저 id와 마지막 수정 시각으로 만들기 때문에
+     * 유저 정보가 바뀌지 않았다면 항상 같은 값을 반환한다.
+     * @return 따옴표로 감싼 strong ETag, 인증 정보가 없으면 null
+     */
+    public String getUserETag() {
+        User user = getAuthenticatedUser();
+        if (user == null) {
+            return null;
+        }
+        final String version = user.getId() + ":" + user.getUpdatedDate();
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Context에 저장되어있는 사용자 정보를 꺼낸다
+    private User getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (!(principal instanceof User user)) {
+            return null;
+        }
+        return user;
+    }
+
 }
@@ -0,0 +1,212 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 고정 레이아웃의 바이너리 액세스 토큰. (security.token.format: compact)
+ * JWT(JSON 헤더, 본문 + HS256 서명)보다 작고, 검증할 때 JSON 파싱 없이 정해진 위치의 값을 읽는다.
+ * 아래 바이트들(big endian)을 URL-safe Base64(패딩 없음)로 인코딩한다. '.'이 없으므로 JWT와 구분된다.
+ * - 버전 (1) | key id (1) | 유저 id (8) | 권한 (1) | 발급 시각 epoch 초 (4) | 만료 시각 epoch 초 (4) | 세션 id (16)
+ * - 이메일 길이 (1) | 이메일 (UTF-8, 최대 255 bytes)
+ * - 앞의 모든 바이트에 대한 HMAC-SHA256 앞 16 bytes
+ * 유저는 이메일로 샤드를 찾아 조회하므로 이메일도 토큰에 넣는다.
+ * 디코딩은 스레드별 버퍼와 Mac을 재사용하므로 결과(TokenClaims와 문자열) 외에는 할당하지 않는다.
+ * 서명은 한 key id로만 하고, 검증은 등록된 모든 key id를 받는다. (키 교체 중 이전 키로 서명된 토큰도 검증)
+ */
+public final class CompactTokenCodec {
+    public static final byte VERSION = 1;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] KEY_LABEL = "lifusic-compact-token".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAC_BYTES = 32;
+    private static final int TAG_BYTES = 16; // 128bit
+    private static final int SUBJECT_LENGTH_OFFSET = 35;
+    private static final int HEADER_BYTES = SUBJECT_LENGTH_OFFSET + 1;
+    private static final int MAX_SUBJECT_BYTES = 255;
+    private static final int MAX_TOKEN_BYTES = HEADER_BYTES + MAX_SUBJECT_BYTES + TAG_BYTES;
+    private static final int MAX_TOKEN_LENGTH = (MAX_TOKEN_BYTES * 4 + 2) / 3;
+    private static final Role[] ROLES = Role.values(); // 권한은 Role 순서(ordinal)로 저장하므로 순서를 바꾸면 안 된다.
+    private static final byte[] BASE64_URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_URL, (byte) -1);
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private static final int KEY_IDS = 256;
+
+    private final SecretKeySpec[] keys = new SecretKeySpec[KEY_IDS]; // key id -> 파생한 서명 키. 등록되지 않은 id는 null
+    private final byte signingKeyId;
+    private final ThreadLocal<Mac[]> macs = ThreadLocal.withInitial(() -> new Mac[KEY_IDS]);
+    // 디코딩한 토큰 + 계산한 MAC
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[MAX_TOKEN_BYTES + MAC_BYTES]);
+
+    /**
+     * @param secret 서명 키. JWT 서명 키와 같은 값을 쓰더라도 label로 파생한 별도 키로 서명한다.
+     * @param keyId 토큰에 기록하는 키 번호 (0 ~ 255). 다른 번호로 서명된 토큰은 거절한다.
+     */
+    public CompactTokenCodec(byte[] secret, int keyId) {
+        this(Map.of(keyId, secret), keyId);
+    }
+
+    /**
+     * @param secrets 검증에 사용할 key id(0 ~ 255)별 서명 키
+     * @param signingKeyId 새 토큰을 서명할 key id. secrets에 있어야 한다.
+     */
+    public CompactTokenCodec(Map<Integer, byte[]> secrets, int signingKeyId) {
+        secrets.forEach((keyId, secret) -> {
+            if (keyId < 0 || keyId >= KEY_IDS) {
+                throw new IllegalArgumentException("Key id must be between 0 and 255: " + keyId);
+            }
+            keys[keyId] = deriveKey(secret);
+        });
+        if (signingKeyId < 0 || signingKeyId >= KEY_IDS || keys[signingKeyId] == null) {
+            throw new IllegalArgumentException("No secret for signing key id: " + signingKeyId);
+        }
+        this.signingKeyId = (byte) signingKeyId;
+    }
+
+    /**
+     * @return 토큰. 이메일이 255 bytes를 넘어 담을 수 없다면 null
+     */
+    public String encode(TokenClaims claims) {
+        final byte[] subject = claims.subject().getBytes(StandardCharsets.UTF_8);
+        if (subject.length > MAX_SUBJECT_BYTES) {
+            return null;
+        }
+        final UUID sessionId = UUID.fromString(claims.sessionId());
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + subject.length + TAG_BYTES)
+                .put(VERSION)
+                .put(signingKeyId)
+                .putLong(claims.userId())
+                .put(claims.role() == null ? -1 : (byte) claims.role().ordinal())
+                .putInt((int) (claims.issuedAt() / 1000))
+                .putInt((int) (claims.expiresAt() / 1000))
+                .putLong(sessionId.getMostSignificantBits())
+                .putLong(sessionId.getLeastSignificantBits())
+                .put((byte) subject.length)
+                .put(subject);
+        final Mac mac = macFor(signingKeyId & 0xFF);
+        mac.update(buffer.array(), 0, buffer.position());
+        buffer.put(mac.doFinal(), 0, TAG_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 서명을 확인하고 값을 읽는다. 만료 여부는 확인하지 않는다.
+     * @return 형식이 맞지 않거나, 등록되지 않은 키로 서명되었거나, 변조된 토큰이라면 null
+     */
+    public TokenClaims decode(String token) {
+        final int length = token.length();
+        if (length > MAX_TOKEN_LENGTH || length % 4 == 1) {
+            return null;
+        }
+        final byte[] buffer = buffers.get();
+        final int size = decodeBase64Url(token, buffer);
+        if (size < HEADER_BYTES + TAG_BYTES || buffer[0] != VERSION || keys[buffer[1] & 0xFF] == null) {
+            return null;
+        }
+        final int subjectLength = buffer[SUBJECT_LENGTH_OFFSET] & 0xFF;
+        final int signedLength = HEADER_BYTES + subjectLength;
+        if (size != signedLength + TAG_BYTES) {
+            return null;
+        }
+        final Mac mac = macFor(buffer[1] & 0xFF);
+        mac.update(buffer, 0, signedLength);
+        try {
+            mac.doFinal(buffer, size);
+        } catch (ShortBufferException exception) {
+            throw new IllegalStateException(exception);
+        }
+        // 상수 시간 비교
+        int difference = 0;
+        for (int i = 0; i < TAG_BYTES; i++) {
+            difference |= buffer[signedLength + i] ^ buffer[size + i];
+        }
+        final int role = buffer[10];
+        if (difference != 0 || role >= ROLES.length) {
+            return null;
+        }
+        return new TokenClaims(
+                new String(buffer, HEADER_BYTES, subjectLength, StandardCharsets.UTF_8),
+                new UUID(readLong(buffer, 19), readLong(buffer, 27)).toString(),
+                readLong(buffer, 2),
+                role < 0 ? null : ROLES[role],
+                (readInt(buffer, 11) & 0xFFFFFFFFL) * 1000,
+                (readInt(buffer, 15) & 0xFFFFFFFFL) * 1000
+        );
+    }
+
+    // 패딩 없는 URL-safe Base64를 out에 디코딩한다. 허용하지 않는 문자가 있거나 남는 비트가 0이 아니면 -1
+    private static int decodeBase64Url(String token, byte[] out) {
+        int accumulator = 0;
+        int bits = 0;
+        int size = 0;
+        for (int i = 0; i < token.length(); i++) {
+            final char c = token.charAt(i);
+            final int value = c < BASE64_URL.length ? BASE64_URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[size++] = (byte) (accumulator >> bits);
+                accumulator &= (1 << bits) - 1;
+            }
+        }
+        // 같은 토큰을 다른 문자열로 표현할 수 없도록 남는 비트는 0이어야 한다.
+        return accumulator == 0 ? size : -1;
+    }
+
+    private static long readLong(byte[] buffer, int offset) {
+        return ((long) readInt(buffer, offset) << 32) | (readInt(buffer, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) << 24
+                | (buffer[offset + 1] & 0xFF) << 16
+                | (buffer[offset + 2] & 0xFF) << 8
+                | (buffer[offset + 3] & 0xFF);
+    }
+
+    private static SecretKeySpec deriveKey(byte[] secret) {
+        try {
+            final Mac derive = Mac.getInstance(MAC_ALGORITHM);
+            derive.init(new SecretKeySpec(secret, MAC_ALGORITHM));
+            return new SecretKeySpec(derive.doFinal(KEY_LABEL), MAC_ALGORITHM);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // 스레드별로 key id마다 Mac을 한번만 만든다.
+    private Mac macFor(int keyId) {
+        final Mac[] threadMacs = macs.get();
+        Mac mac = threadMacs[keyId];
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(keys[keyId]);
+            } catch (GeneralSecurityException exception) {
+                throw new IllegalStateException(exception);
+            }
+            threadMacs[keyId] = mac;
+        }
+        return mac;
+    }
+}
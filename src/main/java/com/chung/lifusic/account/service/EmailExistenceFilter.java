@@ -0,0 +1,211 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.repository.EmailBloomFilterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 가입된 이메일에 대한 Bloom filter. (Redis 비트맵)
+ * - mightContain이 false라면 해당 이메일로 가입한 유저가 확실히 없으므로 DB를 조회하지 않아도 된다.
+ * - true라면 가입된 이메일이거나 오탐(false_positive_rate)이므로 DB로 확인해야 한다.
+ * 시작 시 user 테이블로부터 필터를 만들고, 회원가입 시 추가한다. 유저 삭제는 없으므로 제거는 지원하지 않는다.
+ * 필터가 준비되지 않았거나 Redis 데이터가 사라진 경우에는 항상 true(DB 확인 필요)를 반환한다.
+ * 이메일 추가에 실패하면 공유 필터의 생성 완료 표시를 지우고 다시 만든다. 다시 만들 때까지 모든 서버가 DB로 확인한다.
+ */
+@Service
+@Slf4j
+public class EmailExistenceFilter {
+    private static final String SELECT_EMAILS_SQL = "select email from user where email is not null";
+    private static final int BUILD_FETCH_SIZE = 1000;
+    private static final int BUILD_BATCH_SIZE = 500; // 한번의 파이프라인으로 추가할 이메일 수
+    private static final long MAX_BITS = (1L << 32) - 1; // Redis 비트맵 최대 크기 (sentinel 비트 1개 제외)
+    private static final long INVALIDATE_RETRY_INTERVAL_MS = 5000;
+
+    private final EmailBloomFilterRepository emailBloomFilterRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final long bits;
+    private final int hashes;
+    private final String filterName;
+
+    private volatile boolean ready = false;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private volatile boolean invalidationPending = false; // 추가에 실패한 이메일이 있어 공유 필터를 무효화해야 함
+    private volatile long invalidateAttemptedAt = 0;
+
+    public EmailExistenceFilter(
+            EmailBloomFilterRepository emailBloomFilterRepository,
+            JdbcTemplate jdbcTemplate,
+            ShardRouter shardRouter,
+            @Value("${email_filter.expected_insertions}") long expectedInsertions,
+            @Value("${email_filter.false_positive_rate}") double falsePositiveRate
+    ) {
+        this.emailBloomFilterRepository = emailBloomFilterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        // m = -n * ln(p) / (ln2)^2, k = m / n * ln2
+        this.bits = Math.min(MAX_BITS,
+                (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        this.filterName = bits + ":" + hashes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildInBackground();
+    }
+
+    /**
+     * @return false라면 가입되지 않은 이메일. true라면 DB 확인 필요
+     */
+    public boolean mightContain(String email) {
+        if (email == null) {
+            return true;
+        }
+        if (!ready) {
+            // 무효화에 실패했다면(Redis 장애 등) 주기적으로 다시 시도한다.
+            if (invalidationPending && System.currentTimeMillis() - invalidateAttemptedAt >= INVALIDATE_RETRY_INTERVAL_MS) {
+                rebuildInBackground();
+            }
+            return true;
+        }
+        try {
+            Boolean contains = emailBloomFilterRepository.allBitsSet(filterName, bits, offsets(email));
+            if (contains == null) {
+                // Redis가 재시작되는 등 필터가 사라졌다면 다시 만든다.
+                log.warn("EmailExistenceFilter:: filter is missing. rebuilding");
+                ready = false;
+                rebuildInBackground();
+                return true;
+            }
+            return contains;
+        } catch (Exception exception) {
+            log.error("EmailExistenceFilter:: check failed: {}", exception.getMessage());
+            return true;
+        }
+    }
+
+    // 회원가입한 이메일 추가. 필터 생성 중에도 추가해야 생성 중 가입한 유저가 누락되지 않는다.
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        try {
+            emailBloomFilterRepository.setBits(filterName, offsets(email));
+        } catch (Exception exception) {
+            // 추가하지 못한 이메일이 "없음"으로 판단되지 않도록 필터를 다시 만든다.
+            // 생성 완료 표시가 남아 있으면 build가 생성을 건너뛰고 다른 서버도 필터를 계속 믿으므로, 표시부터 지운다.
+            log.error("EmailExistenceFilter:: add failed: {}", exception.getMessage());
+            invalidationPending = true;
+            ready = false;
+            rebuildInBackground();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void rebuildInBackground() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                build();
+            } catch (Exception exception) {
+                log.error("EmailExistenceFilter:: build failed: {}", exception.getMessage());
+            } finally {
+                building.set(false);
+            }
+        }, "email-filter-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 모든 샤드의 user 테이블 이메일로 필터를 만든다. 다른 서버가 이미 만들었다면 그대로 사용한다.
+    void build() {
+        if (invalidationPending) {
+            invalidateAttemptedAt = System.currentTimeMillis();
+            emailBloomFilterRepository.invalidate(filterName);
+            invalidationPending = false;
+        } else if (emailBloomFilterRepository.isReady(filterName, bits)) {
+            ready = true;
+            return;
+        }
+        final long startedAt = System.currentTimeMillis();
+        final List<String> chunk = new ArrayList<>(BUILD_BATCH_SIZE);
+        final long[] count = {0};
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.runOn(shard, () -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_EMAILS_SQL);
+                statement.setFetchSize(BUILD_FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                chunk.add(resultSet.getString(1));
+                if (chunk.size() == BUILD_BATCH_SIZE) {
+                    count[0] += addAll(chunk);
+                }
+            }));
+        }
+        count[0] += addAll(chunk);
+        if (invalidationPending) {
+            // 생성 중 추가에 실패한 이메일이 있다면 완료로 표시하지 않는다. (다음 확인 때 다시 만든다)
+            log.warn("EmailExistenceFilter:: add failed during build. not marking ready");
+            return;
+        }
+        emailBloomFilterRepository.markReady(filterName, bits);
+        ready = true;
+        log.info("EmailExistenceFilter:: built. emails: {}, bits: {}, hashes: {}, elapsed: {}ms",
+                count[0], bits, hashes, System.currentTimeMillis() - startedAt);
+    }
+
+    private int addAll(List<String> emails) {
+        if (emails.isEmpty()) {
+            return 0;
+        }
+        long[] offsets = new long[emails.size() * hashes];
+        for (int i = 0; i < emails.size(); i++) {
+            System.arraycopy(offsets(emails.get(i)), 0, offsets, i * hashes, hashes);
+        }
+        emailBloomFilterRepository.setBits(filterName, offsets);
+        final int size = emails.size();
+        emails.clear();
+        return size;
+    }
+
+    // 이메일의 MD5 값을 두 개의 64bit 해시로 나눠 k개의 위치를 만든다. (h1 + i * h2) mod m
+    long[] offsets(String email) {
+        final ByteBuffer digest = ByteBuffer.wrap(md5(email.trim().toLowerCase(Locale.ROOT)));
+        final long h1 = digest.getLong();
+        final long h2 = digest.getLong();
+        long[] offsets = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, bits);
+        }
+        return offsets;
+    }
+
+    private static byte[] md5(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.chung.lifusic.account.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * DB, Redis 상태를 백그라운드에서 주기적으로 확인하고 결과를 저장해둔다.
+ * readiness 요청은 저장된 결과만 읽으므로 probe 요청마다 DB, Redis에 접근하지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HealthCheckService {
+    private static final int DB_VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource dataSource;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final WarmUpService warmUpService;
+
+    private volatile boolean databaseUp = false;
+    private volatile boolean redisUp = false;
+
+    @Scheduled(fixedDelayString = "${health.probe.interval_ms:5000}")
+    public void probe() {
+        final boolean database = probeDatabase();
+        final boolean redis = probeRedis();
+        if (database != databaseUp || redis != redisUp) {
+            log.warn("HealthCheckService:: status changed. database: {}, redis: {}", database, redis);
+        }
+        databaseUp = database;
+        redisUp = redis;
+    }
+
+    // 트래픽을 받을 준비가 되었는 지 여부. JIT 워밍업이 끝나기 전에는 트래픽을 받지 않는다.
+    public boolean isReady() {
+        return databaseUp && redisUp && warmUpService.isCompleted();
+    }
+
+    public boolean isDatabaseUp() {
+        return databaseUp;
+    }
+
+    public boolean isRedisUp() {
+        return redisUp;
+    }
+
+    private boolean probeDatabase() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(DB_VALIDATION_TIMEOUT_SECONDS);
+        } catch (Exception exception) {
+            log.error("HealthCheckService:: database probe failed: {}", exception.getMessage());
+            return false;
+        }
+    }
+
+    private boolean probeRedis() {
+        RedisConnection connection = null;
+        try {
+            connection = redisConnectionFactory.getConnection();
+            return "PONG".equalsIgnoreCase(connection.ping());
+        } catch (Exception exception) {
+            log.error("HealthCheckService:: redis probe failed: {}", exception.getMessage());
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
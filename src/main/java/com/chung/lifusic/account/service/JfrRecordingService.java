@@ -0,0 +1,156 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Constants;
+import com.chung.lifusic.account.common.exception.CustomException;
+import com.chung.lifusic.account.dto.JfrRecordingResponse;
+import com.chung.lifusic.account.jfr.PasswordHashEvent;
+import com.chung.lifusic.account.jfr.RedisCheckEvent;
+import com.chung.lifusic.account.jfr.TokenVerifyEvent;
+import com.chung.lifusic.account.jfr.UserLoadEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 관리자 요청으로 JFR 녹화를 시작, 중지하고 결과 파일을 제공한다.
+ * - 한번에 하나의 녹화만 유지하고, 새 녹화를 시작하면 이전 파일은 지운다.
+ * - 녹화 시간(max_duration_seconds)과 크기(max_size_mb)는 항상 제한된다. 시간이 지나면 자동으로 멈춘다.
+ * - JVM 기본 설정(default, profile)에 더해 인증 구간 이벤트(jfr 패키지)를 threshold 이상만 남긴다.
+ */
+@Service
+@Slf4j
+public class JfrRecordingService {
+    private static final List<String> PROFILES = List.of("default", "profile");
+    private static final List<Class<? extends Event>> AUTH_EVENTS = List.of(
+            TokenVerifyEvent.class, UserLoadEvent.class, RedisCheckEvent.class, PasswordHashEvent.class);
+
+    @Value("${jfr.max_duration_seconds}")
+    private long MAX_DURATION_SECONDS;
+
+    @Value("${jfr.max_size_mb}")
+    private long MAX_SIZE_MB;
+
+    private Recording recording; // 진행 중이거나 마지막으로 끝난 녹화
+    private Path recordingFile;
+    private String profile;
+    private Instant startedAt;
+    private long durationSeconds;
+    private long thresholdMs;
+
+    public synchronized JfrRecordingResponse start(String profile, long durationSeconds, long thresholdMs) throws CustomException {
+        if (!PROFILES.contains(profile)) {
+            throw new CustomException(Constants.ExceptionType.PROFILING, HttpStatus.BAD_REQUEST, "Unknown profile: " + profile);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new CustomException(Constants.ExceptionType.PROFILING, HttpStatus.CONFLICT, "Recording is already running");
+        }
+        close();
+        final long duration = Math.max(1, Math.min(durationSeconds, MAX_DURATION_SECONDS));
+        final long threshold = Math.max(0, thresholdMs);
+        try {
+            final Path file = Files.createTempFile("lifusic-account-", ".jfr");
+            Recording newRecording = new Recording(Configuration.getConfiguration(profile));
+            newRecording.setName("lifusic-account-" + profile);
+            newRecording.setToDisk(true);
+            newRecording.setMaxSize(MAX_SIZE_MB * 1024 * 1024);
+            newRecording.setDuration(Duration.ofSeconds(duration));
+            newRecording.setDestination(file); // 멈출 때(자동 포함) 이 파일에 저장된다.
+            for (Class<? extends Event> eventClass : AUTH_EVENTS) {
+                newRecording.enable(eventClass).withThreshold(Duration.ofMillis(threshold));
+            }
+            newRecording.start();
+            this.recording = newRecording;
+            this.recordingFile = file;
+            this.profile = profile;
+            this.startedAt = Instant.now();
+            this.durationSeconds = duration;
+            this.thresholdMs = threshold;
+        } catch (IOException | ParseException exception) {
+            log.error("JfrRecordingService:: failed to start recording: {}", exception.getMessage());
+            throw new CustomException(Constants.ExceptionType.PROFILING, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to start recording");
+        }
+        log.info("JfrRecordingService:: recording started. profile: {}, duration: {}s, threshold: {}ms", profile, duration, threshold);
+        return getStatus();
+    }
+
+    public synchronized JfrRecordingResponse stop() throws CustomException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new CustomException(Constants.ExceptionType.PROFILING, HttpStatus.NOT_FOUND, "No running recording");
+        }
+        recording.stop();
+        log.info("JfrRecordingService:: recording stopped. file: {}", recordingFile);
+        return getStatus();
+    }
+
+    public synchronized JfrRecordingResponse getStatus() {
+        if (recording == null) {
+            return JfrRecordingResponse.builder()
+                    .state("NONE")
+                    .maxDurationSeconds(MAX_DURATION_SECONDS)
+                    .maxSizeMb(MAX_SIZE_MB)
+                    .build();
+        }
+        final boolean stopped = isFinished();
+        return JfrRecordingResponse.builder()
+                .state(stopped ? "STOPPED" : recording.getState().name())
+                .profile(profile)
+                .startedAt(startedAt)
+                .stoppedAt(stopped ? recording.getStopTime() : null)
+                .maxDurationSeconds(durationSeconds)
+                .maxSizeMb(MAX_SIZE_MB)
+                .thresholdMs(thresholdMs)
+                .fileSizeBytes(stopped ? fileSize() : 0)
+                .build();
+    }
+
+    // 멈춘 녹화의 파일. 녹화 중이라면 먼저 stop 해야 한다.
+    public synchronized Path getRecordingFile() throws CustomException {
+        if (recording == null || !isFinished() || !Files.exists(recordingFile)) {
+            throw new CustomException(Constants.ExceptionType.PROFILING, HttpStatus.NOT_FOUND, "No finished recording");
+        }
+        return recordingFile;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (recordingFile != null) {
+            try {
+                Files.deleteIfExists(recordingFile);
+            } catch (IOException exception) {
+                log.warn("JfrRecordingService:: failed to delete {}: {}", recordingFile, exception.getMessage());
+            }
+            recordingFile = null;
+        }
+    }
+
+    // destination이 지정된 녹화는 멈추면서 파일을 쓰고 CLOSED가 된다.
+    private boolean isFinished() {
+        return recording.getState() == RecordingState.STOPPED || recording.getState() == RecordingState.CLOSED;
+    }
+
+    private long fileSize() {
+        try {
+            return Files.size(recordingFile);
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+}
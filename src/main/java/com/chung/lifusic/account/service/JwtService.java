@@ -1,43 +1,57 @@
 package com.chung.lifusic.account.service;
 
+import com.chung.lifusic.account.config.JwtProperties;
+import com.chung.lifusic.account.entity.TokenSession;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.jfr.RedisCheckEvent;
+import com.chung.lifusic.account.jfr.TokenVerifyEvent;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 @RequiredArgsConstructor
 @Service
 public class JwtService {
+    private static final String COMPACT_FORMAT = "compact";
+    private static final char JWT_SEPARATOR = '.'; // compact 토큰에는 없는 문자
 
-    @Value("${security.secret.key}")
-    private String SECRET_KEY; // jwt 서명 키
+    private final JwtProperties properties;
+    private final TokenSessionRepository tokenSessionRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AuthAnalyticsRecorder authAnalyticsRecorder;
 
-    @Value("${security.jwt.expired_after_ms}")
-    private int JWT_EXPIRED_AFTER_MS; // jwt 토큰 발급 후 몇 ms 후 만료 되는 지
+    private volatile Key signInKey; // security.secret.key로 만든 서명 키. 처음 사용할 때 한번만 만든다.
+    private volatile JwtParser jwtParser;
+    private volatile CompactTokenCodec compactTokenCodec;
 
-    private final RedisTemplate<String, String> redisTemplate;
+    /**
+     * 같은 서명 키와 설정을 사용하되 세션 저장소, 캐시, 통계만 바꾼 인스턴스. (워밍업용)
+     * Redis에 접근하지 않고 실제 토큰 발급, 검증 코드를 실행할 수 있다.
+     */
+    JwtService withStores(TokenSessionRepository sessionRepository, VerifiedTokenCache tokenCache,
+                          AuthAnalyticsRecorder analyticsRecorder) {
+        return new JwtService(properties, sessionRepository, tokenCache, analyticsRecorder);
+    }
 
     // token으로 부터 username(이메일)을 추출한다.
     public String extractUsername(String token) {
-        try {
-            return extractClaim(token, Claims::getSubject);
-        } catch (Exception exception) {
-            return null;
-        }
+        final TokenClaims claims = verify(token);
+        return claims == null ? null : claims.subject();
     }
 
     /**
@@ -48,91 +62,269 @@ public class JwtService {
      * @param <T> 토큰으로 부터 추출한 정보의 타입
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) throws Exception{
+        if (!isJwt(token)) {
+            final TokenClaims claims = verifyCompact(token);
+            if (claims == null) {
+                throw new IllegalArgumentException("Invalid token");
+            }
+            return claimsResolver.apply(claims.toJwtClaims());
+        }
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    // userDetails만 가지고 토큰 생성
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+    // user만 가지고 토큰 생성
+    public String generateToken(User user) {
+        return generateToken(new HashMap<>(), user);
     }
 
-    // claim, userDetails를 가지고 토큰 생성
+    // claim, user를 가지고 토큰 생성
     public String generateToken(
             Map<String, Object> extraClaims,
-            UserDetails userDetails
+            User user
     ) {
-        final String jwtToken = Jwts
+        final TokenSession session = newSession();
+        final String jwtToken = buildToken(extraClaims, user, session);
+        // redis에 세션 정보 저장. jwt를 강제로 만료시킬 수 없기 때문에, redis로 구현
+        final List<Long> evicted = tokenSessionRepository.save(
+                user.getId(),
+                session,
+                jwtToken,
+                properties.getJwt().getMaxSessionsPerUser()
+        );
+        authAnalyticsRecorder.recordLogin(user.getId());
+        authAnalyticsRecorder.recordSessionsEnded(evicted);
+        return jwtToken;
+    }
+
+    /**
+     * 만료가 가까운(renewal_window_ms 이내) 유효한 토큰이라면 새 토큰을 발급한다.
+     * 이전 토큰은 renewal_grace_ms 뒤에 만료되어, 갱신 전에 보낸 요청들도 처리된다.
+     * 같은 토큰으로 동시에 온 요청 중 하나만 갱신된다.
+     * @return 새 토큰. 갱신하지 않았다면 null
+     */
+    public String renewIfExpiring(String token, User user) {
+        if (properties.getJwt().getRenewalWindowMs() <= 0) {
+            return null;
+        }
+        final TokenClaims claims = verify(token);
+        final long now = System.currentTimeMillis();
+        if (claims == null || claims.expiresAt() - now > properties.getJwt().getRenewalWindowMs()) {
+            return null;
+        }
+        final TokenSession session = newSession();
+        final String renewedToken = buildToken(new HashMap<>(), user, session);
+        final List<Long> evicted = tokenSessionRepository.renew(
+                user.getId(),
+                claims.sessionId(),
+                token,
+                session,
+                renewedToken,
+                Math.min(now + properties.getJwt().getRenewalGraceMs(), claims.expiresAt()),
+                properties.getJwt().getMaxSessionsPerUser()
+        );
+        if (evicted == null) {
+            return null;
+        }
+        authAnalyticsRecorder.recordRenewal(user.getId(), claims.sessionId());
+        authAnalyticsRecorder.recordSessionsEnded(evicted);
+        return renewedToken;
+    }
+
+    // 새 로그인 세션. 만료 시각은 jitter 만큼 무작위로 앞당겨, 같은 시각에 로그인한 유저들이 같이 만료되지 않도록 한다.
+    private TokenSession newSession() {
+        final long issuedAt = System.currentTimeMillis();
+        final JwtProperties.Jwt jwt = properties.getJwt();
+        final long jitter = jwt.getExpiryJitterMs() <= 0 ? 0
+                : ThreadLocalRandom.current().nextLong(Math.min(jwt.getExpiryJitterMs(), jwt.getExpiredAfterMs() / 2) + 1);
+        final long expiresAt = issuedAt + jwt.getExpiredAfterMs() - jitter;
+        return new TokenSession(TokenSessionRepository.newSessionId(issuedAt), issuedAt, expiresAt); // 로그인 세션마다 고유한 jti
+    }
+
+    // compact 형식은 추가 claim을 담을 수 없으므로, 추가 claim이 있거나 이메일이 너무 길면 JWT로 발급한다.
+    private String buildToken(Map<String, Object> extraClaims, User user, TokenSession session) {
+        if (COMPACT_FORMAT.equals(properties.getToken().getFormat()) && extraClaims.isEmpty()) {
+            final String token = getCompactTokenCodec().encode(new TokenClaims(
+                    user.getUsername(),
+                    session.sessionId(),
+                    user.getId(),
+                    user.getRole(),
+                    session.issuedAt(),
+                    session.expiresAt()
+            ));
+            if (token != null) {
+                return token;
+            }
+        }
+        return Jwts
                 .builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRED_AFTER_MS))
+                .claim(TokenClaims.USER_ID_CLAIM, user.getId())
+                .setId(session.sessionId())
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(session.issuedAt()))
+                .setExpiration(new Date(session.expiresAt()))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
-        // redis에 token 정보 저장. jwt를 강제로 만료시킬 수 없기 때문에, redis로 구현
-        final String redisKey = getRedisKey(userDetails.getUsername());
-        redisTemplate.opsForValue().set(redisKey, jwtToken);
-        redisTemplate.expire(redisKey, JWT_EXPIRED_AFTER_MS, TimeUnit.MILLISECONDS);
-        return jwtToken;
     }
 
     // 토큰이 유효한 지 여부 확인
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+        // uid가 없는 토큰은 이전 형식의 세션 저장소로 발급된 것이므로 verify에서 거절된다. (다시 로그인해야 한다)
+        final TokenClaims claims = verify(token);
+        if (claims == null) {
+            return false;
+        }
         // token으로 부터 추출한 유저네임(이메일)과 db로부터 가져온 유저네임이 같은 지 확인한다.
-        final boolean isUserNameMatched = username.equals(userDetails.getUsername());
+        final String username = claims.subject();
+        if (username == null || !username.equals(userDetails.getUsername())) {
+            return false;
+        }
+        return isSessionActive(claims, token);
+    }
 
-        // redis에 키가 없다면 로그아웃 또는 Redis TTL이 지난 것으로 처리
-        final String redisKey = getRedisKey(username);
-        final String tokenFromRedis = redisTemplate.opsForValue().get(redisKey);
+    /**
+     * 서명 검증이 끝난 토큰의 세션이 남아 있는 지 확인한다.
+     * 유저 정보가 필요 없으므로 JwtAuthenticationFilter에서 유저 조회와 동시에 실행한다.
+     */
+    public boolean isSessionActive(TokenClaims claims, String token) {
+        if (claims.isExpired(System.currentTimeMillis())) {
+            return false;
+        }
+        // redis에 세션이 없다면 로그아웃, 세션 수 초과로 밀려남, 또는 TTL이 지난 것으로 처리
+        final RedisCheckEvent event = new RedisCheckEvent();
+        event.begin();
+        final boolean active = tokenSessionRepository.isActive(claims.userId(), claims.sessionId(), token);
+        if (event.shouldCommit()) {
+            event.active = active;
+            event.commit();
+        }
+        return active;
+    }
 
-        return isUserNameMatched && !isTokenExpired(token) && tokenFromRedis != null;
+    // token으로 부터 세션 id(jti)를 추출한다.
+    public String extractSessionId(String token) {
+        final TokenClaims claims = verify(token);
+        return claims == null ? null : claims.sessionId();
     }
 
     // 토큰이 만료되었는 지 확인
     public boolean isTokenExpired(String token) {
-        // 현재 날짜보다 만료일이 앞에 있다면 만료되었다고 판단한다.
-        final Date expiration = extractExpiration(token);
-        if (expiration == null) {
-            return true;
-        }
-        return expiration.before(new Date());
+        final TokenClaims claims = verify(token);
+        return claims == null || claims.isExpired(System.currentTimeMillis());
+    }
+
+    // 유저의 모든 세션을 만료시킨다.
+    public void expireToken(long userId) {
+        authAnalyticsRecorder.recordSessionsEnded(tokenSessionRepository.deleteAll(userId));
     }
 
-    // logout 시 redis에서 토큰을 저장하고 있는 키 삭제
-    public void expireToken(String email) {
-        final String redisKey = getRedisKey(email);
-        if (redisTemplate.opsForValue().get(redisKey) != null) {
-            redisTemplate.delete(redisKey); // redis에서 토큰을 삭제한다.
+    // 세션 하나만 만료시킨다. 다른 기기의 로그인은 유지된다.
+    public boolean expireSession(long userId, String sessionId) {
+        final List<Long> ended = tokenSessionRepository.delete(userId, sessionId);
+        if (ended == null) {
+            return false;
         }
+        authAnalyticsRecorder.recordSessionsEnded(ended);
+        return true;
+    }
+
+    // 유저의 만료되지 않은 세션 목록
+    public List<TokenSession> getSessions(long userId) {
+        return tokenSessionRepository.findAll(userId);
     }
 
-    // 토큰으로부터 토큰 만료일을 가져온다.
-    private Date extractExpiration(String token) {
+    /**
+     * 토큰 형식에 맞게 서명을 검증하고 정보를 읽는다.
+     * @return 변조, 만료되었거나 uid, jti가 없는 토큰이라면 null
+     */
+    public TokenClaims verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        if (!isJwt(token)) {
+            return verifyCompact(token);
+        }
         try {
-            return extractClaim(token, Claims::getExpiration);
+            return TokenClaims.fromJwt(extractAllClaims(token));
         } catch (Exception exception) {
             return null;
         }
     }
 
-    // 토큰으로부터 모든 정보를 가져온다
+    private static boolean isJwt(String token) {
+        return token.indexOf(JWT_SEPARATOR) >= 0;
+    }
+
+    // compact 토큰은 검증 비용(HMAC 한번)이 캐시 조회(SHA-256 한번)와 비슷하므로 캐시를 거치지 않는다.
+    // 만료된 토큰은 JWT 파서와 같이 검증 실패로 처리한다.
+    private TokenClaims verifyCompact(String token) {
+        final TokenVerifyEvent event = new TokenVerifyEvent();
+        event.begin();
+        TokenClaims claims = getCompactTokenCodec().decode(token);
+        if (claims != null && claims.isExpired(System.currentTimeMillis())) {
+            claims = null;
+        }
+        commit(event, false, claims != null);
+        return claims;
+    }
+
+    // 토큰으로부터 모든 정보를 가져온다. 이미 검증한 토큰이라면 캐시된 정보를 사용한다.
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey()) /* jwt가 중간에 변경되지 않았는 지 확인하기 위한 서명키 */
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        final TokenVerifyEvent event = new TokenVerifyEvent();
+        event.begin();
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims != null) {
+            commit(event, true, true);
+            return claims;
+        }
+        try {
+            claims = getJwtParser()
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (RuntimeException exception) {
+            commit(event, false, false);
+            throw exception;
+        }
+        verifiedTokenCache.put(token, claims);
+        commit(event, false, true);
+        return claims;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // JFR 이벤트가 꺼져 있다면 아무 일도 하지 않는다.
+    private static void commit(TokenVerifyEvent event, boolean cacheHit, boolean valid) {
+        if (event.shouldCommit()) {
+            event.cacheHit = cacheHit;
+            event.valid = valid;
+            event.commit();
+        }
     }
 
-    private String getRedisKey(String email) {
-        return String.format("JWT_TOKEN:%s", email);
+    private JwtParser getJwtParser() {
+        if (jwtParser == null) {
+            jwtParser = Jwts
+                    .parserBuilder()
+                    .setSigningKey(getSignInKey()) /* jwt가 중간에 변경되지 않았는 지 확인하기 위한 서명키 */
+                    .build();
+        }
+        return jwtParser;
+    }
+
+    private CompactTokenCodec getCompactTokenCodec() {
+        if (compactTokenCodec == null) {
+            final Map<Integer, byte[]> secrets = new HashMap<>();
+            properties.getToken().getVerificationKeys().forEach((keyId, secret) -> secrets.put(keyId, Decoders.BASE64.decode(secret)));
+            secrets.put(properties.getToken().getKeyId(), Decoders.BASE64.decode(properties.getSecret().getKey()));
+            compactTokenCodec = new CompactTokenCodec(secrets, properties.getToken().getKeyId());
+        }
+        return compactTokenCodec;
+    }
+
+    private Key getSignInKey() {
+        if (signInKey == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(properties.getSecret().getKey());
+            signInKey = Keys.hmacShaKeyFor(keyBytes);
+        }
+        return signInKey;
     }
 }
@@ -0,0 +1,241 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.ClientIp;
+import com.chung.lifusic.account.config.ShardContext;
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 로그인 기록을 요청 스레드에서 바로 저장하지 않고 큐에 모았다가 JDBC 배치로 저장한다. (write-behind)
+ * - 큐는 lock-free 이고 capacity를 넘으면 새 기록을 버린다. 버린 수는 login_history.dropped 에 남는다.
+ * - flush_interval_ms 주기 또는 큐에 batch_size 만큼 쌓였을 때 flush 한다.
+ * - 같은 배치 안의 유저별 lastLoginAt 갱신은 가장 최근 값 하나로 합친다.
+ * 서버가 비정상 종료되면 큐에 남은 기록은 유실될 수 있다.
+ */
+@Service
+@Slf4j
+public class LoginHistoryService {
+    private static final String INSERT_HISTORY_SQL = "insert into login_history " +
+            "(user_id, email, ip, user_agent, success, failure_reason, login_at) values (?, ?, ?, ?, ?, ?, ?)";
+    // 늦게 flush된 배치가 더 최근 값을 덮어쓰지 않도록 비교 후 갱신
+    private static final String UPDATE_LAST_LOGIN_SQL = "update user set last_login_at = ? " +
+            "where id = ? and (last_login_at is null or last_login_at < ?)";
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+    private static final int MAX_IP_LENGTH = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final ShardRouter shardRouter;
+
+    @Value("${login_history.capacity}")
+    private int CAPACITY; // 큐에 쌓아둘 수 있는 최대 기록 수
+
+    @Value("${login_history.batch_size}")
+    private int BATCH_SIZE;
+
+    private final ConcurrentLinkedQueue<LoginAttempt> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger(); // ConcurrentLinkedQueue.size()는 O(n)이라 따로 센다.
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter enqueuedCounter;
+    private final Counter overflowCounter;
+    private final Counter writeFailureCounter;
+    private final Counter flushedCounter;
+
+    public LoginHistoryService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("loginHistoryExecutor") Executor executor,
+            ShardRouter shardRouter,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.shardRouter = shardRouter;
+        this.enqueuedCounter = meterRegistry.counter("login_history.enqueued");
+        this.overflowCounter = meterRegistry.counter("login_history.dropped", "reason", "overflow");
+        this.writeFailureCounter = meterRegistry.counter("login_history.dropped", "reason", "write_failure");
+        this.flushedCounter = meterRegistry.counter("login_history.flushed");
+        Gauge.builder("login_history.queue.size", queueSize, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // 로그인 성공 기록. AuthenticationService.authenticate 에서 호출한다.
+    public boolean recordSuccess(User user) {
+        return enqueue(new LoginAttempt(user.getId(), user.getEmail(), true, null, currentRequestInfo(), System.currentTimeMillis()));
+    }
+
+    // 로그인 실패 기록. (비밀번호 불일치, 존재하지 않는 유저 등)
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
+        enqueue(new LoginAttempt(
+                null,
+                event.getAuthentication().getName(),
+                false,
+                event.getException().getClass().getSimpleName(),
+                currentRequestInfo(),
+                event.getTimestamp()
+        ));
+    }
+
+    boolean enqueue(LoginAttempt attempt) {
+        // 먼저 자리를 확보하고, 넘치면 되돌린다.
+        final int size = queueSize.incrementAndGet();
+        if (size > CAPACITY) {
+            queueSize.decrementAndGet();
+            overflowCounter.increment();
+            return false;
+        }
+        queue.offer(attempt);
+        enqueuedCounter.increment();
+        if (size == BATCH_SIZE) {
+            executor.execute(this::flush);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${login_history.flush_interval_ms}")
+    public void flush() {
+        // 주기적인 flush와 크기 초과로 인한 flush가 겹치면 먼저 시작한 쪽이 모두 처리한다.
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<LoginAttempt> batch;
+            while (!(batch = drain()).isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int getQueueSize() {
+        return queueSize.get();
+    }
+
+    private List<LoginAttempt> drain() {
+        List<LoginAttempt> batch = new ArrayList<>(Math.min(BATCH_SIZE, queueSize.get()));
+        LoginAttempt attempt;
+        while (batch.size() < BATCH_SIZE && (attempt = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            batch.add(attempt);
+        }
+        return batch;
+    }
+
+    // 로그인 기록과 마지막 로그인 시각은 유저가 저장된 샤드에 쓴다.
+    private void write(List<LoginAttempt> batch) {
+        if (shardRouter.getShardCount() == 1) {
+            writeShard(batch);
+            return;
+        }
+        Map<Integer, List<LoginAttempt>> batchByShard = new HashMap<>();
+        for (LoginAttempt attempt : batch) {
+            final int shard = attempt.email() == null ? ShardContext.DEFAULT_SHARD : shardRouter.shardForEmail(attempt.email());
+            batchByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(attempt);
+        }
+        batchByShard.forEach((shard, attempts) -> shardRouter.runOn(shard, () -> writeShard(attempts)));
+    }
+
+    private void writeShard(List<LoginAttempt> batch) {
+        // 유저별로 가장 최근 로그인 시각만 남긴다.
+        Map<Long, Long> lastLoginAtByUser = new HashMap<>();
+        for (LoginAttempt attempt : batch) {
+            if (attempt.success() && attempt.userId() != null) {
+                lastLoginAtByUser.merge(attempt.userId(), attempt.timestamp(), Math::max);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, batch, batch.size(), (ps, attempt) -> {
+                    ps.setObject(1, attempt.userId());
+                    ps.setString(2, attempt.email());
+                    ps.setString(3, attempt.request().ip());
+                    ps.setString(4, attempt.request().userAgent());
+                    ps.setBoolean(5, attempt.success());
+                    ps.setString(6, attempt.failureReason());
+                    ps.setTimestamp(7, toTimestamp(attempt.timestamp()));
+                });
+                if (!lastLoginAtByUser.isEmpty()) {
+                    List<Map.Entry<Long, Long>> updates = new ArrayList<>(lastLoginAtByUser.entrySet());
+                    jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, updates, updates.size(), (ps, entry) -> {
+                        Timestamp lastLoginAt = toTimestamp(entry.getValue());
+                        ps.setTimestamp(1, lastLoginAt);
+                        ps.setLong(2, entry.getKey());
+                        ps.setTimestamp(3, lastLoginAt);
+                    });
+                }
+            });
+            flushedCounter.increment(batch.size());
+        } catch (Exception exception) {
+            // 재시도하지 않고 버린다. 요청 처리에 영향을 주지 않는 것이 우선이다.
+            writeFailureCounter.increment(batch.size());
+            log.error("LoginHistoryService:: flush failed. dropped: {}, {}", batch.size(), exception.getMessage());
+        }
+    }
+
+    private static Timestamp toTimestamp(long epochMillis) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+
+    // 현재 요청의 IP, User-Agent. 요청 스레드가 아니라면 빈 값
+    private static RequestInfo currentRequestInfo() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return RequestInfo.EMPTY;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return new RequestInfo(
+                truncate(ClientIp.resolve(request), MAX_IP_LENGTH),
+                truncate(request.getHeader(HttpHeaders.USER_AGENT), MAX_USER_AGENT_LENGTH)
+        );
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    record RequestInfo(String ip, String userAgent) {
+        static final RequestInfo EMPTY = new RequestInfo(null, null);
+    }
+
+    record LoginAttempt(Long userId, String email, boolean success, String failureReason, RequestInfo request, long timestamp) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardContext;
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.entity.OutboxEvent;
+import com.chung.lifusic.account.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * outbox 테이블에 쌓인 계정 이벤트를 Redis Stream으로 발행한다.
+ * - 한번에 batch_size 만큼 유저별 순번 순서대로 가져와 파이프라인으로 XADD 한 뒤 삭제한다.
+ * - XADD 후 삭제 전에 실패하면 다음 주기에 다시 발행하므로 최소 한번(at-least-once) 전달된다.
+ *   소비자는 eventId 또는 (userId, userSequence)로 중복을 걸러야 한다.
+ * - 배치를 잠근 채로 발행하므로 여러 서버가 동시에 돌아도 유저별 순서가 유지된다.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${outbox.stream_key}")
+    private String STREAM_KEY; // 이벤트를 발행할 Redis Stream 키
+
+    @Value("${outbox.stream_max_length}")
+    private long STREAM_MAX_LENGTH; // Stream에 유지할 최대 이벤트 수 (대략적으로 잘라낸다)
+
+    @Value("${outbox.relay.batch_size}")
+    private int BATCH_SIZE;
+
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            RedisTemplate<String, String> redisTemplate,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            MeterRegistry meterRegistry
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.publishedCounter = meterRegistry.counter("outbox.published");
+        this.failureCounter = meterRegistry.counter("outbox.relay.failures");
+        // 가장 오래된 미발행 이벤트가 저장된 후 지난 시간
+        Gauge.builder("outbox.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // 이벤트는 유저와 같은 샤드에 저장되므로 샤드마다 따로 발행한다.
+    @Scheduled(fixedDelayString = "${outbox.relay.interval_ms}")
+    public void relay() {
+        long maxLag = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            final int target = shard;
+            shardRouter.runOn(target, this::relayShard);
+            maxLag = Math.max(maxLag, shardRouter.callOn(target, this::getLag));
+        }
+        lagMillis.set(maxLag);
+    }
+
+    private void relayShard() {
+        try {
+            int published;
+            do {
+                published = publishBatch();
+            } while (published == BATCH_SIZE);
+        } catch (Exception exception) {
+            failureCounter.increment();
+            log.error("OutboxRelay:: relay failed. shard: {}, {}", ShardContext.current(), exception.getMessage());
+        }
+    }
+
+    // 배치 하나를 발행하고 발행한 이벤트 수를 반환
+    int publishBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findBatchForUpdate(PageRequest.of(0, BATCH_SIZE));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            publish(events);
+            outboxEventRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        final int count = published == null ? 0 : published;
+        publishedCounter.increment(count);
+        return count;
+    }
+
+    private void publish(List<OutboxEvent> events) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (OutboxEvent event : events) {
+                    operations.opsForStream().add(StreamRecords.string(toFields(event)).withStreamKey(STREAM_KEY));
+                }
+                operations.opsForStream().trim(STREAM_KEY, STREAM_MAX_LENGTH, true);
+                return null;
+            }
+        });
+    }
+
+    private long getLag() {
+        try {
+            return outboxEventRepository.findFirstByOrderByCreatedDateAsc()
+                    .map(event -> System.currentTimeMillis() - toEpochMillis(event.getCreatedDate()))
+                    .orElse(0L);
+        } catch (Exception exception) {
+            log.error("OutboxRelay:: lag check failed. shard: {}, {}", ShardContext.current(), exception.getMessage());
+            return lagMillis.get();
+        }
+    }
+
+    private static Map<String, String> toFields(OutboxEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(event.getId()));
+        fields.put("type", event.getEventType().name());
+        fields.put("userId", String.valueOf(event.getUserId()));
+        fields.put("userSequence", String.valueOf(event.getUserSequence()));
+        fields.put("payload", event.getPayload());
+        fields.put("createdAt", String.valueOf(toEpochMillis(event.getCreatedDate())));
+        return fields;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return System.currentTimeMillis();
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,49 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.OutboxEventType;
+import com.chung.lifusic.account.entity.OutboxEvent;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.repository.OutboxEventRepository;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * 계정 이벤트를 outbox 테이블에 저장한다.
+ * 호출한 쪽의 트랜잭션에 참여하므로 유저 정보 변경이 롤백되면 이벤트도 함께 롤백된다. (트랜잭션 밖에서는 호출할 수 없다)
+ * 유저 행의 이벤트 순번을 올려 유저별 순번을 매기고, 트랜잭션이 끝날 때까지 같은 유저의 다른 이벤트 저장을 기다리게 한다.
+ * 실제 발행은 OutboxRelay가 비동기로 처리한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ShardedUserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType eventType, User user, Map<String, Object> payload) {
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Invalid outbox payload", exception);
+        }
+        final Long sequence = userRepository.nextEventSequence(user);
+        if (sequence == null) {
+            throw new IllegalStateException("User not found: " + user.getId());
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .userId(user.getId())
+                .userSequence(sequence)
+                .eventType(eventType)
+                .payload(json)
+                .build());
+    }
+}
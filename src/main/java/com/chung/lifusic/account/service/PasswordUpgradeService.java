@@ -0,0 +1,55 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 로그인에 성공한 유저의 비밀번호 해시가 현재 설정(알고리즘, 비용)보다 약하면
+ * 백그라운드에서 다시 해싱해 저장한다. 로그인 응답 시간에는 영향을 주지 않는다.
+ */
+@Service
+@Slf4j
+public class PasswordUpgradeService {
+    private final PasswordEncoder passwordEncoder;
+    private final ShardedUserRepository userRepository;
+    private final Executor executor;
+
+    public PasswordUpgradeService(
+            PasswordEncoder passwordEncoder,
+            ShardedUserRepository userRepository,
+            @Qualifier("passwordUpgradeExecutor") Executor executor
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.executor = executor;
+    }
+
+    /**
+     * @param user 로그인에 성공한 유저
+     * @param rawPassword 로그인 요청에 사용된 비밀번호 (검증이 끝난 값이어야 한다)
+     * @return 업그레이드 작업을 요청했다면 true
+     */
+    public boolean upgradeIfNeeded(User user, String rawPassword) {
+        final String encodedPassword = user.getPassword();
+        if (encodedPassword == null || !passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return false;
+        }
+        final Long userId = user.getId();
+        executor.execute(() -> {
+            try {
+                // 그 사이 비밀번호가 바뀌었다면 덮어쓰지 않는다.
+                int updated = userRepository.updatePassword(user, encodedPassword, passwordEncoder.encode(rawPassword));
+                log.info("PasswordUpgradeService:: password hash upgraded. user: {}, updated: {}", userId, updated);
+            } catch (Exception exception) {
+                log.error("PasswordUpgradeService:: password hash upgrade failed. user: {}, {}", userId, exception.getMessage());
+            }
+        });
+        return true;
+    }
+}
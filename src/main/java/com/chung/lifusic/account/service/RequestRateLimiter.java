@@ -0,0 +1,62 @@
+package com.chung.lifusic.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 클라이언트(IP)별 요청 수 제한. (token bucket)
+ * 분당 permits_per_minute 개의 요청을 허용하고, 남은 토큰은 permits_per_minute 까지 쌓인다.
+ * 서버마다 따로 계산하므로 전체 허용량은 서버 수에 비례한다.
+ */
+@Component
+public class RequestRateLimiter {
+    private static final long IDLE_EXPIRE_MINUTES = 5;
+    private static final long MAX_CLIENTS = 100_000;
+
+    private final Cache<String, Bucket> buckets;
+    private final int permitsPerMinute;
+
+    public RequestRateLimiter(@Value("${email_filter.rate_limit.permits_per_minute}") int permitsPerMinute) {
+        this.permitsPerMinute = permitsPerMinute;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(IDLE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .maximumSize(MAX_CLIENTS)
+                .build();
+    }
+
+    // 요청을 허용한다면 true
+    public boolean tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    boolean tryAcquire(String clientKey, long nowNanos) {
+        return buckets.get(clientKey, key -> new Bucket(permitsPerMinute, nowNanos))
+                .tryAcquire(permitsPerMinute, nowNanos);
+    }
+
+    private static final class Bucket {
+        private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(int capacity, long nowNanos) {
+            this.tokens = capacity;
+            this.refilledAt = nowNanos;
+        }
+
+        private synchronized boolean tryAcquire(int capacity, long nowNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * capacity / NANOS_PER_MINUTE);
+            refilledAt = nowNanos;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
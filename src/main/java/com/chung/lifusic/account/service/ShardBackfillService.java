@@ -0,0 +1,284 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardingProperties;
+import com.chung.lifusic.account.dto.ShardBackfillResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 재샤딩 도구. 모든 샤드의 유저를 id 순서로 읽어서, 현재 배치 기준 샤드가 아닌 곳에 있는 유저를 옮긴다.
+ * 서비스 중에 실행할 수 있도록 유저 한명씩 "새 샤드에 복사 -> 이전 샤드에서 삭제" 순서로 처리한다.
+ * 복사와 삭제 사이에는 두 샤드에 모두 존재하지만, 조회는 새 샤드를 먼저 확인하므로 문제가 없다.
+ * 복사 직전에 이전 샤드로 라우팅된 변경(비밀번호, 마지막 로그인 등)을 잃지 않도록,
+ * 이전 샤드의 행이 복사한 값과 같을 때만 삭제하고 다르면 최신 값으로 다시 복사한다.
+ * 유저를 옮긴 뒤 그 유저의 login_history, outbox_event도 새 샤드로 옮긴다.
+ *
+ * 재샤딩 순서
+ * 1. sharding.shards에 새 샤드를 추가하고 sharding.previous_shard_count에 기존 샤드 수를 지정해 배포
+ *    (새 샤드에 없는 유저는 이전 샤드에서 읽는다)
+ * 2. POST /api/account/admin/shards/backfill 실행 후 완료될 때까지 대기
+ * 3. sharding.previous_shard_count를 0으로 되돌려 배포
+ * - login_history는 id가 샤드마다 따로 증가하므로 새 id로 복사한다. 복사와 삭제 사이에 중단되면 다시 실행할 때 일부가 중복될 수 있다.
+ * - outbox_event는 id를 유지해서 복사한다. 이동 중에 이전 샤드의 relay가 이미 발행했다면 한번 더 발행될 수 있고,
+ *   이동하는 동안에는 한 유저의 이벤트가 두 샤드에서 발행되므로 소비자는 userSequence로 순서를 맞춰야 한다.
+ */
+@Service
+@Slf4j
+public class ShardBackfillService {
+    private static final String USER_COLUMNS = "id, name, email, password, role, created_date, updated_date, last_login_at, event_sequence";
+    // 복사한 값과 비교할 컬럼 (USER_COLUMNS에서 id를 뺀 순서와 같다)
+    private static final List<String> USER_VERSION_COLUMNS = List.of(
+            "name", "email", "password", "role", "created_date", "updated_date", "last_login_at", "event_sequence");
+    private static final String SELECT_USERS_SQL = "select " + USER_COLUMNS + " from user where id > ? order by id limit ?";
+    private static final String SELECT_USER_SQL = "select " + USER_COLUMNS + " from user where id = ?";
+    private static final String COUNT_USER_SQL = "select count(*) from user where id = ?";
+    private static final String INSERT_USER_SQL = "insert into user (" + USER_COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_USER_SQL = "delete from user where id = ?";
+
+    private static final String SELECT_LOGIN_HISTORY_SQL = "select id, user_id, email, ip, user_agent, success, failure_reason, login_at " +
+            "from login_history where user_id = ? and id > ? order by id limit ?";
+    private static final String INSERT_LOGIN_HISTORY_SQL = "insert into login_history " +
+            "(user_id, email, ip, user_agent, success, failure_reason, login_at) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_LOGIN_HISTORY_SQL = "delete from login_history where id = ?";
+
+    private static final String SELECT_OUTBOX_EVENTS_SQL = "select id, user_id, user_sequence, event_type, payload, created_date, updated_date " +
+            "from outbox_event where user_id = ? order by user_sequence, id";
+    private static final String COUNT_OUTBOX_EVENT_SQL = "select count(*) from outbox_event where id = ?";
+    private static final String INSERT_OUTBOX_EVENT_SQL = "insert into outbox_event " +
+            "(id, user_id, user_sequence, event_type, payload, created_date, updated_date) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_OUTBOX_EVENT_SQL = "delete from outbox_event where id = ?";
+
+    private static final int BATCH_SIZE = 500;
+    // 이전 샤드의 유저가 계속 변경되는 경우 다시 복사하는 최대 횟수
+    private static final int MAX_COPY_ATTEMPTS = 5;
+    private static final RowMapper<Object[]> USER_ROW_MAPPER = (resultSet, rowNum) -> new Object[]{
+            resultSet.getLong(1),
+            resultSet.getString(2),
+            resultSet.getString(3),
+            resultSet.getString(4),
+            resultSet.getString(5),
+            resultSet.getTimestamp(6),
+            resultSet.getTimestamp(7),
+            resultSet.getTimestamp(8),
+            resultSet.getObject(9, Long.class),
+    };
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final int previousShardCount;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ShardBackfillService(ShardRouter shardRouter, JdbcTemplate jdbcTemplate, ShardingProperties properties) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.previousShardCount = properties.getPreviousShardCount();
+    }
+
+    // 백그라운드에서 실행한다. 이미 실행 중이라면 false
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                backfill();
+            } finally {
+                running.set(false);
+            }
+        }, "shard-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public ShardBackfillResponse getStatus() {
+        return ShardBackfillResponse.builder()
+                .running(running.get())
+                .shardCount(shardRouter.getShardCount())
+                .previousShardCount(previousShardCount)
+                .scanned(scanned.get())
+                .moved(moved.get())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+
+    void backfill() {
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        scanned.set(0);
+        moved.set(0);
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                backfillShard(shard);
+            }
+            log.info("ShardBackfillService:: finished. scanned: {}, moved: {}", scanned.get(), moved.get());
+        } catch (Exception exception) {
+            error = exception.getMessage();
+            log.error("ShardBackfillService:: failed. scanned: {}, moved: {}, {}", scanned.get(), moved.get(), exception.getMessage());
+        } finally {
+            finishedAt = Instant.now();
+        }
+    }
+
+    private void backfillShard(int source) {
+        long lastId = 0;
+        while (true) {
+            final long afterId = lastId;
+            List<Object[]> rows = shardRouter.callOn(source, () -> jdbcTemplate.query(SELECT_USERS_SQL, USER_ROW_MAPPER, afterId, BATCH_SIZE));
+            for (Object[] row : rows) {
+                final String email = (String) row[2];
+                final int target = email == null ? source : shardRouter.shardForEmail(email);
+                if (target != source) {
+                    move(row, source, target);
+                }
+            }
+            scanned.addAndGet(rows.size());
+            if (rows.size() < BATCH_SIZE) {
+                return;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    // 새 샤드에 복사한 뒤 이전 샤드에서 삭제. 중간에 실패해 다시 실행해도 중복 저장되지 않는다.
+    void move(Object[] row, int source, int target) {
+        final Long id = (Long) row[0];
+        final boolean copied = shardRouter.callOn(target, () -> {
+            final Integer count = jdbcTemplate.queryForObject(COUNT_USER_SQL, Integer.class, id);
+            if (count == null || count == 0) {
+                jdbcTemplate.update(INSERT_USER_SQL, row);
+                return true;
+            }
+            return false;
+        });
+        if (copied) {
+            deleteCopiedUser(row, source, target);
+        } else {
+            // 이전 실행에서 이미 복사했다. 그 뒤의 변경은 새 샤드로 라우팅되므로 새 샤드의 값이 최신이다.
+            shardRouter.runOn(source, () -> jdbcTemplate.update(DELETE_USER_SQL, id));
+        }
+        moveLoginHistories(id, source, target);
+        moveOutboxEvents(id, source, target);
+        moved.incrementAndGet();
+    }
+
+    // 이전 샤드의 행이 복사한 값 그대로일 때만 삭제한다. 그 사이 변경됐다면 최신 값으로 다시 복사한다.
+    private void deleteCopiedUser(Object[] row, int source, int target) {
+        final Long id = (Long) row[0];
+        Object[] copied = row;
+        for (int attempt = 0; attempt < MAX_COPY_ATTEMPTS; attempt++) {
+            final Object[] expected = copied;
+            if (shardRouter.callOn(source, () -> updateIfUnchanged("delete from user", null, expected)) > 0) {
+                return;
+            }
+            final Object[] latest = shardRouter.callOn(source, () ->
+                    jdbcTemplate.query(SELECT_USER_SQL, USER_ROW_MAPPER, id).stream().findFirst().orElse(null));
+            if (latest == null) {
+                // 복사 후 이전 샤드에서 삭제(탈퇴)됐다. 복사본이 그대로라면 같이 삭제한다.
+                shardRouter.callOn(target, () -> updateIfUnchanged("delete from user", null, expected));
+                return;
+            }
+            final int updated = shardRouter.callOn(target, () -> updateIfUnchanged(
+                    "update user set " + String.join(" = ?, ", USER_VERSION_COLUMNS) + " = ?", latest, expected));
+            if (updated == 0) {
+                // 복사 후 새 샤드에서 변경됐다. 새 샤드의 변경이 더 최근이므로 이전 샤드의 행은 버린다.
+                shardRouter.runOn(source, () -> jdbcTemplate.update(DELETE_USER_SQL, id));
+                return;
+            }
+            copied = latest;
+        }
+        throw new IllegalStateException("User is being updated during backfill. id: " + id);
+    }
+
+    // "<statement> where id = ? and 컬럼이 모두 expected와 같음" 실행. values가 있으면 set 절의 값으로 앞에 붙인다.
+    private int updateIfUnchanged(String statement, Object[] values, Object[] expected) {
+        final StringBuilder sql = new StringBuilder(statement).append(" where id = ?");
+        final List<Object> params = new ArrayList<>();
+        if (values != null) {
+            params.addAll(Arrays.asList(values).subList(1, values.length));
+        }
+        params.add(expected[0]);
+        for (int i = 0; i < USER_VERSION_COLUMNS.size(); i++) {
+            final Object value = expected[i + 1];
+            if (value == null) {
+                sql.append(" and ").append(USER_VERSION_COLUMNS.get(i)).append(" is null");
+            } else {
+                sql.append(" and ").append(USER_VERSION_COLUMNS.get(i)).append(" = ?");
+                params.add(value);
+            }
+        }
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    // login_history의 id는 샤드마다 따로 증가하므로 새 샤드에서 새 id를 받는다.
+    private void moveLoginHistories(Long userId, int source, int target) {
+        long lastId = 0;
+        while (true) {
+            final long afterId = lastId;
+            final List<Object[]> rows = shardRouter.callOn(source, () -> jdbcTemplate.query(SELECT_LOGIN_HISTORY_SQL,
+                    (resultSet, rowNum) -> new Object[]{
+                            resultSet.getLong(1),
+                            resultSet.getObject(2, Long.class),
+                            resultSet.getString(3),
+                            resultSet.getString(4),
+                            resultSet.getString(5),
+                            resultSet.getBoolean(6),
+                            resultSet.getString(7),
+                            resultSet.getTimestamp(8),
+                    }, userId, afterId, BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return;
+            }
+            shardRouter.runOn(target, () -> jdbcTemplate.batchUpdate(INSERT_LOGIN_HISTORY_SQL,
+                    rows.stream().map(row -> Arrays.copyOfRange(row, 1, row.length)).toList()));
+            shardRouter.runOn(source, () -> jdbcTemplate.batchUpdate(DELETE_LOGIN_HISTORY_SQL,
+                    rows.stream().map(row -> new Object[]{row[0]}).toList()));
+            if (rows.size() < BATCH_SIZE) {
+                return;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    // outbox_event의 id는 샤드마다 범위가 나뉘어 겹치지 않으므로 그대로 복사한다.
+    private void moveOutboxEvents(Long userId, int source, int target) {
+        final List<Object[]> rows = shardRouter.callOn(source, () -> jdbcTemplate.query(SELECT_OUTBOX_EVENTS_SQL,
+                (resultSet, rowNum) -> new Object[]{
+                        resultSet.getLong(1),
+                        resultSet.getObject(2, Long.class),
+                        resultSet.getObject(3, Long.class),
+                        resultSet.getString(4),
+                        resultSet.getString(5),
+                        resultSet.getTimestamp(6),
+                        resultSet.getTimestamp(7),
+                }, userId));
+        for (Object[] row : rows) {
+            shardRouter.runOn(target, () -> {
+                final Integer count = jdbcTemplate.queryForObject(COUNT_OUTBOX_EVENT_SQL, Integer.class, row[0]);
+                if (count == null || count == 0) {
+                    jdbcTemplate.update(INSERT_OUTBOX_EVENT_SQL, row);
+                }
+            });
+            shardRouter.runOn(source, () -> jdbcTemplate.update(DELETE_OUTBOX_EVENT_SQL, row[0]));
+        }
+    }
+}
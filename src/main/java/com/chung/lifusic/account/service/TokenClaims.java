@@ -0,0 +1,53 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import java.util.Date;
+
+/**
+ * 서명 검증이 끝난 액세스 토큰의 정보. JWT, compact 토큰 모두 이 형태로 읽는다.
+ * @param subject 유저 이메일
+ * @param sessionId 세션 id (jti)
+ * @param userId 유저 id (세션 저장소 키)
+ * @param role 발급 당시 권한. JWT에는 없으므로 null
+ * @param issuedAt 발급 시각 (epoch ms, 초 단위로 잘림)
+ * @param expiresAt 만료 시각 (epoch ms, 초 단위로 잘림)
+ */
+public record TokenClaims(String subject, String sessionId, long userId, Role role, long issuedAt, long expiresAt) {
+    static final String USER_ID_CLAIM = "uid"; // 세션 저장소 키로 사용하는 유저 id
+
+    /**
+     * @return uid, jti, 만료 시각이 없는 JWT(이전 형식으로 발급된 토큰)라면 null
+     */
+    static TokenClaims fromJwt(Claims claims) {
+        final Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null || claims.getId() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.getId(),
+                userId.longValue(),
+                null,
+                claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime(),
+                claims.getExpiration().getTime()
+        );
+    }
+
+    // JWT Claims 형태로 변환 (extractClaim 용)
+    Claims toJwtClaims() {
+        final Claims claims = Jwts.claims()
+                .setSubject(subject)
+                .setId(sessionId)
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(expiresAt));
+        claims.put(USER_ID_CLAIM, userId);
+        return claims;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
@@ -0,0 +1,101 @@
+package com.chung.lifusic.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서명 검증이 끝난 토큰의 claims를 토큰 digest(SHA-256) 기준으로 저장하는 캐시.
+ * 같은 토큰으로 다시 요청하면 Base64 디코딩, JSON 파싱, HMAC 검증 없이 claims를 돌려준다.
+ * 각 항목은 토큰의 만료 시각(exp)이 지나면 사라지고, 전체 크기는 항목 수가 아니라 추정 메모리 크기로 제한한다.
+ * 세션 만료(로그아웃) 여부는 캐시하지 않으므로 Redis 확인은 그대로 필요하다.
+ */
+@Component
+public class VerifiedTokenCache {
+    // 항목 하나당 고정 비용 추정치 (캐시 노드, digest 문자열, Claims 맵 헤더)
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    // claim 하나당 고정 비용 추정치 (맵 엔트리, key 문자열 헤더, 값 객체 헤더)
+    private static final int CLAIM_OVERHEAD_BYTES = 96;
+
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(@Value("${security.jwt.verified_cache_max_bytes}") long maxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String digest, Claims claims) -> weigh(claims))
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // 캐시된 claims. 없거나 만료되었으면 null
+    public Claims get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    // 서명 검증이 끝난 claims만 저장해야 한다. 만료 시각이 없거나 지난 토큰은 저장하지 않는다.
+    public void put(String token, Claims claims) {
+        if (remainingNanos(claims) <= 0) {
+            return;
+        }
+        cache.put(digest(token), claims);
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static long remainingNanos(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    // claims가 차지하는 메모리 크기 추정 (문자열은 Latin-1 기준 1byte/char)
+    private static int weigh(Claims claims) {
+        int weight = ENTRY_OVERHEAD_BYTES;
+        for (Map.Entry<String, Object> entry : claims.entrySet()) {
+            weight += CLAIM_OVERHEAD_BYTES + entry.getKey().length();
+            if (entry.getValue() instanceof CharSequence value) {
+                weight += value.length();
+            }
+        }
+        return weight;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.converter.AuthResponseHttpMessageConverter;
+import com.chung.lifusic.account.dto.AuthenticationResponse;
+import com.chung.lifusic.account.dto.CommonResponse;
+import com.chung.lifusic.account.dto.GetUserResponse;
+import com.chung.lifusic.account.dto.SessionResponse;
+import com.chung.lifusic.account.entity.TokenSession;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.filter.JwtAuthenticationFilter;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 배포 직후 첫 요청들이 인터프리터로 실행되어 응답 시간이 튀지 않도록,
+ * 트래픽을 받기 전에 자주 쓰이는 코드를 미리 실행해 JIT 컴파일을 유도한다.
+ * - JwtService 토큰 발급, 파싱 / JwtAuthenticationFilter / 응답 직렬화 / 비밀번호 검증
+ * - DB, Redis 대신 메모리에 있는 유저와 세션을 사용한다.
+ * 정해진 반복 횟수(컴파일 기준)를 채우거나 time_budget_ms가 지나면 완료되고, 그때부터 readiness가 ok를 반환한다.
+ */
+@Service
+@Slf4j
+public class WarmUpService {
+    private static final String WARM_UP_EMAIL = "warmup@lifusic.local";
+    private static final String WARM_UP_PASSWORD = "warm-up-password";
+    private static final long WARM_UP_TOKEN_CACHE_BYTES = 1024 * 1024;
+    private static final long WARM_UP_LOOKUP_TIMEOUT_MS = 1000;
+
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+
+    @Value("${warmup.enabled}")
+    private boolean ENABLED;
+
+    @Value("${warmup.iterations}")
+    private int ITERATIONS; // 토큰, 필터, 직렬화 반복 횟수. C2 컴파일 기준(Tier4 약 15000회 호출) 정도로 잡는다.
+
+    @Value("${warmup.password_iterations}")
+    private int PASSWORD_ITERATIONS; // 비밀번호 검증 반복 횟수. 한번에 수십~수백 ms가 걸리므로 적게 잡는다.
+
+    @Value("${warmup.time_budget_ms}")
+    private long TIME_BUDGET_MS; // 반복 횟수를 채우지 못해도 이 시간이 지나면 완료로 처리
+
+    private final AtomicInteger completedIterations = new AtomicInteger();
+    private final AtomicInteger completedPasswordIterations = new AtomicInteger();
+    private volatile boolean completed = false;
+    private volatile long elapsedMillis = 0;
+
+    public WarmUpService(
+            JwtService jwtService,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        Gauge.builder("warmup.iterations", completedIterations, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("warmup.password.iterations", completedPasswordIterations, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("warmup.progress", this, WarmUpService::getProgress).register(meterRegistry);
+        Gauge.builder("warmup.completed", this, service -> service.completed ? 1 : 0).register(meterRegistry);
+        Gauge.builder("warmup.elapsed", this, service -> service.elapsedMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!ENABLED) {
+            completed = true;
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    // 0 ~ 1
+    public double getProgress() {
+        if (completed) {
+            return 1;
+        }
+        final double total = (double) ITERATIONS + PASSWORD_ITERATIONS;
+        return total == 0 ? 0 : (completedIterations.get() + completedPasswordIterations.get()) / total;
+    }
+
+    void warmUp() {
+        final long startedAt = System.currentTimeMillis();
+        final long deadline = startedAt + TIME_BUDGET_MS;
+        try {
+            final User user = User.builder()
+                    .id(0L)
+                    .email(WARM_UP_EMAIL)
+                    .name("warmup")
+                    .role(Role.CUSTOMER)
+                    .password(passwordEncoder.encode(WARM_UP_PASSWORD))
+                    .build();
+            final JwtService warmUpJwtService = jwtService.withStores(
+                    new InMemoryTokenSessionRepository(), new VerifiedTokenCache(WARM_UP_TOKEN_CACHE_BYTES),
+                    new NoOpAuthAnalyticsRecorder());
+            // 유저 조회는 메모리에서 바로 끝나므로 별도 스레드 없이 요청 스레드에서 실행한다.
+            final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+                    warmUpJwtService, username -> user, objectMapper, Runnable::run, WARM_UP_LOOKUP_TIMEOUT_MS);
+            final AuthResponseHttpMessageConverter converter = new AuthResponseHttpMessageConverter();
+            final BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+            final HttpServletResponse response = stub(HttpServletResponse.class, Map.of());
+            final FilterChain filterChain = (servletRequest, servletResponse) -> { };
+            final int passwordEvery = PASSWORD_ITERATIONS <= 0 ? Integer.MAX_VALUE : Math.max(1, ITERATIONS / PASSWORD_ITERATIONS);
+
+            for (int i = 0; i < ITERATIONS && System.currentTimeMillis() < deadline; i++) {
+                // 토큰 발급 -> 필터에서 파싱, 검증 (매번 새 토큰이므로 캐시를 거치지 않고 파싱한다)
+                final String token = warmUpJwtService.generateToken(user);
+                final HttpServletRequest request = stub(HttpServletRequest.class, Map.of(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+                try {
+                    filter.doFilter(request, response, filterChain);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+
+                // 응답 직렬화
+                outputMessage.reset();
+                converter.write(AuthenticationResponse.builder().token(token).build(), MediaType.APPLICATION_JSON, outputMessage);
+                converter.write(CommonResponse.SUCCESS, MediaType.APPLICATION_JSON, outputMessage);
+                converter.write(GetUserResponse.builder()
+                        .id(user.getId())
+                        .email(user.getEmail())
+                        .name(user.getName())
+                        .role(user.getRole().name().toLowerCase())
+                        .build(), MediaType.APPLICATION_JSON, outputMessage);
+                objectMapper.writeValueAsBytes(SessionResponse.builder()
+                        .sessionId(warmUpJwtService.extractSessionId(token))
+                        .issuedAt(Instant.now())
+                        .expiresAt(Instant.now())
+                        .current(true)
+                        .build());
+                completedIterations.incrementAndGet();
+
+                if (i % passwordEvery == 0 && completedPasswordIterations.get() < PASSWORD_ITERATIONS) {
+                    passwordEncoder.matches(WARM_UP_PASSWORD, user.getPassword());
+                    completedPasswordIterations.incrementAndGet();
+                }
+            }
+        } catch (Exception exception) {
+            // 워밍업 실패로 서비스가 시작되지 않으면 안 되므로 완료로 처리한다.
+            log.error("WarmUpService:: warm-up failed: {}", exception.getMessage());
+        } finally {
+            elapsedMillis = System.currentTimeMillis() - startedAt;
+            completed = true;
+            log.info("WarmUpService:: completed. iterations: {}/{}, password iterations: {}/{}, elapsed: {}ms",
+                    completedIterations.get(), ITERATIONS, completedPasswordIterations.get(), PASSWORD_ITERATIONS, elapsedMillis);
+        }
+    }
+
+    /**
+     * 필터 실행에 필요한 만큼만 동작하는 요청/응답 객체.
+     * 헤더는 headers에서 읽고, attribute는 내부 Map에 저장하고, 나머지는 기본값을 반환한다.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, String> headers) {
+        final Map<String, Object> attributes = new HashMap<>();
+        return (T) Proxy.newProxyInstance(WarmUpService.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getHeader" -> headers.get((String) args[0]);
+                    case "getAttribute" -> attributes.get((String) args[0]);
+                    case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                    case "removeAttribute" -> attributes.remove((String) args[0]);
+                    case "getRemoteHost", "getRemoteAddr" -> "127.0.0.1";
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    case "getRequestURI" -> "/api/account/me";
+                    case "getMethod" -> "GET";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + "(warm-up)";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    // 워밍업 중 발급한 세션은 저장하지 않고 항상 유효한 것으로 처리한다.
+    private static class InMemoryTokenSessionRepository extends TokenSessionRepository {
+        InMemoryTokenSessionRepository() {
+            super(null);
+        }
+
+        @Override
+        public List<Long> save(long userId, TokenSession session, String token, int maxSessions) {
+            return List.of();
+        }
+
+        @Override
+        public boolean isActive(long userId, String sessionId, String token) {
+            return true;
+        }
+
+        @Override
+        public List<Long> renew(long userId, String previousSessionId, String previousToken,
+                                TokenSession session, String token, long graceUntil, int maxSessions) {
+            return List.of();
+        }
+    }
+
+    // 워밍업 중 발급, 갱신한 세션은 통계에 넣지 않는다.
+    private static class NoOpAuthAnalyticsRecorder implements AuthAnalyticsRecorder {
+        @Override
+        public void recordLogin(long userId) {
+        }
+
+        @Override
+        public void recordRenewal(long userId, String previousSessionId) {
+        }
+
+        @Override
+        public void recordSessionsEnded(List<Long> issuedAts) {
+        }
+    }
+
+    private static class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+
+        @Override
+        public ByteArrayOutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        void reset() {
+            headers.clear();
+            body.reset();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.chung.lifusic.account.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("같은 키로 동시에 호출하면 loader는 한번만 실행되고 모두 같은 결과를 받는다")
+    @Test
+    public void shareInFlightCall() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 1; i < CALLERS; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        waitForShared(CALLERS - 1);
+        release.countDown();
+
+        // then
+        Assertions.assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            Assertions.assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1.0, meterRegistry.counter("single_flight.calls", "name", "test", "result", "executed").count());
+        Assertions.assertEquals(CALLERS - 1.0, meterRegistry.counter("single_flight.calls", "name", "test", "result", "shared").count());
+        Assertions.assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @DisplayName("실행이 끝난 뒤의 호출이나 다른 키의 호출은 loader를 다시 실행한다")
+    @Test
+    public void notCacheCompletedCall() {
+        // given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        singleFlight.execute("a", loads::incrementAndGet);
+        singleFlight.execute("a", loads::incrementAndGet);
+        singleFlight.execute("b", loads::incrementAndGet);
+
+        // then
+        Assertions.assertEquals(3, loads.get());
+        Assertions.assertEquals(0.0, meterRegistry.counter("single_flight.calls", "name", "test", "result", "shared").count());
+    }
+
+    @DisplayName("loader가 실패하면 기다리던 호출들도 같은 예외를 받는다")
+    @Test
+    public void propagateFailureToWaiters() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("db down");
+
+        // when
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        waitForShared(1);
+        release.countDown();
+
+        // then
+        ExecutionException leaderException = Assertions.assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerException = Assertions.assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(failure, leaderException.getCause());
+        Assertions.assertSame(failure, followerException.getCause());
+        Assertions.assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @DisplayName("기다리는 호출은 timeout이 지나면 TimeoutExceededException을 던지고, 먼저 시작한 호출은 계속 실행된다")
+    @Test
+    public void timeoutWaiter() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 50, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // then
+        Assertions.assertThrows(SingleFlight.TimeoutExceededException.class, () -> singleFlight.execute("key", () -> "other"));
+        Assertions.assertEquals(1.0, meterRegistry.counter("single_flight.timeouts", "name", "test").count());
+        release.countDown();
+        Assertions.assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @DisplayName("executor를 지정하면 먼저 온 호출도 timeout이 지나면 TimeoutExceededException을 던진다")
+    @Test
+    public void timeoutLeaderWithExecutor() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 50, executor, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        Assertions.assertThrows(SingleFlight.TimeoutExceededException.class, () -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+
+        // then
+        Assertions.assertEquals(1, singleFlight.getInFlightCount()); // loader는 계속 실행 중
+        release.countDown();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getInFlightCount() > 0) {
+            Assertions.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals("other", singleFlight.execute("key", () -> "other"));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    // 기다리는 호출들이 모두 in-flight 호출에 합류할 때까지 대기
+    private void waitForShared(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("single_flight.calls", "name", "test", "result", "shared").count() < count) {
+            Assertions.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chung.lifusic.account.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+public class IteratedPbkdf2PasswordEncoderTest {
+
+    @DisplayName("반복 횟수가 현재 설정보다 적은 해시만 업그레이드 대상")
+    @Test
+    public void upgradeWhenIterationsAreLower() {
+        // given
+        IteratedPbkdf2PasswordEncoder weak = new IteratedPbkdf2PasswordEncoder(1000);
+        IteratedPbkdf2PasswordEncoder strong = new IteratedPbkdf2PasswordEncoder(2000);
+
+        // when
+        String weakHash = weak.encode("1234");
+        String strongHash = strong.encode("1234");
+
+        // then
+        Assertions.assertTrue(weakHash.startsWith("1000$"));
+        Assertions.assertTrue(strong.upgradeEncoding(weakHash));
+        Assertions.assertFalse(strong.upgradeEncoding(strongHash));
+        Assertions.assertFalse(weak.upgradeEncoding(strongHash));
+        // 저장된 반복 횟수로 검증하므로 설정이 바뀌어도 기존 해시로 로그인할 수 있다.
+        Assertions.assertTrue(strong.matches("1234", weakHash));
+        Assertions.assertFalse(strong.matches("5678", weakHash));
+    }
+
+    @DisplayName("반복 횟수가 없는 기존 해시는 설정된 반복 횟수로 검증하고 업그레이드 대상")
+    @Test
+    public void verifyAndUpgradeLegacyHash() {
+        // given
+        IteratedPbkdf2PasswordEncoder encoder = new IteratedPbkdf2PasswordEncoder(1000);
+        String legacyHash = new Pbkdf2PasswordEncoder("", 16, 1000,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256).encode("1234");
+
+        // then
+        Assertions.assertTrue(encoder.matches("1234", legacyHash));
+        Assertions.assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+}
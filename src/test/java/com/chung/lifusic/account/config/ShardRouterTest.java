@@ -0,0 +1,76 @@
+package com.chung.lifusic.account.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ShardRouterTest {
+
+    @DisplayName("샤딩을 사용하지 않으면 모든 유저가 0번 샤드")
+    @Test
+    public void singleShardWhenDisabled() {
+        // given
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+        // then
+        Assertions.assertEquals(1, shardRouter.getShardCount());
+        Assertions.assertEquals(0, shardRouter.shardForEmail("test@email.com"));
+        Assertions.assertEquals(-1, shardRouter.previousShardForEmail("test@email.com"));
+    }
+
+    @DisplayName("대소문자가 달라도 같은 샤드")
+    @Test
+    public void ignoreCase() {
+        // given
+        ShardRouter shardRouter = new ShardRouter(getProperties(4, 0));
+
+        // then
+        Assertions.assertEquals(shardRouter.shardForEmail("test@email.com"), shardRouter.shardForEmail("Test@Email.COM"));
+    }
+
+    @DisplayName("샤드를 늘리면 새 샤드로 가는 유저만 옮겨지고, 유저는 고르게 나뉜다")
+    @Test
+    public void minimalMovementOnGrow() {
+        // given
+        final int users = 30000;
+        ShardRouter shardRouter = new ShardRouter(getProperties(3, 2));
+        int[] counts = new int[3];
+        int moved = 0;
+
+        // when
+        for (int i = 0; i < users; i++) {
+            final String email = "user" + i + "@email.com";
+            final int shard = shardRouter.shardForEmail(email);
+            final int previousShard = shardRouter.previousShardForEmail(email);
+            counts[shard]++;
+            if (shard != previousShard) {
+                moved++;
+                // 옮겨지는 유저는 모두 새로 추가한 샤드로 간다.
+                Assertions.assertEquals(2, shard);
+            }
+        }
+
+        // then
+        Assertions.assertEquals(counts[2], moved);
+        for (int count : counts) {
+            Assertions.assertEquals(users / 3.0, count, users * 0.02);
+        }
+    }
+
+    @DisplayName("id 상위 비트로 최초 저장 샤드를 알 수 있다")
+    @Test
+    public void shardOfId() {
+        Assertions.assertEquals(0, ShardRouter.shardOfId(12345L));
+        Assertions.assertEquals(3, ShardRouter.shardOfId(ShardRouter.firstIdOf(3) + 12345L));
+    }
+
+    private ShardingProperties getProperties(int shards, int previousShards) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setPreviousShardCount(previousShards);
+        for (int i = 0; i < shards; i++) {
+            properties.getShards().add(new ShardingProperties.Shard());
+        }
+        return properties;
+    }
+}
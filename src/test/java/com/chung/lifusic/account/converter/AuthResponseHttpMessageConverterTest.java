@@ -0,0 +1,70 @@
+package com.chung.lifusic.account.converter;
+
+import com.chung.lifusic.account.dto.AuthenticationResponse;
+import com.chung.lifusic.account.dto.CommonResponse;
+import com.chung.lifusic.account.dto.ErrorResponse;
+import com.chung.lifusic.account.dto.GetUserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+
+public class AuthResponseHttpMessageConverterTest {
+    private final AuthResponseHttpMessageConverter converter = new AuthResponseHttpMessageConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DisplayName("공통 응답은 미리 인코딩한 본문과 Content-Length로 쓴다")
+    @Test
+    public void writeCommonResponse() throws Exception {
+        // when
+        MockHttpOutputMessage message = write(CommonResponse.SUCCESS);
+
+        // then
+        Assertions.assertEquals("{\"success\":true}", message.getBodyAsString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(16, message.getHeaders().getContentLength());
+        assertSameAsJackson(CommonResponse.builder().success(false).build());
+    }
+
+    @DisplayName("토큰 응답은 Jackson 직렬화 결과와 같다")
+    @Test
+    public void writeAuthenticationResponse() throws Exception {
+        assertSameAsJackson(AuthenticationResponse.builder().token("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ0ZXN0In0.abc-_").build());
+        assertSameAsJackson(AuthenticationResponse.builder().build());
+    }
+
+    @DisplayName("유저 응답은 특수 문자, 한글, 이모지가 있어도 Jackson 직렬화 결과와 같다")
+    @Test
+    public void writeGetUserResponse() throws Exception {
+        assertSameAsJackson(GetUserResponse.builder()
+                .id(1234567890123L)
+                .email("test@email.com")
+                .name("홍길동 \"quote\" \\ \n\t\u0001 😀")
+                .role("customer")
+                .build());
+        assertSameAsJackson(GetUserResponse.builder().id(-1L).build());
+    }
+
+    @DisplayName("지원하지 않는 타입은 처리하지 않는다")
+    @Test
+    public void supportsOnlyAuthResponses() {
+        Assertions.assertTrue(converter.canWrite(GetUserResponse.class, MediaType.APPLICATION_JSON));
+        Assertions.assertFalse(converter.canWrite(ErrorResponse.class, MediaType.APPLICATION_JSON));
+        Assertions.assertFalse(converter.canRead(CommonResponse.class, MediaType.APPLICATION_JSON));
+    }
+
+    private void assertSameAsJackson(Object response) throws Exception {
+        String expected = objectMapper.writeValueAsString(response);
+        String actual = write(response).getBodyAsString(StandardCharsets.UTF_8);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    private MockHttpOutputMessage write(Object response) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.chung.lifusic.account.filter;
+
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ConcurrencyLimitFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @DisplayName("요청 처리 중 Error가 발생해도 permit을 돌려준다")
+    @Test
+    public void releasePermitOnError() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 1, 1, 1000, 2.0, 0.2, 0, 1, meterRegistry);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, new ObjectMapper());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/account/me");
+
+        // when
+        Assertions.assertThrows(StackOverflowError.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, servletResponse) -> {
+                    throw new StackOverflowError();
+                }));
+
+        // then
+        Assertions.assertEquals(0.0, meterRegistry.get("concurrency_limit.in_flight").gauge().value());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assertions.assertDoesNotThrow(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/account/me"), response,
+                (servletRequest, servletResponse) -> { }));
+        Assertions.assertEquals(200, response.getStatus()); // 한도 1개가 남아 있어 거절되지 않는다.
+    }
+}
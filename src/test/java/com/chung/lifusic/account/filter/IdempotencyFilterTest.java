@@ -0,0 +1,195 @@
+package com.chung.lifusic.account.filter;
+
+import com.chung.lifusic.account.repository.IdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Redis 프로토콜 대역(jedis-mock)으로 첫 응답 저장과 재사용을 확인한다.
+public class IdempotencyFilterTest {
+    private static final String SECRET_KEY = "dGVzdC1zZWNyZXQta2V5LWZvci1saWZ1c2ljLWFjY291bnQtc2VydmVyLTAxMjM0NTY3ODk=";
+    private static final String LOGIN_BODY = "{\"email\":\"test@email.com\",\"password\":\"1234\"}";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+    private IdempotencyFilter idempotencyFilter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(redisServer.getHost(), redisServer.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        idempotencyFilter = new IdempotencyFilter(new IdempotencyRepository(redisTemplate), new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyFilter, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(idempotencyFilter, "ENABLED", true);
+        ReflectionTestUtils.setField(idempotencyFilter, "PENDING_TTL_MS", 10_000L);
+        ReflectionTestUtils.setField(idempotencyFilter, "REPLAY_TTL_MS", 60_000L);
+        ReflectionTestUtils.setField(idempotencyFilter, "RETRY_AFTER_SECONDS", 1L);
+        ReflectionTestUtils.setField(idempotencyFilter, "MAX_BODY_BYTES", 16_384);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @DisplayName("같은 키와 본문으로 다시 보낸 요청은 처리하지 않고 첫 응답을 돌려준다")
+    @Test
+    public void replayFirstResponse() throws Exception {
+        // given
+        FilterChain chain = respondWith(200, "{\"token\":\"first\"}");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        // when
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), first, chain);
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), second, chain);
+
+        // then
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals("{\"token\":\"first\"}", first.getContentAsString());
+        Assertions.assertEquals(200, second.getStatus());
+        Assertions.assertEquals("{\"token\":\"first\"}", second.getContentAsString());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getContentType());
+        Assertions.assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        Assertions.assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @DisplayName("본문이 다르거나 키가 없는 요청은 매번 처리한다")
+    @Test
+    public void executeWhenBodyDiffers() throws Exception {
+        // given
+        FilterChain chain = respondWith(200, "{\"token\":\"t\"}");
+
+        // when
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), new MockHttpServletResponse(), chain);
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY.replace("1234", "5678")), new MockHttpServletResponse(), chain);
+        idempotencyFilter.doFilter(getLoginRequest(null, LOGIN_BODY), new MockHttpServletResponse(), chain);
+        idempotencyFilter.doFilter(getLoginRequest(null, LOGIN_BODY), new MockHttpServletResponse(), chain);
+
+        // then
+        Assertions.assertEquals(4, executions.get());
+    }
+
+    @DisplayName("서버 오류 응답은 저장하지 않으므로 같은 키로 다시 처리한다")
+    @Test
+    public void retryAfterServerError() throws Exception {
+        // given
+        FilterChain chain = respondWith(500, "{\"msg\":\"error\"}");
+
+        // when
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), new MockHttpServletResponse(), chain);
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), new MockHttpServletResponse(), chain);
+
+        // then
+        Assertions.assertEquals(2, executions.get());
+    }
+
+    @DisplayName("처리 중인 요청과 같은 요청은 기다리지 않고 409, 처리가 끝난 뒤 다시 보내면 같은 응답을 받는다")
+    @Test
+    public void conflictWhileInFlight() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            Assertions.assertTrue(release.await(5, TimeUnit.SECONDS));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write("{\"token\":\"slow\"}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse duplicate = new MockHttpServletResponse();
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+
+        // when
+        Future<?> firstRequest = executor.submit(() -> {
+            idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), first, chain);
+            return null;
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), duplicate, chain);
+        release.countDown();
+        firstRequest.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), retried, chain);
+
+        // then
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(409, duplicate.getStatus());
+        Assertions.assertEquals("1", duplicate.getHeader("Retry-After"));
+        Assertions.assertEquals("{\"token\":\"slow\"}", first.getContentAsString());
+        Assertions.assertEquals("{\"token\":\"slow\"}", retried.getContentAsString());
+        Assertions.assertEquals("true", retried.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @DisplayName("저장된 응답 본문(토큰)은 암호화되어 Redis 값에 그대로 남지 않는다")
+    @Test
+    public void encryptStoredResponse() throws Exception {
+        // given
+        FilterChain chain = respondWith(200, "{\"token\":\"secret-token\"}");
+
+        // when
+        idempotencyFilter.doFilter(getLoginRequest("key-1", LOGIN_BODY), new MockHttpServletResponse(), chain);
+
+        // then
+        Set<String> keys = redisTemplate.keys("IDEMPOTENCY:*");
+        Assertions.assertEquals(1, keys.size());
+        String stored = redisTemplate.opsForValue().get(keys.iterator().next());
+        Assertions.assertNotNull(stored);
+        Assertions.assertFalse(stored.contains("secret-token"));
+    }
+
+    private FilterChain respondWith(int status, String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            // 필터가 본문을 먼저 읽었더라도 컨트롤러에서 다시 읽을 수 있어야 한다.
+            Assertions.assertTrue(request.getInputStream().readAllBytes().length > 0);
+            ((HttpServletResponse) response).setStatus(status);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletRequest getLoginRequest(String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/account/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,253 @@
+package com.chung.lifusic.account.filter;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.common.SingleFlight;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.service.JwtService;
+import com.chung.lifusic.account.service.TokenClaims;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+    private static final String TOKEN = "token";
+
+    @Mock
+    private JwtService jwtService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final User user = User.builder()
+            .id(1L)
+            .email("test@email.com")
+            .name("test")
+            .role(Role.CUSTOMER)
+            .password("1234")
+            .build();
+    private final TokenClaims claims = new TokenClaims(user.getEmail(), "session-1", user.getId(), Role.CUSTOMER,
+            System.currentTimeMillis(), System.currentTimeMillis() + 60_000);
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        executor.shutdownNow();
+    }
+
+    @DisplayName("유저 조회와 세션 확인을 동시에 실행하고, 둘 다 성공하면 인증한다")
+    @Test
+    public void loadUserAndCheckSessionConcurrently() throws Exception {
+        // given
+        // 순서대로 실행한다면 서로를 기다리다 기한(2초)이 지나 인증되지 않는다.
+        CountDownLatch userLoadStarted = new CountDownLatch(1);
+        CountDownLatch sessionCheckStarted = new CountDownLatch(1);
+        UserDetailsService userDetailsService = username -> {
+            userLoadStarted.countDown();
+            await(sessionCheckStarted);
+            return user;
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 2000);
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willAnswer(invocation -> {
+            sessionCheckStarted.countDown();
+            return await(userLoadStarted);
+        });
+
+        // when
+        filter.doFilter(getRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Assertions.assertNotNull(authentication);
+        Assertions.assertEquals(user, authentication.getPrincipal());
+        Assertions.assertEquals(claims.sessionId(), authentication.getCredentials());
+    }
+
+    @DisplayName("세션이 없다면 유저 조회를 기다리지 않고 인증하지 않는다")
+    @Test
+    public void skipUserLoadWhenSessionIsRevoked() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        UserDetailsService userDetailsService = username -> {
+            await(release);
+            return user;
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 2000);
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willReturn(false);
+
+        // when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long startedAt = System.nanoTime();
+        filter.doFilter(getRequest(), response, new MockFilterChain());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        release.countDown();
+
+        // then
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertEquals(503, response.getStatus());
+        Assertions.assertTrue(elapsedMillis < 1000, "elapsed: " + elapsedMillis);
+    }
+
+    @DisplayName("유저 조회가 기한 안에 끝나지 않으면 인증하지 않고 503으로 응답한다")
+    @Test
+    public void rejectWhenUserLoadTimesOut() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        UserDetailsService userDetailsService = username -> {
+            await(release);
+            return user;
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 100);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willReturn(true);
+
+        // when
+        filter.doFilter(getRequest(), response, filterChain);
+        release.countDown();
+
+        // then
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertEquals(503, response.getStatus());
+        Assertions.assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertNull(filterChain.getRequest()); // 다음 필터로 넘기지 않는다.
+    }
+
+    @DisplayName("세션 확인이 기한 안에 끝나지 않으면 인증하지 않고 503으로 응답한다")
+    @Test
+    public void rejectWhenSessionCheckTimesOut() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        UserDetailsService userDetailsService = username -> user;
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 100);
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willAnswer(invocation -> await(release));
+
+        // when
+        long startedAt = System.nanoTime();
+        filter.doFilter(getRequest(), new MockHttpServletResponse(), new MockFilterChain());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        release.countDown();
+
+        // then
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertTrue(elapsedMillis < 1000, "elapsed: " + elapsedMillis);
+    }
+
+    @DisplayName("세션 확인이 실패하면 유저 조회를 기다리지 않고 예외를 던진다")
+    @Test
+    public void failFastWhenSessionCheckFails() {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        UserDetailsService userDetailsService = username -> {
+            await(release);
+            return user;
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 2000);
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willThrow(new IllegalStateException("redis unavailable"));
+
+        // when
+        long startedAt = System.nanoTime();
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(getRequest(), new MockHttpServletResponse(), new MockFilterChain()));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        release.countDown();
+
+        // then
+        Assertions.assertTrue(elapsedMillis < 1000, "elapsed: " + elapsedMillis);
+    }
+
+    @DisplayName("같은 유저의 조회를 기다리다 시간이 지나면 유저가 없는 것으로 보지 않고 503으로 응답한다")
+    @Test
+    public void rejectWhenCoalescedUserLoadTimesOut() throws Exception {
+        // given
+        UserDetailsService userDetailsService = username -> {
+            throw new SingleFlight.TimeoutExceededException("Timed out waiting for an in-flight call after 50ms");
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 2000);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(claims);
+        given(jwtService.isSessionActive(claims, TOKEN)).willReturn(true);
+
+        // when
+        filter.doFilter(getRequest(), response, new MockFilterChain());
+
+        // then
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Assertions.assertEquals(503, response.getStatus());
+        Assertions.assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @DisplayName("서명 검증에 실패한 토큰은 유저 조회, 세션 확인을 하지 않는다")
+    @Test
+    public void skipLookupsWhenSignatureIsInvalid() throws Exception {
+        // given
+        UserDetailsService userDetailsService = username -> {
+            throw new AssertionError("user must not be loaded");
+        };
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, objectMapper, executor, 2000);
+
+        // mocking
+        given(jwtService.verify(TOKEN)).willReturn(null);
+
+        // when
+        filter.doFilter(getRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtService, never()).isSessionActive(any(), anyString());
+    }
+
+    private MockHttpServletRequest getRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/account/me");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN);
+        return request;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
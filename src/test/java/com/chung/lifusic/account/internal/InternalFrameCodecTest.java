@@ -0,0 +1,85 @@
+package com.chung.lifusic.account.internal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class InternalFrameCodecTest {
+    private static final int MAX_FRAME_BYTES = 1024;
+
+    @DisplayName("인코딩한 프레임을 그대로 디코딩한다")
+    @Test
+    public void encodeAndDecode() {
+        // given
+        InternalFrame frame = new InternalFrame(7, InternalProtocol.VALIDATE_TOKEN, InternalFrameCodec.utf8("token"));
+
+        // when
+        InternalFrame decoded = InternalFrameCodec.decode(InternalFrameCodec.encode(frame), MAX_FRAME_BYTES);
+
+        // then
+        Assertions.assertNotNull(decoded);
+        Assertions.assertEquals(7, decoded.requestId());
+        Assertions.assertEquals(InternalProtocol.VALIDATE_TOKEN, decoded.code());
+        Assertions.assertEquals("token", InternalFrameCodec.utf8(decoded.payload()));
+    }
+
+    @DisplayName("프레임이 나눠서 도착하면 전부 도착할 때까지 읽지 않는다")
+    @Test
+    public void waitForWholeFrame() {
+        // given
+        ByteBuffer encoded = InternalFrameCodec.encode(new InternalFrame(1, InternalProtocol.GET_USER_SUMMARY, new byte[10]));
+        ByteBuffer partial = ByteBuffer.allocate(encoded.remaining());
+        partial.put(encoded.slice(0, 8)).flip();
+
+        // when
+        InternalFrame decoded = InternalFrameCodec.decode(partial, MAX_FRAME_BYTES);
+
+        // then
+        Assertions.assertNull(decoded);
+        Assertions.assertEquals(0, partial.position());
+    }
+
+    @DisplayName("한 버퍼에 여러 프레임이 있으면 순서대로 읽는다")
+    @Test
+    public void decodeMultipleFrames() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put(InternalFrameCodec.encode(new InternalFrame(1, InternalProtocol.VALIDATE_TOKEN, new byte[0])));
+        buffer.put(InternalFrameCodec.encode(new InternalFrame(2, InternalProtocol.GET_USER_SUMMARY, new byte[]{1})));
+        buffer.flip();
+
+        // when
+        InternalFrame first = InternalFrameCodec.decode(buffer, MAX_FRAME_BYTES);
+        InternalFrame second = InternalFrameCodec.decode(buffer, MAX_FRAME_BYTES);
+
+        // then
+        Assertions.assertEquals(1, first.requestId());
+        Assertions.assertEquals(2, second.requestId());
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @DisplayName("최대 크기를 넘는 프레임은 거부한다")
+    @Test
+    public void rejectTooLargeFrame() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(4).putInt(MAX_FRAME_BYTES + 1).flip();
+
+        // when, then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> InternalFrameCodec.decode(buffer, MAX_FRAME_BYTES));
+    }
+
+    @DisplayName("응답 payload의 숫자와 문자열을 순서대로 읽을 수 있다")
+    @Test
+    public void writePayload() {
+        // when
+        ByteBuffer payload = ByteBuffer.wrap(new InternalFrameCodec.PayloadWriter(1L, "test@email.com", "테스트").toBytes());
+
+        // then
+        Assertions.assertEquals(1L, payload.getLong());
+        Assertions.assertEquals("test@email.com", InternalFrameCodec.getString(payload));
+        Assertions.assertEquals("테스트", InternalFrameCodec.getString(payload));
+        Assertions.assertFalse(payload.hasRemaining());
+    }
+}
@@ -0,0 +1,151 @@
+package com.chung.lifusic.account.internal;
+
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class InternalProtocolServerTest {
+    private InternalProtocolServer server;
+    private ExecutorService executor;
+
+    @Mock
+    private InternalRequestHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                false, 100, 10, 500, 2.0, 0.2, 1000, 20, new SimpleMeterRegistry());
+        server = new InternalProtocolServer(handler, executor, limiter);
+        ReflectionTestUtils.setField(server, "HOST", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "PORT", 0);
+        ReflectionTestUtils.setField(server, "MAX_FRAME_BYTES", 1024);
+        ReflectionTestUtils.setField(server, "MAX_QUEUED_WRITE_BYTES", 1024L * 1024);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @DisplayName("한 연결로 보낸 여러 요청의 응답을 requestId로 구분해서 받는다")
+    @Test
+    public void multiplexRequests() throws Exception {
+        // given
+        CountDownLatch slowRequest = new CountDownLatch(1);
+
+        // mocking
+        given(handler.handle(any())).willAnswer(invocation -> {
+            InternalFrame request = invocation.getArgument(0);
+            if (request.requestId() == 1) {
+                // 첫번째 요청은 두번째 요청의 응답이 나간 뒤에 끝난다.
+                slowRequest.await(5, TimeUnit.SECONDS);
+            }
+            return new InternalFrame(request.requestId(), InternalProtocol.OK, request.payload());
+        });
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", server.getPort()), 1000);
+            socket.setSoTimeout(5000);
+            OutputStream output = socket.getOutputStream();
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+
+            // when
+            output.write(toBytes(new InternalFrame(1, InternalProtocol.VALIDATE_TOKEN, InternalFrameCodec.utf8("first"))));
+            output.write(toBytes(new InternalFrame(2, InternalProtocol.VALIDATE_TOKEN, InternalFrameCodec.utf8("second"))));
+            output.flush();
+            Map<Integer, String> responses = new HashMap<>();
+            InternalFrame firstResponse = readFrame(input);
+            responses.put(firstResponse.requestId(), InternalFrameCodec.utf8(firstResponse.payload()));
+            slowRequest.countDown();
+            InternalFrame secondResponse = readFrame(input);
+            responses.put(secondResponse.requestId(), InternalFrameCodec.utf8(secondResponse.payload()));
+
+            // then
+            Assertions.assertEquals(2, firstResponse.requestId()); // 먼저 끝난 요청이 먼저 응답된다.
+            Assertions.assertEquals("first", responses.get(1));
+            Assertions.assertEquals("second", responses.get(2));
+        }
+    }
+
+    @DisplayName("쓰기 대기열이 한도를 넘어 요청 읽기를 멈춰도, 응답을 읽으면 나머지 요청을 처리한다")
+    @Test
+    public void resumeReadingAfterResponsesAreWritten() throws Exception {
+        // given
+        server.stop();
+        server = new InternalProtocolServer(handler, executor, new AdaptiveConcurrencyLimiter(
+                false, 100, 10, 500, 2.0, 0.2, 1000, 20, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(server, "HOST", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "PORT", 0);
+        ReflectionTestUtils.setField(server, "MAX_FRAME_BYTES", 1024);
+        ReflectionTestUtils.setField(server, "MAX_QUEUED_WRITE_BYTES", 1L); // 응답 하나만 쌓여도 읽기를 멈춘다.
+        server.start();
+        final int requests = 100;
+
+        // mocking
+        given(handler.handle(any())).willAnswer(invocation -> {
+            InternalFrame request = invocation.getArgument(0);
+            return new InternalFrame(request.requestId(), InternalProtocol.OK, request.payload());
+        });
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", server.getPort()), 1000);
+            socket.setSoTimeout(5000);
+            OutputStream output = socket.getOutputStream();
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+
+            // when
+            for (int i = 1; i <= requests; i++) {
+                output.write(toBytes(new InternalFrame(i, InternalProtocol.VALIDATE_TOKEN, InternalFrameCodec.utf8("request" + i))));
+            }
+            output.flush();
+            Map<Integer, String> responses = new HashMap<>();
+            for (int i = 0; i < requests; i++) {
+                InternalFrame response = readFrame(input);
+                responses.put(response.requestId(), InternalFrameCodec.utf8(response.payload()));
+            }
+
+            // then
+            Assertions.assertEquals(requests, responses.size());
+            Assertions.assertEquals("request" + requests, responses.get(requests));
+        }
+    }
+
+    private static byte[] toBytes(InternalFrame frame) {
+        return InternalFrameCodec.encode(frame).array();
+    }
+
+    private static InternalFrame readFrame(DataInputStream input) throws Exception {
+        final int length = input.readInt();
+        final int requestId = input.readInt();
+        final byte code = input.readByte();
+        final byte[] payload = new byte[length - InternalProtocol.HEADER_BYTES];
+        input.readFully(payload);
+        return new InternalFrame(requestId, code, payload);
+    }
+}
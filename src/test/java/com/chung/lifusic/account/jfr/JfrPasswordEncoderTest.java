@@ -0,0 +1,53 @@
+package com.chung.lifusic.account.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class JfrPasswordEncoderTest {
+
+    @DisplayName("녹화 중이면 비밀번호 검증마다 PasswordHashEvent를 남긴다")
+    @Test
+    @SuppressWarnings("deprecation")
+    public void recordPasswordHashEvent(@TempDir Path directory) throws Exception {
+        // given
+        PasswordEncoder passwordEncoder = new JfrPasswordEncoder(NoOpPasswordEncoder.getInstance(), "bcrypt");
+        Path file = directory.resolve("test.jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable(PasswordHashEvent.class);
+            recording.start();
+            passwordEncoder.matches("1234", "1234");
+            passwordEncoder.matches("1234", "wrong");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.chung.lifusic.account.PasswordHash"))
+                .toList();
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals("matches", events.get(0).getString("operation"));
+        Assertions.assertTrue(events.get(0).getBoolean("matched"));
+        Assertions.assertFalse(events.get(1).getBoolean("matched"));
+    }
+
+    @DisplayName("저장된 해시의 알고리즘 id를 찾는다")
+    @Test
+    public void algorithmOf() {
+        Assertions.assertEquals("argon2", JfrPasswordEncoder.algorithmOf("{argon2}$argon2id$..."));
+        Assertions.assertEquals("bcrypt", JfrPasswordEncoder.algorithmOf("$2a$10$..."));
+        Assertions.assertEquals("bcrypt", JfrPasswordEncoder.algorithmOf(null));
+    }
+}
@@ -0,0 +1,69 @@
+package com.chung.lifusic.account.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * 외부 서비스 없이 애플리케이션 전체를 띄워 부하를 주는 테스트.
+ * DB는 내장 H2, Redis는 jedis-mock(Redis 프로토콜 대역)을 사용한다.
+ * ./gradlew loadTest 로 실행하며 결과는 build/reports/loadtest/result.json 에 저장된다.
+ */
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AccountLoadTest {
+    private static final RedisServer REDIS_SERVER = startRedis();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.redis.host", REDIS_SERVER::getHost);
+        registry.add("spring.redis.port", REDIS_SERVER::getBindPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS_SERVER.stop();
+    }
+
+    @Test
+    public void mixedWorkload() throws Exception {
+        // given
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        LoadTestDriver driver = new LoadTestDriver("http://localhost:" + port, settings);
+
+        // when
+        Map<String, Object> result = driver.run();
+
+        // then
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(result);
+        Files.createDirectories(settings.output().toAbsolutePath().getParent());
+        Files.writeString(settings.output(), json);
+        System.out.println(json);
+        Assertions.assertFalse(result.isEmpty());
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            return RedisServer.newRedisServer().start();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
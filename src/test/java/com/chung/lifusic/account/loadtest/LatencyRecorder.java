@@ -0,0 +1,54 @@
+package com.chung.lifusic.account.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 한 가상 유저(스레드)가 한 엔드포인트에 대해 측정한 응답 시간 기록.
+ * 스레드마다 따로 가지고 있다가 측정이 끝나면 merge 하므로 동기화하지 않는다.
+ */
+public class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count = 0;
+    private long errors = 0;
+    private boolean sorted = false;
+
+    public void record(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        sorted = false;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i]);
+        }
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // percentile: 0~100 사이 값. nearest-rank 방식으로 계산하며 결과는 나노초 단위
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return latencies[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
@@ -0,0 +1,173 @@
+package com.chung.lifusic.account.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 가상 유저들이 회원가입 -> (로그인 -> /me * N -> 로그아웃) * M 을 반복하며 부하를 만든다.
+ * 엔드포인트별 처리량과 p50/p95/p99/p999 응답 시간을 JSON 형태로 정리한다.
+ */
+public class LoadTestDriver {
+    public enum Endpoint {
+        REGISTER, LOGIN, ME, LOGOUT
+    }
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50Ms", "p95Ms", "p99Ms", "p999Ms"};
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong userSequence = new AtomicLong();
+
+    public LoadTestDriver(String baseUrl, LoadTestSettings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public Map<String, Object> run() throws Exception {
+        final long warmUpEndsAt = System.nanoTime() + settings.warmUp().toNanos();
+        final long endsAt = warmUpEndsAt + settings.duration().toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency());
+        List<Future<Map<Endpoint, LatencyRecorder>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                futures.add(executor.submit(() -> runVirtualUser(warmUpEndsAt, endsAt)));
+            }
+            Map<Endpoint, LatencyRecorder> merged = newRecorders();
+            for (Future<Map<Endpoint, LatencyRecorder>> future : futures) {
+                future.get().forEach((endpoint, recorder) -> merged.get(endpoint).merge(recorder));
+            }
+            return report(merged);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Endpoint, LatencyRecorder> runVirtualUser(long warmUpEndsAt, long endsAt) throws Exception {
+        Map<Endpoint, LatencyRecorder> recorders = newRecorders();
+        while (System.nanoTime() < endsAt) {
+            final String email = "loadtest-" + userSequence.incrementAndGet() + "@lifusic.com";
+            final String password = "password-" + email;
+            final String registerBody = String.format(
+                    "{\"name\":\"loadtest\",\"email\":\"%s\",\"role\":\"customer\",\"password\":\"%s\"}", email, password);
+            if (call(recorders, Endpoint.REGISTER, post("/api/account/user", registerBody, null), warmUpEndsAt) == null) {
+                continue;
+            }
+            final String loginBody = String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, password);
+            for (int session = 0; session < settings.sessionsPerUser() && System.nanoTime() < endsAt; session++) {
+                String loginResponse = call(recorders, Endpoint.LOGIN, post("/api/account/login", loginBody, null), warmUpEndsAt);
+                if (loginResponse == null) {
+                    break;
+                }
+                final String token = objectMapper.readTree(loginResponse).path("token").asText();
+                for (int i = 0; i < settings.mePerSession(); i++) {
+                    HttpRequest me = HttpRequest.newBuilder(URI.create(baseUrl + "/api/account/me"))
+                            .header("Authorization", "Bearer " + token)
+                            .GET()
+                            .build();
+                    call(recorders, Endpoint.ME, me, warmUpEndsAt);
+                }
+                call(recorders, Endpoint.LOGOUT, post("/api/account/logout", "", token), warmUpEndsAt);
+            }
+        }
+        return recorders;
+    }
+
+    // 요청을 보내고 성공 시 응답 본문, 실패 시 null 반환. 워밍업 중의 요청은 기록하지 않는다.
+    private String call(Map<Endpoint, LatencyRecorder> recorders, Endpoint endpoint, HttpRequest request, long warmUpEndsAt) {
+        final long start = System.nanoTime();
+        final boolean measured = start >= warmUpEndsAt;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            final long latency = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                if (measured) {
+                    recorders.get(endpoint).recordError();
+                }
+                return null;
+            }
+            if (measured) {
+                recorders.get(endpoint).record(latency);
+            }
+            return response.body();
+        } catch (Exception exception) {
+            if (measured) {
+                recorders.get(endpoint).recordError();
+            }
+            return null;
+        }
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private Map<String, Object> report(Map<Endpoint, LatencyRecorder> recorders) {
+        final double seconds = settings.duration().toNanos() / 1_000_000_000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.forEach((endpoint, recorder) -> {
+            endpoints.put(endpoint.name().toLowerCase(), summarize(recorder, seconds));
+            total.merge(recorder);
+        });
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("concurrency", settings.concurrency());
+        config.put("warmUpSeconds", settings.warmUp().toSeconds());
+        config.put("durationSeconds", settings.duration().toSeconds());
+        config.put("mePerSession", settings.mePerSession());
+        config.put("sessionsPerUser", settings.sessionsPerUser());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", config);
+        result.put("endpoints", endpoints);
+        result.put("total", summarize(total, seconds));
+        return result;
+    }
+
+    private Map<String, Object> summarize(LatencyRecorder recorder, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", recorder.getCount());
+        summary.put("errors", recorder.getErrors());
+        summary.put("throughputPerSec", recorder.getCount() / seconds);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            summary.put(PERCENTILE_NAMES[i], recorder.percentile(PERCENTILES[i]) / 1_000_000.0);
+        }
+        summary.put("maxMs", recorder.percentile(100) / 1_000_000.0);
+        return summary;
+    }
+
+    private static Map<Endpoint, LatencyRecorder> newRecorders() {
+        Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        return recorders;
+    }
+}
@@ -0,0 +1,33 @@
+package com.chung.lifusic.account.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 부하 테스트 설정. 모든 값은 시스템 프로퍼티(loadtest.*)로 바꿀 수 있다.
+ * @param concurrency 동시에 요청을 보내는 가상 유저 수
+ * @param warmUp 측정 전 워밍업 시간. 이 시간 동안의 요청은 결과에 포함하지 않는다.
+ * @param duration 측정 시간
+ * @param mePerSession 로그인 한 번마다 호출할 /me 요청 수
+ * @param sessionsPerUser 가상 유저가 새 계정을 만들기 전까지 로그인/로그아웃을 반복할 횟수
+ * @param output 결과 JSON 파일 경로
+ */
+public record LoadTestSettings(
+        int concurrency,
+        Duration warmUp,
+        Duration duration,
+        int mePerSession,
+        int sessionsPerUser,
+        Path output
+) {
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.concurrency", 16),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup_seconds", 5L)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration_seconds", 30L)),
+                Integer.getInteger("loadtest.me_per_session", 5),
+                Integer.getInteger("loadtest.sessions_per_user", 3),
+                Path.of(System.getProperty("loadtest.output", "build/reports/loadtest/result.json"))
+        );
+    }
+}
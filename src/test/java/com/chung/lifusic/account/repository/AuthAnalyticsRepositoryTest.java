@@ -0,0 +1,97 @@
+package com.chung.lifusic.account.repository;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Instant;
+import java.util.List;
+
+// Redis 프로토콜 대역(jedis-mock)으로 시간 구간별 키와 카운터 합산을 확인한다.
+public class AuthAnalyticsRepositoryTest {
+    private static final int SHARDS = 4;
+    private static final long MINUTE_MS = 60 * 1000;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long NOW = Instant.parse("2026-10-19T10:30:00Z").toEpochMilli();
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private AuthAnalyticsRepository authAnalyticsRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(redisServer.getHost(), redisServer.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        authAnalyticsRepository = new AuthAnalyticsRepository(redisTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @DisplayName("여러 shard에 나눠 기록한 로그인 수를 구간별로 합친다")
+    @Test
+    public void sumLoginsAcrossShards() {
+        // when
+        for (int i = 0; i < 10; i++) {
+            authAnalyticsRepository.recordLogin(i, NOW, i % SHARDS, DAY_MS);
+        }
+        authAnalyticsRepository.recordLogin(1, NOW - 2 * MINUTE_MS, 0, DAY_MS);
+        authAnalyticsRepository.recordLogin(1, NOW - 2 * HOUR_MS, 0, DAY_MS);
+
+        // then
+        Assertions.assertEquals(10, authAnalyticsRepository.sumLogins(NOW, NOW, SHARDS));
+        Assertions.assertEquals(11, authAnalyticsRepository.sumLogins(NOW - 59 * MINUTE_MS, NOW, SHARDS));
+        Assertions.assertEquals(0, authAnalyticsRepository.sumLogins(NOW - MINUTE_MS, NOW - MINUTE_MS, SHARDS));
+    }
+
+    @DisplayName("같은 유저는 활성 유저 수에 한번만 센다")
+    @Test
+    public void countUniqueActiveUsers() {
+        // when
+        authAnalyticsRepository.recordLogin(1, NOW, 0, DAY_MS);
+        authAnalyticsRepository.recordLogin(1, NOW, 1, DAY_MS);
+        authAnalyticsRepository.recordLogin(2, NOW, 2, DAY_MS);
+        authAnalyticsRepository.recordRenewal(3, NOW - 3 * HOUR_MS, NOW - 20 * HOUR_MS, 0, DAY_MS);
+
+        // then
+        Assertions.assertEquals(3, authAnalyticsRepository.countDailyActiveUsers(NOW));
+        Assertions.assertEquals(2, authAnalyticsRepository.countHourlyActiveUsers(NOW, NOW));
+        Assertions.assertEquals(3, authAnalyticsRepository.countHourlyActiveUsers(NOW - 23 * HOUR_MS, NOW));
+        Assertions.assertEquals(0, authAnalyticsRepository.countDailyActiveUsers(NOW - DAY_MS));
+    }
+
+    @DisplayName("로그아웃, 삭제, 갱신된 세션은 발급된 시간의 세션 수에서 뺀다")
+    @Test
+    public void countActiveSessions() {
+        // given
+        long issuedAt = NOW - 5 * HOUR_MS;
+        authAnalyticsRepository.recordLogin(1, issuedAt, 0, DAY_MS);
+        authAnalyticsRepository.recordLogin(2, issuedAt, 1, DAY_MS);
+        authAnalyticsRepository.recordLogin(3, NOW, 2, DAY_MS);
+        authAnalyticsRepository.recordLogin(4, NOW - 2 * DAY_MS, 3, DAY_MS); // 토큰 수명 밖
+
+        // when
+        authAnalyticsRepository.recordSessionsEnded(List.of(issuedAt), 3, DAY_MS);
+        authAnalyticsRepository.recordRenewal(2, NOW, issuedAt, 0, DAY_MS);
+
+        // then
+        Assertions.assertEquals(2, authAnalyticsRepository.sumSessions(NOW - DAY_MS, NOW, SHARDS));
+        Assertions.assertEquals(0, authAnalyticsRepository.sumSessions(issuedAt, issuedAt, SHARDS));
+    }
+}
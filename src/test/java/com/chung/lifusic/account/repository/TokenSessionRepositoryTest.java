@@ -0,0 +1,183 @@
+package com.chung.lifusic.account.repository;
+
+import com.chung.lifusic.account.entity.TokenSession;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.List;
+import java.util.UUID;
+
+// Redis 프로토콜 대역(jedis-mock)으로 Lua 스크립트와 바이너리 인코딩을 확인한다.
+public class TokenSessionRepositoryTest {
+    private static final long USER_ID = 1L;
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private TokenSessionRepository tokenSessionRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(redisServer.getHost(), redisServer.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        tokenSessionRepository = new TokenSessionRepository(redisTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @DisplayName("저장한 세션은 발급한 토큰으로만 유효하다")
+    @Test
+    public void activeOnlyForIssuedToken() {
+        // given
+        TokenSession session = getSession(System.currentTimeMillis());
+
+        // when
+        tokenSessionRepository.save(USER_ID, session, "token", 5);
+
+        // then
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, session.sessionId(), "token"));
+        Assertions.assertFalse(tokenSessionRepository.isActive(USER_ID, session.sessionId(), "other-token"));
+        Assertions.assertFalse(tokenSessionRepository.isActive(2L, session.sessionId(), "token"));
+        Assertions.assertFalse(tokenSessionRepository.isActive(USER_ID, "not-a-session-id", "token"));
+    }
+
+    @DisplayName("최대 세션 수를 넘으면 가장 오래된 세션부터 삭제한다")
+    @Test
+    public void evictOldestSessions() {
+        // given
+        final long now = System.currentTimeMillis();
+        TokenSession oldest = getSession(now - 3000);
+        TokenSession older = getSession(now - 2000);
+        TokenSession newer = getSession(now - 1000);
+        tokenSessionRepository.save(USER_ID, oldest, "oldest", 2);
+        tokenSessionRepository.save(USER_ID, older, "older", 2);
+
+        // when
+        List<Long> evicted = tokenSessionRepository.save(USER_ID, newer, "newer", 2);
+
+        // then
+        Assertions.assertEquals(List.of(oldest.issuedAt()), evicted); // 통계에서 뺄 수 있도록 발급 시각을 돌려준다.
+        List<TokenSession> sessions = tokenSessionRepository.findAll(USER_ID);
+        Assertions.assertEquals(List.of(older.sessionId(), newer.sessionId()),
+                sessions.stream().map(TokenSession::sessionId).toList());
+        Assertions.assertEquals(older.issuedAt(), sessions.get(0).issuedAt()); // 세션 id에서 발급 시각 복원
+        Assertions.assertFalse(tokenSessionRepository.isActive(USER_ID, oldest.sessionId(), "oldest"));
+    }
+
+    @DisplayName("세션 하나 또는 전체를 삭제한다")
+    @Test
+    public void deleteSessions() {
+        // given
+        TokenSession first = getSession(System.currentTimeMillis());
+        TokenSession second = getSession(System.currentTimeMillis());
+        tokenSessionRepository.save(USER_ID, first, "first", 5);
+        tokenSessionRepository.save(USER_ID, second, "second", 5);
+
+        // when, then
+        Assertions.assertEquals(List.of(first.issuedAt()), tokenSessionRepository.delete(USER_ID, first.sessionId()));
+        Assertions.assertNull(tokenSessionRepository.delete(USER_ID, first.sessionId()));
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, second.sessionId(), "second"));
+        Assertions.assertEquals(List.of(second.issuedAt()), tokenSessionRepository.deleteAll(USER_ID));
+        Assertions.assertTrue(tokenSessionRepository.findAll(USER_ID).isEmpty());
+    }
+
+    @DisplayName("갱신하면 새 세션을 저장하고 이전 세션은 grace 시간까지만 유효하며, 두번째 갱신은 무시된다")
+    @Test
+    public void renewSession() {
+        // given
+        final long now = System.currentTimeMillis();
+        TokenSession previous = getSession(now - 1000);
+        TokenSession renewed = getSession(now);
+        TokenSession duplicate = getSession(now);
+        tokenSessionRepository.save(USER_ID, previous, "previous", 5);
+
+        // when
+        List<Long> first = tokenSessionRepository.renew(USER_ID, previous.sessionId(), "previous", renewed, "renewed", now + 60_000, 5);
+        List<Long> second = tokenSessionRepository.renew(USER_ID, previous.sessionId(), "previous", duplicate, "duplicate", now + 60_000, 5);
+
+        // then
+        Assertions.assertEquals(List.of(), first);
+        Assertions.assertNull(second);
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, renewed.sessionId(), "renewed"));
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, previous.sessionId(), "previous"));
+        Assertions.assertFalse(tokenSessionRepository.isActive(USER_ID, duplicate.sessionId(), "duplicate"));
+        TokenSession shortened = tokenSessionRepository.findAll(USER_ID).get(0);
+        Assertions.assertTrue(shortened.expiresAt() <= now + 60_000);
+        // 갱신된 이전 세션은 갱신할 때 통계에서 뺐으므로 발급 시각을 돌려주지 않는다.
+        Assertions.assertEquals(List.of(renewed.issuedAt()), tokenSessionRepository.deleteAll(USER_ID));
+    }
+
+    @DisplayName("남은 시간이 grace 시간보다 짧은 세션도 한번 갱신할 수 있다")
+    @Test
+    public void renewSessionInsideGraceWindow() {
+        // given
+        final long now = System.currentTimeMillis();
+        // 10초 뒤 만료되는 세션. grace(60초)를 적용해도 만료 시각이 그대로이다.
+        TokenSession previous = new TokenSession(TokenSessionRepository.newSessionId(now - HOUR_MS), now - HOUR_MS, now + 10_000);
+        TokenSession renewed = getSession(now);
+        TokenSession duplicate = getSession(now);
+        tokenSessionRepository.save(USER_ID, previous, "previous", 5);
+        final long graceUntil = Math.min(now + 60_000, previous.expiresAt());
+
+        // when
+        List<Long> first = tokenSessionRepository.renew(USER_ID, previous.sessionId(), "previous", renewed, "renewed", graceUntil, 5);
+        List<Long> second = tokenSessionRepository.renew(USER_ID, previous.sessionId(), "previous", duplicate, "duplicate", graceUntil, 5);
+
+        // then
+        Assertions.assertNotNull(first);
+        Assertions.assertNull(second);
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, renewed.sessionId(), "renewed"));
+        Assertions.assertTrue(tokenSessionRepository.isActive(USER_ID, previous.sessionId(), "previous"));
+        Assertions.assertFalse(tokenSessionRepository.isActive(USER_ID, duplicate.sessionId(), "duplicate"));
+    }
+
+    @DisplayName("다른 토큰으로는 세션을 갱신할 수 없다")
+    @Test
+    public void renewRequiresSameToken() {
+        // given
+        TokenSession previous = getSession(System.currentTimeMillis());
+        tokenSessionRepository.save(USER_ID, previous, "previous", 5);
+
+        // when
+        List<Long> renewed = tokenSessionRepository.renew(USER_ID, previous.sessionId(), "forged",
+                getSession(System.currentTimeMillis()), "renewed", System.currentTimeMillis() + 60_000, 5);
+
+        // then
+        Assertions.assertNull(renewed);
+        Assertions.assertEquals(1, tokenSessionRepository.findAll(USER_ID).size());
+    }
+
+    @DisplayName("세션 id는 발급 시각 순서로 정렬되고 발급 시각을 담고 있다")
+    @Test
+    public void timeOrderedSessionId() {
+        // when
+        String first = TokenSessionRepository.newSessionId(1_000L);
+        String second = TokenSessionRepository.newSessionId(2_000L);
+
+        // then
+        Assertions.assertTrue(UUID.fromString(first).compareTo(UUID.fromString(second)) < 0);
+        Assertions.assertEquals(7, UUID.fromString(first).version());
+        Assertions.assertEquals(1_000L, TokenSessionRepository.issuedAtOf(UUID.fromString(first)));
+    }
+
+    private static TokenSession getSession(long issuedAt) {
+        return new TokenSession(TokenSessionRepository.newSessionId(issuedAt), issuedAt, issuedAt + HOUR_MS);
+    }
+}
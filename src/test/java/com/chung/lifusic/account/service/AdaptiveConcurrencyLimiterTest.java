@@ -0,0 +1,133 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter.Permit;
+import com.chung.lifusic.account.service.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long MILLIS = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @DisplayName("한도가 차면 SHEDDABLE, NORMAL, CRITICAL 순으로 거절한다")
+    @Test
+    public void shedByPriority() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = getLimiter(10);
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertNotNull(limiter.tryAcquire(Priority.SHEDDABLE, 0));
+        }
+
+        // when, then
+        Assertions.assertNull(limiter.tryAcquire(Priority.SHEDDABLE, 0)); // 10 * 0.6
+        Assertions.assertNotNull(limiter.tryAcquire(Priority.NORMAL, 0));
+        Assertions.assertNotNull(limiter.tryAcquire(Priority.NORMAL, 0));
+        Assertions.assertNotNull(limiter.tryAcquire(Priority.NORMAL, 0));
+        Assertions.assertNull(limiter.tryAcquire(Priority.NORMAL, 0)); // 10 * 0.9
+        Assertions.assertNotNull(limiter.tryAcquire(Priority.CRITICAL, 0));
+        Assertions.assertNull(limiter.tryAcquire(Priority.CRITICAL, 0));
+        Assertions.assertEquals(10, limiter.getInFlight());
+        Assertions.assertEquals(1.0, meterRegistry.counter("concurrency_limit.rejected", "priority", "sheddable").count());
+        Assertions.assertEquals(1.0, meterRegistry.counter("concurrency_limit.rejected", "priority", "critical").count());
+    }
+
+    @DisplayName("응답 시간이 평소보다 크게 느려지면 한도를 줄인다")
+    @Test
+    public void decreaseLimitWhenLatencyRises() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = getLimiter(100);
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            now = complete(limiter, now, 10 * MILLIS);
+        }
+        final int limitBefore = limiter.getLimit();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            now = complete(limiter, now, 100 * MILLIS);
+        }
+
+        // then
+        Assertions.assertTrue(limiter.getLimit() < limitBefore);
+        Assertions.assertTrue(meterRegistry.counter("concurrency_limit.changes", "direction", "decrease").count() > 0);
+    }
+
+    @DisplayName("평소에도 느린 우선순위의 요청(로그인)이 몰려도, 우선순위별 응답 시간이 그대로라면 한도를 줄이지 않는다")
+    @Test
+    public void keepLimitWhenSlowerPriorityIncreases() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = getLimiter(100);
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            now = complete(limiter, Priority.CRITICAL, now, MILLIS); // /me 1ms
+        }
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            now = complete(limiter, Priority.NORMAL, now, 100 * MILLIS); // 로그인 100ms
+        }
+        now = complete(limiter, Priority.CRITICAL, now, MILLIS);
+
+        // then
+        Assertions.assertEquals(100, limiter.getLimit());
+        Assertions.assertEquals(0.0, meterRegistry.counter("concurrency_limit.changes", "direction", "decrease").count());
+    }
+
+    @DisplayName("응답 시간이 유지되고 한도의 절반 이상을 사용 중이면 한도를 늘린다")
+    @Test
+    public void increaseLimitWhenLatencyIsStable() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = getLimiter(20);
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            permits.add(limiter.tryAcquire(Priority.NORMAL, i * MILLIS));
+        }
+
+        // when
+        for (int i = 0; i < permits.size(); i++) {
+            permits.get(i).release(i * MILLIS + 10 * MILLIS); // 모두 10ms 걸림
+        }
+
+        // then
+        Assertions.assertTrue(limiter.getLimit() > 20);
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @DisplayName("한도를 거의 사용하지 않는다면 한도를 늘리지 않는다")
+    @Test
+    public void keepLimitWhenUnderused() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = getLimiter(20);
+
+        // when
+        long now = 0;
+        for (int i = 0; i < 20; i++) {
+            now = complete(limiter, now, 10 * MILLIS);
+        }
+
+        // then
+        Assertions.assertEquals(20, limiter.getLimit());
+    }
+
+    // 요청 하나를 rtt 동안 처리한다.
+    private static long complete(AdaptiveConcurrencyLimiter limiter, long now, long rtt) {
+        return complete(limiter, Priority.NORMAL, now, rtt);
+    }
+
+    private static long complete(AdaptiveConcurrencyLimiter limiter, Priority priority, long now, long rtt) {
+        Permit permit = limiter.tryAcquire(priority, now);
+        permit.release(now + rtt);
+        return now + rtt;
+    }
+
+    // 샘플 하나마다 한도를 계산한다.
+    private AdaptiveConcurrencyLimiter getLimiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(true, initialLimit, 1, 1000, 2.0, 0.2, 0, 1, meterRegistry);
+    }
+}
@@ -0,0 +1,204 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.common.exception.CustomException;
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardRoutingDataSource;
+import com.chung.lifusic.account.config.ShardingConfig;
+import com.chung.lifusic.account.config.ShardingProperties;
+import com.chung.lifusic.account.dto.CommonResponse;
+import com.chung.lifusic.account.dto.RegisterRequest;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.repository.OutboxEventRepository;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import com.chung.lifusic.account.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 내장 H2 DB 2개를 샤드로 사용해서, 재샤딩(1개 -> 2개) 중 아직 옮겨지지 않은 유저의 회원가입, 로그아웃을 확인한다.
+ * 실제 JPA 트랜잭션(JpaTransactionManager + LazyConnectionDataSourceProxy)을 사용한다.
+ */
+public class AuthenticationServiceReshardingTest {
+    private static final long UNMOVED_USER_ID = 1000L;
+
+    private ShardRouter shardRouter;
+    private ShardRoutingDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private JwtService jwtService;
+    private AuthenticationService authenticationService;
+    private String unmovedEmail; // 새 배치 기준으로는 1번 샤드지만 아직 0번 샤드에 있는 유저
+
+    @BeforeEach
+    public void setUp() {
+        // 테스트마다 새 DB를 사용한다.
+        final String database = UUID.randomUUID().toString();
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setPreviousShardCount(1);
+        for (int i = 0; i < 2; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:" + database + "-" + i + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+            shard.setUsername("sa");
+            shard.setPassword("");
+            shard.setDriverClassName("org.h2.Driver");
+            properties.getShards().add(shard);
+        }
+        shardRouter = new ShardRouter(properties);
+        dataSource = ShardingConfig.shardRoutingDataSource(properties.getShards());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // 매핑 정보로 만든 DDL을 모든 샤드에 실행한다.
+        final StringWriter schema = new StringWriter();
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(new LazyConnectionDataSourceProxy(dataSource));
+        entityManagerFactory.setPackagesToScan("com.chung.lifusic.account.entity");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName(),
+                "jakarta.persistence.schema-generation.scripts.action", "create",
+                "jakarta.persistence.schema-generation.scripts.create-target", schema,
+                "hibernate.hbm2ddl.delimiter", ";"
+        ));
+        entityManagerFactory.afterPropertiesSet();
+        for (int shard = 0; shard < 2; shard++) {
+            shardRouter.runOn(shard, () -> {
+                for (String statement : schema.toString().split(";")) {
+                    if (!statement.isBlank()) {
+                        jdbcTemplate.execute(statement);
+                    }
+                }
+            });
+        }
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        ShardedUserRepository userRepository = new ShardedUserRepository(
+                repositoryFactory.getRepository(UserRepository.class), shardRouter, Runnable::run);
+        OutboxService outboxService = new OutboxService(
+                repositoryFactory.getRepository(OutboxEventRepository.class), userRepository, new ObjectMapper());
+        jwtService = mock(JwtService.class);
+        EmailExistenceFilter emailExistenceFilter = mock(EmailExistenceFilter.class);
+        given(emailExistenceFilter.mightContain(any())).willReturn(true);
+        authenticationService = new AuthenticationService(
+                userRepository,
+                mock(PasswordEncoder.class),
+                jwtService,
+                mock(AuthenticationManager.class),
+                mock(PasswordUpgradeService.class),
+                outboxService,
+                mock(LoginHistoryService.class),
+                emailExistenceFilter,
+                mock(RequestRateLimiter.class),
+                new JpaTransactionManager(entityManagerFactory.getObject()),
+                shardRouter
+        );
+
+        // 이전 배치(샤드 1개) 기준으로 0번 샤드에 저장된 유저
+        int index = 1;
+        while (shardRouter.shardForEmail("user" + index + "@email.com") != 1) {
+            index++;
+        }
+        unmovedEmail = "user" + index + "@email.com";
+        shardRouter.runOn(0, () -> jdbcTemplate.update(
+                "insert into user (id, name, email, password, role, event_sequence) values (?, ?, ?, ?, ?, ?)",
+                UNMOVED_USER_ID, "user", unmovedEmail, "{bcrypt}hash", "CUSTOMER", 0L));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        entityManagerFactory.destroy();
+        dataSource.getResolvedDataSources().values().forEach(target -> new JdbcTemplate(target).execute("shutdown"));
+    }
+
+    @DisplayName("재샤딩 중 이전 샤드에만 있는 이메일로 회원가입하면 새 샤드에 중복 저장하지 않고 실패")
+    @Test
+    public void rejectRegisterOfUnmovedUser() {
+        // when, then
+        Assertions.assertThrows(CustomException.class, () -> authenticationService.register(getRegisterRequest(unmovedEmail)));
+        Assertions.assertEquals(0, countOn(1, "select count(*) from user"));
+        Assertions.assertEquals(0, countOn(1, "select count(*) from outbox_event"));
+    }
+
+    @DisplayName("재샤딩 중 새 이메일로 회원가입하면 유저와 이벤트를 새 배치 기준 샤드에 저장")
+    @Test
+    public void registerOnNewShard() throws Exception {
+        // given
+        int index = 1;
+        while (shardRouter.shardForEmail("new" + index + "@email.com") != 1) {
+            index++;
+        }
+        final String email = "new" + index + "@email.com";
+
+        // when
+        CommonResponse response = authenticationService.register(getRegisterRequest(email));
+
+        // then
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(1, countOn(1, "select count(*) from user where email = '" + email + "'"));
+        Assertions.assertEquals(1, countOn(1, "select count(*) from outbox_event"));
+        Assertions.assertEquals(0, countOn(0, "select count(*) from outbox_event"));
+    }
+
+    @DisplayName("재샤딩 중 아직 옮겨지지 않은 유저가 로그아웃하면 이전 샤드에 이벤트를 저장")
+    @Test
+    public void logoutUnmovedUser() throws Exception {
+        // given
+        User user = User.builder()
+                .id(UNMOVED_USER_ID)
+                .email(unmovedEmail)
+                .name("user")
+                .role(Role.CUSTOMER)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, "session-1"));
+
+        // mocking
+        given(jwtService.expireSession(UNMOVED_USER_ID, "session-1")).willReturn(true);
+
+        // when
+        CommonResponse response = authenticationService.logout();
+
+        // then
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(1, countOn(0, "select count(*) from outbox_event where user_id = " + UNMOVED_USER_ID));
+        Assertions.assertEquals(1, countOn(0, "select event_sequence from user where id = " + UNMOVED_USER_ID));
+        Assertions.assertEquals(0, countOn(1, "select count(*) from outbox_event"));
+    }
+
+    private int countOn(int shard, String sql) {
+        return shardRouter.callOn(shard, () -> jdbcTemplate.queryForObject(sql, Integer.class));
+    }
+
+    private static RegisterRequest getRegisterRequest(String email) {
+        return new RegisterRequest("user", email, "customer", "1234");
+    }
+}
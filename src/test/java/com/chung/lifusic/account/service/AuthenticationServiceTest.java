@@ -1,10 +1,13 @@
 package com.chung.lifusic.account.service;
 
+import com.chung.lifusic.account.common.OutboxEventType;
 import com.chung.lifusic.account.common.Role;
 import com.chung.lifusic.account.common.exception.CustomException;
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardingProperties;
 import com.chung.lifusic.account.dto.*;
 import com.chung.lifusic.account.entity.User;
-import com.chung.lifusic.account.repository.UserRepository;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -22,12 +26,17 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthenticationServiceTest {
@@ -38,7 +47,7 @@ public class AuthenticationServiceTest {
     private JwtService jwtService;
 
     @Mock
-    private UserRepository repository;
+    private ShardedUserRepository repository;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -46,6 +55,27 @@ public class AuthenticationServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private LoginHistoryService loginHistoryService;
+
+    @Mock
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Mock
+    private RequestRateLimiter requestRateLimiter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties()); // 샤딩을 사용하지 않는 설정 (샤드 0번 하나)
+
     @DisplayName("중복 이메일로 회원 가입 시 실패")
     @Test
     public void registerWithAlreadyExists() {
@@ -55,6 +85,7 @@ public class AuthenticationServiceTest {
 
         User user = getUser(email, Role.ADMIN);
         // mocking
+        given(emailExistenceFilter.mightContain(email)).willReturn(true);
         given(repository.findByEmail(any()))
                 .willReturn(Optional.ofNullable(user));
         // then
@@ -73,6 +104,7 @@ public class AuthenticationServiceTest {
         User user = getUser(email, Role.ADMIN);
 
         // mocking
+        given(emailExistenceFilter.mightContain(email)).willReturn(true);
         given(repository.findByEmail(any()))
                 .willReturn(Optional.empty());
         given(repository.save(any())).willReturn(user);
@@ -88,6 +120,74 @@ public class AuthenticationServiceTest {
         // then
         Assertions.assertNotNull(result);
         Assertions.assertTrue(result.isSuccess());
+        verify(outboxService).append(eq(OutboxEventType.USER_REGISTERED), eq(user), any());
+        verify(emailExistenceFilter).add(email);
+    }
+
+    @DisplayName("필터에 없는 이메일로 회원가입 시 DB 중복 확인 없이 성공")
+    @Test
+    public void registerSkipsLookupWhenFilterNegative() throws Exception {
+        final String email = "test@email.com";
+        // given
+        RegisterRequest request = getRegisterRequest(email, "admin");
+        User user = getUser(email, Role.ADMIN);
+
+        // mocking
+        given(emailExistenceFilter.mightContain(email)).willReturn(false);
+        given(repository.save(any())).willReturn(user);
+        given(passwordEncoder.encode(any())).willReturn("abcd");
+
+        // when
+        CommonResponse result = authenticationService.register(request);
+
+        // then
+        Assertions.assertTrue(result.isSuccess());
+        verify(repository, never()).findByEmail(any());
+    }
+
+    @DisplayName("필터에 없는 이메일은 DB 조회 없이 가입 가능")
+    @Test
+    public void emailAvailableWithoutLookup() throws CustomException {
+        // mocking
+        given(requestRateLimiter.tryAcquire("127.0.0.1")).willReturn(true);
+        given(emailExistenceFilter.mightContain("new@email.com")).willReturn(false);
+
+        // when
+        EmailAvailabilityResponse response = authenticationService.checkEmailAvailable("new@email.com", "127.0.0.1");
+
+        // then
+        Assertions.assertTrue(response.isAvailable());
+        verify(repository, never()).existsByEmail(any());
+    }
+
+    @DisplayName("필터에 있는 이메일은 DB로 확인")
+    @Test
+    public void emailNotAvailableWhenExists() throws CustomException {
+        // mocking
+        given(requestRateLimiter.tryAcquire("127.0.0.1")).willReturn(true);
+        given(emailExistenceFilter.mightContain("test@email.com")).willReturn(true);
+        given(repository.existsByEmail("test@email.com")).willReturn(true);
+
+        // when
+        EmailAvailabilityResponse response = authenticationService.checkEmailAvailable("test@email.com", "127.0.0.1");
+
+        // then
+        Assertions.assertFalse(response.isAvailable());
+    }
+
+    @DisplayName("요청 수 제한을 넘으면 이메일 확인 실패")
+    @Test
+    public void emailAvailableRateLimited() {
+        // mocking
+        given(requestRateLimiter.tryAcquire("127.0.0.1")).willReturn(false);
+
+        // then
+        CustomException exception = Assertions.assertThrows(CustomException.class, () -> {
+            // when
+            authenticationService.checkEmailAvailable("test@email.com", "127.0.0.1");
+        });
+        Assertions.assertEquals(429, exception.getHttpStatusCode());
+        verify(emailExistenceFilter, never()).mightContain(any());
     }
 
     @DisplayName("유효하지 않은 이메일 또는 비밀번호 입력 시 로그인 실패")
@@ -125,6 +225,8 @@ public class AuthenticationServiceTest {
 
         // then
         Assertions.assertEquals(token, response.getToken());
+        verify(passwordUpgradeService).upgradeIfNeeded(user, request.getPassword());
+        verify(loginHistoryService).recordSuccess(user);
     }
 
     @DisplayName("컨텍스트에 인증 정보가 없으면 로그아웃 실패")
@@ -153,7 +255,7 @@ public class AuthenticationServiceTest {
         // mocking
         MockedStatic<SecurityContextHolder> holderMockedStatic = mockStatic(SecurityContextHolder.class);
         given(SecurityContextHolder.getContext()).willReturn(new SecurityContextImpl(authentication));
-
+        given(jwtService.expireSession(user.getId(), "1234")).willReturn(true);
 
         // when
         CommonResponse response = null;
@@ -166,6 +268,29 @@ public class AuthenticationServiceTest {
         // then
         Assertions.assertNotNull(response);
         Assertions.assertTrue(response.isSuccess());
+        verify(jwtService).expireSession(user.getId(), "1234");
+        verify(outboxService).append(eq(OutboxEventType.USER_LOGGED_OUT), eq(user), any());
+        holderMockedStatic.close();
+    }
+
+    @DisplayName("존재하지 않는 세션을 만료시키면 실패")
+    @Test
+    public void revokeUnknownSession() {
+        // given
+        User user = getUser("test@email.com", Role.ADMIN);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, "current-session");
+
+        // mocking
+        MockedStatic<SecurityContextHolder> holderMockedStatic = mockStatic(SecurityContextHolder.class);
+        given(SecurityContextHolder.getContext()).willReturn(new SecurityContextImpl(authentication));
+        given(jwtService.expireSession(user.getId(), "unknown-session")).willReturn(false);
+
+        // then
+        Assertions.assertThrows(CustomException.class, () -> {
+            // when
+            authenticationService.revokeSession("unknown-session");
+        });
+        verify(outboxService, never()).append(any(), any(), any());
         holderMockedStatic.close();
     }
 
@@ -229,6 +354,48 @@ public class AuthenticationServiceTest {
     }
 
 
+    @DisplayName("유저 ETag - 컨텍스트에 인증 정보가 없으면 null 반환")
+    @Test
+    public void getEmptyETagIfNotAuthenticated() {
+        // mocking
+        MockedStatic<SecurityContextHolder> holderMockedStatic = mockStatic(SecurityContextHolder.class);
+        given(SecurityContextHolder.getContext()).willReturn(new SecurityContextImpl());
+
+        // when
+        String eTag = authenticationService.getUserETag();
+
+        // then
+        Assertions.assertNull(eTag);
+        holderMockedStatic.close();
+    }
+
+    @DisplayName("유저 ETag - 유저 정보가 수정되기 전까지 같은 값 반환")
+    @Test
+    public void getUserETagChangesOnlyWhenUpdated() {
+        // given
+        User principal = getUser("test@email.com", Role.ADMIN);
+        principal.setUpdatedDate(LocalDateTime.of(2023, 9, 1, 12, 0));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, principal.getPassword());
+
+        // mocking
+        MockedStatic<SecurityContextHolder> holderMockedStatic = mockStatic(SecurityContextHolder.class);
+        given(SecurityContextHolder.getContext()).willReturn(new SecurityContextImpl(authentication));
+
+        // when
+        String first = authenticationService.getUserETag();
+        String second = authenticationService.getUserETag();
+        principal.setUpdatedDate(LocalDateTime.of(2023, 9, 1, 12, 1));
+        String updated = authenticationService.getUserETag();
+
+        // then
+        Assertions.assertNotNull(first);
+        Assertions.assertTrue(first.startsWith("\"") && first.endsWith("\""));
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, updated);
+        holderMockedStatic.close();
+    }
+
+
     private User getUser(String email, Role role) {
         return User.builder().id(1L).email(email)
                 .name("test")
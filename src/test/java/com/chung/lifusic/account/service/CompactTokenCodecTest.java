@@ -0,0 +1,102 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class CompactTokenCodecTest {
+    private static final byte[] SECRET = "test-secret-key-for-lifusic-account-server-0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private final CompactTokenCodec codec = new CompactTokenCodec(SECRET, 1);
+
+    @DisplayName("인코딩한 토큰을 디코딩하면 같은 값이 나온다 (시각은 초 단위)")
+    @Test
+    public void roundTrip() {
+        // given
+        TokenClaims claims = getClaims("test@email.com");
+
+        // when
+        String token = codec.encode(claims);
+        TokenClaims decoded = codec.decode(token);
+
+        // then
+        Assertions.assertEquals(-1, token.indexOf('.'));
+        Assertions.assertNotNull(decoded);
+        Assertions.assertEquals(claims.subject(), decoded.subject());
+        Assertions.assertEquals(claims.sessionId(), decoded.sessionId());
+        Assertions.assertEquals(claims.userId(), decoded.userId());
+        Assertions.assertEquals(Role.ADMIN, decoded.role());
+        Assertions.assertEquals(claims.issuedAt() / 1000 * 1000, decoded.issuedAt());
+        Assertions.assertEquals(claims.expiresAt() / 1000 * 1000, decoded.expiresAt());
+    }
+
+    @DisplayName("한 글자라도 바뀐 토큰은 거절한다")
+    @Test
+    public void rejectTampered() {
+        // given
+        String token = codec.encode(getClaims("test@email.com"));
+
+        // then
+        for (int i = 0; i < token.length(); i++) {
+            char replaced = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replaced + token.substring(i + 1);
+            Assertions.assertNull(codec.decode(tampered), "position " + i);
+        }
+        Assertions.assertNull(codec.decode(token + "A"));
+        Assertions.assertNull(codec.decode(token.substring(0, token.length() - 1)));
+        Assertions.assertNull(codec.decode("not a token"));
+        Assertions.assertNull(codec.decode(""));
+    }
+
+    @DisplayName("다른 키나 다른 key id로 서명된 토큰은 거절한다")
+    @Test
+    public void rejectOtherKey() {
+        // given
+        String token = codec.encode(getClaims("test@email.com"));
+        CompactTokenCodec otherSecret = new CompactTokenCodec("other-secret".getBytes(StandardCharsets.US_ASCII), 1);
+        CompactTokenCodec otherKeyId = new CompactTokenCodec(SECRET, 2);
+
+        // then
+        Assertions.assertNull(otherSecret.decode(token));
+        Assertions.assertNull(otherKeyId.decode(token));
+    }
+
+    @DisplayName("키를 교체해도 등록된 이전 key id로 서명된 토큰은 검증하고, 새 토큰은 새 key id로 서명한다")
+    @Test
+    public void verifyPreviousKeyId() {
+        // given
+        byte[] newSecret = "new-secret-key-for-lifusic-account-server-0123456789".getBytes(StandardCharsets.US_ASCII);
+        String previousToken = codec.encode(getClaims("test@email.com"));
+        CompactTokenCodec rotated = new CompactTokenCodec(Map.of(1, SECRET, 2, newSecret), 2);
+
+        // when
+        String newToken = rotated.encode(getClaims("test@email.com"));
+
+        // then
+        Assertions.assertNotNull(rotated.decode(previousToken));
+        Assertions.assertNotNull(rotated.decode(newToken));
+        Assertions.assertNull(codec.decode(newToken)); // 이전 키만 가진 서버는 새 토큰을 거절한다.
+        Assertions.assertNotNull(new CompactTokenCodec(newSecret, 2).decode(newToken));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompactTokenCodec(Map.of(1, SECRET), 2));
+    }
+
+    @DisplayName("이메일이 255 bytes를 넘으면 인코딩하지 않는다")
+    @Test
+    public void skipLongSubject() {
+        // given
+        TokenClaims claims = getClaims("a".repeat(250) + "@email.com");
+
+        // then
+        Assertions.assertNull(codec.encode(claims));
+    }
+
+    private TokenClaims getClaims(String subject) {
+        long now = System.currentTimeMillis();
+        return new TokenClaims(subject, TokenSessionRepository.newSessionId(now), 42L, Role.ADMIN, now, now + 60_000);
+    }
+}
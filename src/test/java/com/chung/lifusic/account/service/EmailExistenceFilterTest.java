@@ -0,0 +1,122 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardingProperties;
+import com.chung.lifusic.account.repository.EmailBloomFilterRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailExistenceFilterTest {
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Mock
+    private EmailBloomFilterRepository emailBloomFilterRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        emailExistenceFilter = new EmailExistenceFilter(emailBloomFilterRepository, jdbcTemplate,
+                new ShardRouter(new ShardingProperties()), 1000, 0.01);
+    }
+
+    @DisplayName("대소문자와 앞뒤 공백이 달라도 같은 위치를 사용")
+    @Test
+    public void offsetsIgnoreCase() {
+        // when
+        long[] offsets = emailExistenceFilter.offsets("Test@Email.com ");
+
+        // then
+        Assertions.assertArrayEquals(emailExistenceFilter.offsets("test@email.com"), offsets);
+        Assertions.assertEquals(7, offsets.length); // 1% 오탐률 기준 해시 수
+        for (long offset : offsets) {
+            Assertions.assertTrue(offset >= 0 && offset < 9586); // 1000개, 1% 기준 비트 수
+        }
+    }
+
+    @DisplayName("필터가 준비되지 않았다면 DB 확인이 필요하다고 판단")
+    @Test
+    public void mightContainBeforeReady() {
+        // when
+        boolean result = emailExistenceFilter.mightContain("test@email.com");
+
+        // then
+        Assertions.assertTrue(result);
+        verify(emailBloomFilterRepository, never()).allBitsSet(anyString(), anyLong(), any());
+    }
+
+    @DisplayName("user 테이블로 필터를 만든 뒤에는 필터 결과를 그대로 사용")
+    @Test
+    public void buildAndCheck() {
+        // mocking
+        given(emailBloomFilterRepository.isReady(anyString(), anyLong())).willReturn(false);
+
+        // when
+        emailExistenceFilter.build();
+
+        // then
+        verify(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        verify(emailBloomFilterRepository).markReady(anyString(), eq(9586L));
+        Assertions.assertTrue(emailExistenceFilter.isReady());
+
+        // mocking
+        given(emailBloomFilterRepository.allBitsSet(anyString(), eq(9586L), eq(emailExistenceFilter.offsets("new@email.com")))).willReturn(false);
+
+        // when, then
+        Assertions.assertFalse(emailExistenceFilter.mightContain("new@email.com"));
+    }
+
+    @DisplayName("다른 서버가 이미 만든 필터가 있다면 다시 만들지 않음")
+    @Test
+    public void reuseExistingFilter() {
+        // mocking
+        given(emailBloomFilterRepository.isReady(anyString(), anyLong())).willReturn(true);
+
+        // when
+        emailExistenceFilter.build();
+
+        // then
+        Assertions.assertTrue(emailExistenceFilter.isReady());
+        verify(jdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @DisplayName("이메일 추가에 실패하면 다른 서버가 만든 필터가 있어도 무효화하고 다시 만든다")
+    @Test
+    public void invalidateWhenAddFails() {
+        // given
+        given(emailBloomFilterRepository.isReady(anyString(), anyLong())).willReturn(true);
+        emailExistenceFilter.build();
+        Assertions.assertTrue(emailExistenceFilter.isReady());
+
+        // mocking
+        willThrow(new RuntimeException("redis down")).given(emailBloomFilterRepository).setBits(anyString(), any());
+
+        // when
+        emailExistenceFilter.add("new@email.com");
+
+        // then (백그라운드에서 다시 만든다)
+        verify(emailBloomFilterRepository, timeout(5000)).markReady(anyString(), eq(9586L));
+        verify(emailBloomFilterRepository).invalidate(anyString());
+        verify(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
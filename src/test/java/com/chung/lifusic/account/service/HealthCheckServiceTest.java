@@ -0,0 +1,96 @@
+package com.chung.lifusic.account.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class HealthCheckServiceTest {
+    @InjectMocks
+    private HealthCheckService healthCheckService;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private RedisConnection redisConnection;
+
+    @Mock
+    private WarmUpService warmUpService;
+
+    @DisplayName("probe 전에는 준비되지 않은 상태")
+    @Test
+    public void notReadyBeforeProbe() {
+        Assertions.assertFalse(healthCheckService.isReady());
+    }
+
+    @DisplayName("DB, Redis 모두 정상이면 준비 완료")
+    @Test
+    public void readyWhenAllUp() throws Exception {
+        // mocking
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.isValid(anyInt())).willReturn(true);
+        given(redisConnectionFactory.getConnection()).willReturn(redisConnection);
+        given(redisConnection.ping()).willReturn("PONG");
+        given(warmUpService.isCompleted()).willReturn(true);
+
+        // when
+        healthCheckService.probe();
+
+        // then
+        Assertions.assertTrue(healthCheckService.isReady());
+    }
+
+    @DisplayName("워밍업이 끝나지 않았다면 준비되지 않은 상태")
+    @Test
+    public void notReadyBeforeWarmUp() throws Exception {
+        // mocking
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.isValid(anyInt())).willReturn(true);
+        given(redisConnectionFactory.getConnection()).willReturn(redisConnection);
+        given(redisConnection.ping()).willReturn("PONG");
+        given(warmUpService.isCompleted()).willReturn(false);
+
+        // when
+        healthCheckService.probe();
+
+        // then
+        Assertions.assertFalse(healthCheckService.isReady());
+    }
+
+    @DisplayName("Redis에 연결할 수 없으면 준비되지 않은 상태")
+    @Test
+    public void notReadyWhenRedisDown() throws Exception {
+        // mocking
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.isValid(anyInt())).willReturn(true);
+        given(redisConnectionFactory.getConnection()).willThrow(new RedisConnectionFailureException("down"));
+
+        // when
+        healthCheckService.probe();
+
+        // then
+        Assertions.assertTrue(healthCheckService.isDatabaseUp());
+        Assertions.assertFalse(healthCheckService.isRedisUp());
+        Assertions.assertFalse(healthCheckService.isReady());
+    }
+}
@@ -0,0 +1,265 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.config.JwtProperties;
+import com.chung.lifusic.account.entity.TokenSession;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtServiceTest {
+    private static final String SECRET_KEY = "dGVzdC1zZWNyZXQta2V5LWZvci1saWZ1c2ljLWFjY291bnQtc2VydmVyLTAxMjM0NTY3ODk=";
+
+    private final JwtProperties properties = new JwtProperties();
+
+    private JwtService jwtService;
+
+    @Mock
+    private TokenSessionRepository tokenSessionRepository;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private AuthAnalyticsRecorder authAnalyticsRecorder;
+
+    @BeforeEach
+    public void setUp() {
+        properties.getSecret().setKey(SECRET_KEY);
+        properties.getJwt().setExpiredAfterMs(60_000);
+        properties.getJwt().setMaxSessionsPerUser(5);
+        jwtService = new JwtService(properties, tokenSessionRepository, verifiedTokenCache, authAnalyticsRecorder);
+    }
+
+    @DisplayName("토큰 발급 시 jti로 세션을 저장한다")
+    @Test
+    public void generateTokenSavesSession() throws Exception {
+        // given
+        User user = getUser("test@email.com");
+
+        // when
+        String token = jwtService.generateToken(user);
+
+        // then
+        ArgumentCaptor<TokenSession> captor = ArgumentCaptor.forClass(TokenSession.class);
+        verify(tokenSessionRepository).save(eq(1L), captor.capture(), eq(token), eq(5));
+        Assertions.assertEquals(captor.getValue().sessionId(), jwtService.extractSessionId(token));
+        Assertions.assertEquals(1L, jwtService.extractClaim(token, claims -> claims.get("uid", Number.class)).longValue());
+        Assertions.assertEquals(user.getEmail(), jwtService.extractUsername(token));
+        verify(authAnalyticsRecorder).recordLogin(1L);
+    }
+
+    @DisplayName("밀려난 세션과 로그아웃한 세션은 통계의 활성 세션 수에서 뺀다")
+    @Test
+    public void recordEndedSessions() {
+        // given
+        User user = getUser("test@email.com");
+
+        // mocking
+        given(tokenSessionRepository.save(eq(1L), any(), any(), eq(5))).willReturn(List.of(1000L));
+        given(tokenSessionRepository.delete(1L, "session")).willReturn(List.of(2000L));
+        given(tokenSessionRepository.deleteAll(1L)).willReturn(List.of(3000L, 4000L));
+
+        // when
+        jwtService.generateToken(user);
+        boolean expired = jwtService.expireSession(1L, "session");
+        jwtService.expireToken(1L);
+
+        // then
+        Assertions.assertTrue(expired);
+        verify(authAnalyticsRecorder).recordSessionsEnded(List.of(1000L));
+        verify(authAnalyticsRecorder).recordSessionsEnded(List.of(2000L));
+        verify(authAnalyticsRecorder).recordSessionsEnded(List.of(3000L, 4000L));
+    }
+
+    @DisplayName("세션이 살아있으면 토큰 유효")
+    @Test
+    public void validWhenSessionActive() {
+        // given
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+
+        // mocking
+        given(tokenSessionRepository.isActive(1L, jwtService.extractSessionId(token), token)).willReturn(true);
+
+        // then
+        Assertions.assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @DisplayName("로그아웃 등으로 세션이 없으면 토큰 무효")
+    @Test
+    public void invalidWhenSessionRevoked() {
+        // given
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+
+        // mocking
+        given(tokenSessionRepository.isActive(anyLong(), any(), any())).willReturn(false);
+
+        // then
+        Assertions.assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    @DisplayName("다른 유저의 토큰은 무효")
+    @Test
+    public void invalidForOtherUser() {
+        // given
+        String token = jwtService.generateToken(getUser("test@email.com"));
+
+        // then
+        Assertions.assertFalse(jwtService.isTokenValid(token, getUser("other@email.com")));
+    }
+
+    @DisplayName("위조된 토큰은 무효")
+    @Test
+    public void invalidWhenTampered() {
+        // given
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+
+        // then
+        Assertions.assertFalse(jwtService.isTokenValid(token + "a", user));
+        Assertions.assertNull(jwtService.extractUsername(token + "a"));
+    }
+
+    @DisplayName("만료가 가까운 토큰은 새 세션으로 갱신하고 이전 세션은 grace 시간 뒤 만료시킨다")
+    @Test
+    public void renewTokenNearExpiry() {
+        // given
+        properties.getJwt().setRenewalWindowMs(120_000L); // 발급 직후부터 갱신 대상
+        properties.getJwt().setRenewalGraceMs(10_000L);
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+        String sessionId = jwtService.extractSessionId(token);
+
+        // mocking
+        given(tokenSessionRepository.renew(eq(1L), eq(sessionId), eq(token), any(), any(), anyLong(), eq(5))).willReturn(List.of());
+
+        // when
+        long now = System.currentTimeMillis();
+        String renewedToken = jwtService.renewIfExpiring(token, user);
+
+        // then
+        Assertions.assertNotNull(renewedToken);
+        Assertions.assertNotEquals(sessionId, jwtService.extractSessionId(renewedToken));
+        ArgumentCaptor<Long> graceCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(tokenSessionRepository).renew(eq(1L), eq(sessionId), eq(token), any(), eq(renewedToken), graceCaptor.capture(), eq(5));
+        Assertions.assertTrue(graceCaptor.getValue() <= now + 10_000L + 1000L);
+        verify(authAnalyticsRecorder).recordRenewal(1L, sessionId);
+    }
+
+    @DisplayName("다른 요청이 먼저 갱신했다면 새 토큰을 내려주지 않는다")
+    @Test
+    public void skipRenewalWhenAlreadyRenewed() {
+        // given
+        properties.getJwt().setRenewalWindowMs(120_000L);
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+
+        // mocking
+        given(tokenSessionRepository.renew(anyLong(), any(), any(), any(), any(), anyLong(), anyInt())).willReturn(null);
+
+        // then
+        Assertions.assertNull(jwtService.renewIfExpiring(token, user));
+    }
+
+    @DisplayName("만료까지 충분히 남은 토큰은 갱신하지 않는다")
+    @Test
+    public void skipRenewalWhenFarFromExpiry() {
+        // given
+        properties.getJwt().setRenewalWindowMs(1_000L);
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+
+        // when
+        String renewedToken = jwtService.renewIfExpiring(token, user);
+
+        // then
+        Assertions.assertNull(renewedToken);
+        verify(tokenSessionRepository, never()).renew(anyLong(), any(), any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @DisplayName("만료 시간은 jitter 범위 안에서 줄어든다")
+    @Test
+    public void jitterExpiry() {
+        // given
+        properties.getJwt().setExpiryJitterMs(20_000L);
+        User user = getUser("test@email.com");
+
+        // when
+        jwtService.generateToken(user);
+
+        // then
+        ArgumentCaptor<TokenSession> captor = ArgumentCaptor.forClass(TokenSession.class);
+        verify(tokenSessionRepository).save(eq(1L), captor.capture(), any(), eq(5));
+        long lifetime = captor.getValue().expiresAt() - captor.getValue().issuedAt();
+        Assertions.assertTrue(lifetime >= 40_000L && lifetime <= 60_000L);
+    }
+
+    @DisplayName("compact 형식으로 발급한 토큰도 검증하고, 이전에 발급된 JWT도 계속 받는다")
+    @Test
+    public void acceptCompactAndJwtTokens() {
+        // given
+        User user = getUser("test@email.com");
+        String jwt = jwtService.generateToken(user);
+        properties.getToken().setFormat("compact");
+        properties.getToken().setKeyId(1);
+        String compact = jwtService.generateToken(user);
+
+        // mocking
+        given(tokenSessionRepository.isActive(eq(1L), any(), any())).willReturn(true);
+
+        // then
+        Assertions.assertEquals(-1, compact.indexOf('.'));
+        Assertions.assertTrue(compact.length() < jwt.length());
+        Assertions.assertEquals(user.getEmail(), jwtService.extractUsername(compact));
+        Assertions.assertTrue(jwtService.isTokenValid(compact, user));
+        Assertions.assertTrue(jwtService.isTokenValid(jwt, user));
+        Assertions.assertFalse(jwtService.isTokenValid(compact, getUser("other@email.com")));
+        ArgumentCaptor<TokenSession> captor = ArgumentCaptor.forClass(TokenSession.class);
+        verify(tokenSessionRepository).save(eq(1L), captor.capture(), eq(compact), eq(5));
+        Assertions.assertEquals(captor.getValue().sessionId(), jwtService.extractSessionId(compact));
+    }
+
+    @DisplayName("변조된 compact 토큰은 무효")
+    @Test
+    public void invalidWhenCompactTampered() {
+        // given
+        properties.getToken().setFormat("compact");
+        properties.getToken().setKeyId(1);
+        User user = getUser("test@email.com");
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, 10) + (token.charAt(10) == 'A' ? 'B' : 'A') + token.substring(11);
+
+        // then
+        Assertions.assertFalse(jwtService.isTokenValid(tampered, user));
+        Assertions.assertNull(jwtService.extractUsername(tampered));
+        verify(tokenSessionRepository, never()).isActive(anyLong(), any(), any());
+    }
+
+    private User getUser(String email) {
+        return User.builder().id(1L).email(email)
+                .name("test")
+                .role(Role.CUSTOMER)
+                .password("1234")
+                .build();
+    }
+}
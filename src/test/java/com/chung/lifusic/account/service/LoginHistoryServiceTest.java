@@ -0,0 +1,122 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginHistoryServiceTest {
+    private LoginHistoryService loginHistoryService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> submittedTasks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        loginHistoryService = new LoginHistoryService(jdbcTemplate, transactionManager, submittedTasks::add,
+                new ShardRouter(new ShardingProperties()), meterRegistry);
+        ReflectionTestUtils.setField(loginHistoryService, "CAPACITY", 3);
+        ReflectionTestUtils.setField(loginHistoryService, "BATCH_SIZE", 2);
+    }
+
+    @DisplayName("큐가 가득 차면 새 기록을 버리고 버린 수를 센다")
+    @Test
+    public void dropWhenQueueIsFull() {
+        // when
+        for (int i = 0; i < 5; i++) {
+            loginHistoryService.enqueue(getAttempt(1L, true, i));
+        }
+
+        // then
+        Assertions.assertEquals(3, loginHistoryService.getQueueSize());
+        Assertions.assertEquals(3.0, meterRegistry.counter("login_history.enqueued").count());
+        Assertions.assertEquals(2.0, meterRegistry.counter("login_history.dropped", "reason", "overflow").count());
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), any(Collection.class), anyInt(), any());
+    }
+
+    @DisplayName("batch_size 만큼 쌓이면 flush를 요청하고, 유저별 마지막 로그인 시각은 하나로 합친다")
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flushInBatchesAndCoalesceLastLogin() {
+        // given
+        loginHistoryService.enqueue(getAttempt(1L, true, 1000L));
+        Assertions.assertTrue(submittedTasks.isEmpty());
+        loginHistoryService.enqueue(getAttempt(1L, true, 3000L));
+        Assertions.assertEquals(1, submittedTasks.size()); // batch_size 도달
+        loginHistoryService.enqueue(getAttempt(null, false, 2000L));
+
+        // when
+        submittedTasks.forEach(Runnable::run);
+
+        // then
+        ArgumentCaptor<Collection<Map.Entry<Long, Long>>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("insert into login_history"), any(Collection.class), anyInt(), any());
+        verify(jdbcTemplate).batchUpdate(startsWith("update user"), captor.capture(), eq(1), any());
+        Map.Entry<Long, Long> lastLogin = captor.getValue().iterator().next();
+        Assertions.assertEquals(1L, lastLogin.getKey());
+        Assertions.assertEquals(3000L, lastLogin.getValue());
+        Assertions.assertEquals(0, loginHistoryService.getQueueSize());
+        Assertions.assertEquals(3.0, meterRegistry.counter("login_history.flushed").count());
+    }
+
+    @DisplayName("저장에 실패한 배치는 버리고 실패 수를 센다")
+    @Test
+    public void countDroppedWhenWriteFails() {
+        // given
+        loginHistoryService.enqueue(getAttempt(1L, true, 1000L));
+
+        // mocking
+        given(jdbcTemplate.batchUpdate(any(String.class), any(Collection.class), anyInt(), any()))
+                .willThrow(new RuntimeException("db down"));
+
+        // when
+        loginHistoryService.flush();
+
+        // then
+        Assertions.assertEquals(0, loginHistoryService.getQueueSize());
+        Assertions.assertEquals(1.0, meterRegistry.counter("login_history.dropped", "reason", "write_failure").count());
+        Assertions.assertEquals(0.0, meterRegistry.counter("login_history.flushed").count());
+    }
+
+    private LoginHistoryService.LoginAttempt getAttempt(Long userId, boolean success, long timestamp) {
+        return new LoginHistoryService.LoginAttempt(
+                userId,
+                "test@email.com",
+                success,
+                success ? null : "BadCredentialsException",
+                new LoginHistoryService.RequestInfo("127.0.0.1", "JUnit"),
+                timestamp
+        );
+    }
+}
@@ -0,0 +1,84 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.entity.User;
+import com.chung.lifusic.account.repository.ShardedUserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordUpgradeServiceTest {
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private ShardedUserRepository userRepository;
+
+    private final List<Runnable> submittedTasks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        passwordUpgradeService = new PasswordUpgradeService(passwordEncoder, userRepository, submittedTasks::add);
+    }
+
+    @DisplayName("해시가 현재 설정보다 약하면 백그라운드에서 다시 해싱해 저장")
+    @Test
+    public void upgradeWeakHash() {
+        // given
+        User user = getUser("$2a$04$weak");
+
+        // mocking
+        given(passwordEncoder.upgradeEncoding("$2a$04$weak")).willReturn(true);
+        given(passwordEncoder.encode("1234")).willReturn("{argon2}strong");
+
+        // when
+        boolean requested = passwordUpgradeService.upgradeIfNeeded(user, "1234");
+
+        // then
+        Assertions.assertTrue(requested);
+        verify(userRepository, never()).updatePassword(any(), any(), any()); // 요청 스레드에서는 저장하지 않음
+        submittedTasks.forEach(Runnable::run);
+        verify(userRepository).updatePassword(user, "$2a$04$weak", "{argon2}strong");
+    }
+
+    @DisplayName("해시가 현재 설정과 같으면 아무것도 하지 않음")
+    @Test
+    public void skipUpToDateHash() {
+        // given
+        User user = getUser("{bcrypt}$2a$10$ok");
+
+        // mocking
+        given(passwordEncoder.upgradeEncoding("{bcrypt}$2a$10$ok")).willReturn(false);
+
+        // when
+        boolean requested = passwordUpgradeService.upgradeIfNeeded(user, "1234");
+
+        // then
+        Assertions.assertFalse(requested);
+        Assertions.assertTrue(submittedTasks.isEmpty());
+    }
+
+    private User getUser(String password) {
+        return User.builder().id(1L).email("test@email.com")
+                .name("test")
+                .role(Role.CUSTOMER)
+                .password(password)
+                .build();
+    }
+}
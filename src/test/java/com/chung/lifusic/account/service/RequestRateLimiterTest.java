@@ -0,0 +1,26 @@
+package com.chung.lifusic.account.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RequestRateLimiterTest {
+
+    @DisplayName("분당 허용 수를 넘으면 거절하고, 시간이 지나면 다시 허용")
+    @Test
+    public void limitAndRefill() {
+        // given
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(3);
+        final long now = 0;
+
+        // when, then
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        Assertions.assertFalse(rateLimiter.tryAcquire("127.0.0.1", now));
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.2", now)); // 다른 클라이언트는 영향 없음
+        Assertions.assertTrue(rateLimiter.tryAcquire("127.0.0.1", now + TimeUnit.SECONDS.toNanos(20))); // 20초에 1개 충전
+    }
+}
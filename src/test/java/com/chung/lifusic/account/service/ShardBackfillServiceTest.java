@@ -0,0 +1,156 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.ShardRouter;
+import com.chung.lifusic.account.config.ShardRoutingDataSource;
+import com.chung.lifusic.account.config.ShardingConfig;
+import com.chung.lifusic.account.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+/**
+ * 내장 H2 DB 여러 개를 샤드로 사용해서 재샤딩(2개 -> 3개)을 확인한다.
+ */
+public class ShardBackfillServiceTest {
+    private static final String CREATE_USER_TABLE_SQL = "create table user (" +
+            "id bigint primary key, name varchar(255), email varchar(255), password varchar(255), role varchar(255), " +
+            "created_date timestamp, updated_date timestamp, last_login_at timestamp, event_sequence bigint)";
+    private static final String CREATE_LOGIN_HISTORY_TABLE_SQL = "create table login_history (" +
+            "id bigint auto_increment primary key, user_id bigint, email varchar(255), ip varchar(255), user_agent varchar(255), " +
+            "success boolean, failure_reason varchar(255), login_at timestamp)";
+    private static final String CREATE_OUTBOX_EVENT_TABLE_SQL = "create table outbox_event (" +
+            "id bigint primary key, user_id bigint, user_sequence bigint, event_type varchar(255), payload varchar(4000), " +
+            "created_date timestamp, updated_date timestamp)";
+    private static final int USERS = 300;
+
+    private ShardingProperties properties;
+    private ShardRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        // 테스트마다 새 DB를 사용한다.
+        final String database = UUID.randomUUID().toString();
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setPreviousShardCount(2);
+        for (int i = 0; i < 3; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:" + database + "-" + i + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+            shard.setUsername("sa");
+            shard.setPassword("");
+            shard.setDriverClassName("org.h2.Driver");
+            properties.getShards().add(shard);
+        }
+        dataSource = ShardingConfig.shardRoutingDataSource(properties.getShards());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.getResolvedDataSources().values().forEach(target -> new JdbcTemplate(target).execute("shutdown"));
+    }
+
+    @DisplayName("재샤딩 후 모든 유저가 새 배치 기준 샤드에 한번씩만 존재")
+    @Test
+    public void moveUsersToNewLayout() {
+        // given
+        ShardRouter shardRouter = new ShardRouter(properties);
+        ShardRouter previousShardRouter = new ShardRouter(getPreviousProperties());
+        createTables(shardRouter);
+        // 이전 배치(샤드 2개) 기준으로 저장
+        for (int i = 1; i <= USERS; i++) {
+            final long id = i;
+            final String email = "user" + i + "@email.com";
+            shardRouter.runOn(previousShardRouter.shardForEmail(email), () -> jdbcTemplate.update(
+                    "insert into user (id, name, email, password, role) values (?, ?, ?, ?, ?)",
+                    id, "user", email, "{bcrypt}hash", "CUSTOMER"));
+        }
+        ShardBackfillService shardBackfillService = new ShardBackfillService(shardRouter, jdbcTemplate, properties);
+
+        // when
+        shardBackfillService.backfill();
+
+        // then
+        long total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            final int target = shard;
+            for (String email : shardRouter.callOn(target, () -> jdbcTemplate.queryForList("select email from user", String.class))) {
+                Assertions.assertEquals(target, shardRouter.shardForEmail(email));
+                total++;
+            }
+        }
+        Assertions.assertEquals(USERS, total);
+        Assertions.assertEquals(USERS, shardBackfillService.getStatus().getScanned());
+        Assertions.assertTrue(shardBackfillService.getStatus().getMoved() > 0);
+        Assertions.assertNull(shardBackfillService.getStatus().getError());
+    }
+
+    @DisplayName("복사 후 이전 샤드에서 변경된 값과 로그인 이력, outbox 이벤트를 같이 옮김")
+    @Test
+    public void moveLatestValuesAndDependentRows() {
+        // given
+        ShardRouter shardRouter = new ShardRouter(properties);
+        ShardRouter previousShardRouter = new ShardRouter(getPreviousProperties());
+        createTables(shardRouter);
+        long id = 1;
+        String email = "user1@email.com";
+        while (shardRouter.shardForEmail(email) == previousShardRouter.shardForEmail(email)) {
+            id++;
+            email = "user" + id + "@email.com";
+        }
+        final int source = previousShardRouter.shardForEmail(email);
+        final int target = shardRouter.shardForEmail(email);
+        final Object[] copiedRow = {id, "user", email, "{bcrypt}hash", "CUSTOMER", null, null, null, 1L};
+        final long userId = id;
+        final String userEmail = email;
+        shardRouter.runOn(source, () -> {
+            jdbcTemplate.update("insert into user (id, name, email, password, role, event_sequence) values (?, ?, ?, ?, ?, ?)",
+                    userId, "user", userEmail, "{bcrypt}hash", "CUSTOMER", 1L);
+            // 복사할 값을 읽은 뒤에 이전 샤드에서 비밀번호가 바뀐 상황
+            jdbcTemplate.update("update user set password = ? where id = ?", "{bcrypt}new-hash", userId);
+            jdbcTemplate.update("insert into login_history (user_id, email, success) values (?, ?, ?)", userId, userEmail, true);
+            jdbcTemplate.update("insert into outbox_event (id, user_id, user_sequence, event_type, payload) values (?, ?, ?, ?, ?)",
+                    1L, userId, 1L, "USER_REGISTERED", "{}");
+        });
+        ShardBackfillService shardBackfillService = new ShardBackfillService(shardRouter, jdbcTemplate, properties);
+
+        // when
+        shardBackfillService.move(copiedRow, source, target);
+
+        // then
+        Assertions.assertEquals("{bcrypt}new-hash", shardRouter.callOn(target, () ->
+                jdbcTemplate.queryForObject("select password from user where id = ?", String.class, userId)));
+        Assertions.assertEquals(1, countOn(shardRouter, target, "select count(*) from login_history where user_id = " + userId));
+        Assertions.assertEquals(1, countOn(shardRouter, target, "select count(*) from outbox_event where user_id = " + userId));
+        Assertions.assertEquals(0, countOn(shardRouter, source, "select count(*) from user"));
+        Assertions.assertEquals(0, countOn(shardRouter, source, "select count(*) from login_history"));
+        Assertions.assertEquals(0, countOn(shardRouter, source, "select count(*) from outbox_event"));
+    }
+
+    private void createTables(ShardRouter shardRouter) {
+        for (int shard = 0; shard < 3; shard++) {
+            shardRouter.runOn(shard, () -> {
+                jdbcTemplate.execute(CREATE_USER_TABLE_SQL);
+                jdbcTemplate.execute(CREATE_LOGIN_HISTORY_TABLE_SQL);
+                jdbcTemplate.execute(CREATE_OUTBOX_EVENT_TABLE_SQL);
+            });
+        }
+    }
+
+    private int countOn(ShardRouter shardRouter, int shard, String sql) {
+        return shardRouter.callOn(shard, () -> jdbcTemplate.queryForObject(sql, Integer.class));
+    }
+
+    private ShardingProperties getPreviousProperties() {
+        ShardingProperties previous = new ShardingProperties();
+        previous.setEnabled(true);
+        previous.setShards(properties.getShards().subList(0, 2));
+        return previous;
+    }
+}
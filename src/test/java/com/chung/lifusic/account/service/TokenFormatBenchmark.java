@@ -0,0 +1,78 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.common.Role;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.security.Key;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * JWT와 compact 토큰의 크기, 검증(서명 확인 + 값 읽기) 비용 비교. 캐시는 거치지 않는다.
+ * ./gradlew benchmark 로 실행하며 결과는 한 줄짜리 JSON 으로 출력된다.
+ */
+@Tag("benchmark")
+public class TokenFormatBenchmark {
+    private static final String SECRET_KEY = "dGVzdC1zZWNyZXQta2V5LWZvci1saWZ1c2ljLWFjY291bnQtc2VydmVyLTAxMjM0NTY3ODk=";
+    private static final int WARMUP_ITERATIONS = 100_000;
+    private static final int MEASURE_ITERATIONS = 500_000;
+
+    @Test
+    public void compareTokenFormats() {
+        final long now = System.currentTimeMillis();
+        final TokenClaims claims = new TokenClaims("test@email.com", TokenSessionRepository.newSessionId(now),
+                42L, Role.CUSTOMER, now, now + 86_400_000L);
+
+        final Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        final String jwt = Jwts.builder()
+                .claim(TokenClaims.USER_ID_CLAIM, claims.userId())
+                .setId(claims.sessionId())
+                .setSubject(claims.subject())
+                .setIssuedAt(new Date(claims.issuedAt()))
+                .setExpiration(new Date(claims.expiresAt()))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        final CompactTokenCodec codec = new CompactTokenCodec(Decoders.BASE64.decode(SECRET_KEY), 1);
+        final String compact = codec.encode(claims);
+
+        Result jwtResult = measure(jwt, token -> TokenClaims.fromJwt(parser.parseClaimsJws(token).getBody()));
+        Result compactResult = measure(compact, codec::decode);
+        System.out.printf("{\"jwt\":%s,\"compact\":%s}%n", jwtResult, compactResult);
+    }
+
+    private Result measure(String token, Function<String, TokenClaims> verifier) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += verifier.apply(token).userId();
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            checksum += verifier.apply(token).userId();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        if (checksum == 0) {
+            throw new IllegalStateException();
+        }
+        return new Result(token.length(), (double) elapsed / MEASURE_ITERATIONS, (double) allocated / MEASURE_ITERATIONS);
+    }
+
+    private record Result(int length, double nanosPerOp, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("{\"length\":%d,\"nsPerOp\":%.1f,\"allocatedBytesPerOp\":%.1f}", length, nanosPerOp, bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.chung.lifusic.account.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+public class VerifiedTokenCacheTest {
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(1024 * 1024);
+
+    @DisplayName("저장한 토큰은 같은 토큰으로만 조회된다")
+    @Test
+    public void getByToken() {
+        // given
+        Claims claims = getClaims("test@email.com", System.currentTimeMillis() + 60_000);
+
+        // when
+        cache.put("token-a", claims);
+
+        // then
+        Assertions.assertSame(claims, cache.get("token-a"));
+        Assertions.assertNull(cache.get("token-b"));
+    }
+
+    @DisplayName("만료 시각이 지났거나 없는 토큰은 저장하지 않는다")
+    @Test
+    public void skipExpiredClaims() {
+        // when
+        cache.put("expired", getClaims("test@email.com", System.currentTimeMillis() - 1));
+        cache.put("no-expiration", Jwts.claims().setSubject("test@email.com"));
+
+        // then
+        Assertions.assertNull(cache.get("expired"));
+        Assertions.assertNull(cache.get("no-expiration"));
+    }
+
+    @DisplayName("만료 시각이 지나면 캐시에서 사라진다")
+    @Test
+    public void expireWithToken() throws InterruptedException {
+        // given
+        cache.put("short-lived", getClaims("test@email.com", System.currentTimeMillis() + 50));
+
+        // when
+        Thread.sleep(100);
+
+        // then
+        Assertions.assertNull(cache.get("short-lived"));
+    }
+
+    private Claims getClaims(String subject, long expiresAt) {
+        return Jwts.claims()
+                .setSubject(subject)
+                .setExpiration(new Date(expiresAt));
+    }
+}
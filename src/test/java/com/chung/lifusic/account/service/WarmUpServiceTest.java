@@ -0,0 +1,93 @@
+package com.chung.lifusic.account.service;
+
+import com.chung.lifusic.account.config.JwtProperties;
+import com.chung.lifusic.account.repository.TokenSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class WarmUpServiceTest {
+    private static final String SECRET_KEY = "dGVzdC1zZWNyZXQta2V5LWZvci1saWZ1c2ljLWFjY291bnQtc2VydmVyLTAxMjM0NTY3ODk=";
+
+    private WarmUpService warmUpService;
+
+    @Mock
+    private TokenSessionRepository tokenSessionRepository;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private AuthAnalyticsRecorder authAnalyticsRecorder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.getSecret().setKey(SECRET_KEY);
+        properties.getJwt().setExpiredAfterMs(60_000);
+        properties.getJwt().setMaxSessionsPerUser(5);
+        JwtService jwtService = new JwtService(properties, tokenSessionRepository, verifiedTokenCache, authAnalyticsRecorder);
+        warmUpService = new WarmUpService(jwtService, new BCryptPasswordEncoder(4),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(warmUpService, "ENABLED", true);
+        ReflectionTestUtils.setField(warmUpService, "ITERATIONS", 50);
+        ReflectionTestUtils.setField(warmUpService, "PASSWORD_ITERATIONS", 2);
+        ReflectionTestUtils.setField(warmUpService, "TIME_BUDGET_MS", 60_000L);
+    }
+
+    @DisplayName("반복 횟수를 채우면 완료되고, Redis 세션 저장소와 토큰 캐시는 사용하지 않는다")
+    @Test
+    public void completeAfterIterations() {
+        // when
+        warmUpService.warmUp();
+
+        // then
+        Assertions.assertTrue(warmUpService.isCompleted());
+        Assertions.assertEquals(50.0, meterRegistry.get("warmup.iterations").gauge().value());
+        Assertions.assertEquals(2.0, meterRegistry.get("warmup.password.iterations").gauge().value());
+        Assertions.assertEquals(1.0, meterRegistry.get("warmup.completed").gauge().value());
+        Assertions.assertEquals(1.0, warmUpService.getProgress());
+        verifyNoInteractions(tokenSessionRepository, verifiedTokenCache);
+    }
+
+    @DisplayName("시간 제한이 지나면 반복 횟수를 채우지 못해도 완료")
+    @Test
+    public void completeWhenTimeBudgetExceeded() {
+        // given
+        ReflectionTestUtils.setField(warmUpService, "TIME_BUDGET_MS", 0L);
+
+        // when
+        warmUpService.warmUp();
+
+        // then
+        Assertions.assertTrue(warmUpService.isCompleted());
+        Assertions.assertEquals(0.0, meterRegistry.get("warmup.iterations").gauge().value());
+    }
+
+    @DisplayName("워밍업을 사용하지 않으면 시작하자마자 완료")
+    @Test
+    public void completeImmediatelyWhenDisabled() {
+        // given
+        ReflectionTestUtils.setField(warmUpService, "ENABLED", false);
+        Assertions.assertFalse(warmUpService.isCompleted());
+
+        // when
+        warmUpService.warmUpOnStartup();
+
+        // then
+        Assertions.assertTrue(warmUpService.isCompleted());
+    }
+}